@@ -0,0 +1,43 @@
+package benchmark;
+
+import java.util.Arrays;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs a group of benchmarks with allocation and heap profiling (-prof gc and HeapProfiler) and writes the results
+ * as JSON, so that runs of different releases can be compared. The benchmarks need JMH 1.37 (jmh-core and
+ * jmh-generator-annprocess) on the class path when src/jmh is compiled, alongside src/main and lib/*.jar:
+ *   java -cp <classes>:<jmh jars>:lib/* benchmark.BenchmarkRunner <group> <results.json> [JMH options]
+ * where group is the prefix of a benchmark class (Model runs ModelBenchmark, Persistence runs PersistenceBenchmark)
+ * and the JMH options are passed on, e.g. -p plantings=1000 -f 2.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    /*
+     * EFFECTS: runs the benchmarks of the group named by the first argument and
+     * writes their results to the file named by the second
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkRunner <group> <results.json> [JMH options]");
+            System.exit(2);
+        }
+        CommandLineOptions passedOn = new CommandLineOptions(Arrays.copyOfRange(args, 2, args.length));
+        new Runner(new OptionsBuilder()
+                .parent(passedOn)
+                .include("benchmark\\." + args[0] + "Benchmark\\.")
+                .addProfiler(GCProfiler.class)
+                .addProfiler(HeapProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(args[1])
+                .build()).run();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import model.*;
+
+/*
+ * Generates the farms the benchmarks run on. The same arguments always give the same farm: catalogSize plantable
+ * crops with every growing time from 1 to 4 quarters, and plantings of 1 square kilometre each spread over them
+ * round-robin, at every stage of growth from just planted to ripe.
+ */
+public final class Farms {
+    private Farms() {
+    }
+
+    /*
+     * REQUIRES: plantings >= 0, catalogSize > 0
+     * EFFECTS: returns a farm with the given number of plantings over a catalog
+     * of catalogSize crops, kept in the given storage, with so much area left
+     * that planting never fills it
+     */
+    public static Farm generate(int plantings, int catalogSize, Farm.Storage storage) {
+        Crop[] catalog = catalog(catalogSize);
+        FarmLoader loader = new FarmLoader(Integer.MAX_VALUE, storage);
+        for (Crop crop : catalog) {
+            loader.addPlantableCrop(crop);
+        }
+        for (int i = 0; i < plantings; i++) {
+            Crop crop = catalog[i % catalogSize];
+            loader.addPlantedCrop(crop, 1, (i / catalogSize) % (crop.getTimeRequired() + 1));
+        }
+        return loader.finish();
+    }
+
+    /*
+     * REQUIRES: catalogSize > 0
+     * EFFECTS: returns catalogSize crops named crop0, crop1, ... with seeds that
+     * never run out
+     */
+    public static Crop[] catalog(int catalogSize) {
+        Crop[] catalog = new Crop[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            catalog[i] = new Crop("crop" + i, 1 + i % 100, Integer.MAX_VALUE, 1 + i % 4);
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.*;
+
+/*
+ * Represents a profiler that reports, for each iteration, the peak heap used and, for benchmarks that count the
+ * plantings they process through countPlantings, the bytes allocated per planting. The peak heap is the sum of the
+ * peaks of the heap pools, which can be reached at different times, so it is an upper bound; it is reset before
+ * every iteration, and the highest of the iterations is reported. The allocation is that of every thread of the
+ * benchmark VM over the iteration.
+ */
+public class HeapProfiler implements InternalProfiler {
+    private static final LongAdder PLANTINGS = new LongAdder(); // counted by the benchmarks during the iteration
+
+    private long allocatedBefore;
+
+    /*
+     * EFFECTS: counts plantings as processed by the current iteration
+     */
+    public static void countPlantings(long plantings) {
+        PLANTINGS.add(plantings);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Peak heap and allocation per planting";
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: resets the peaks of the heap pools and the planting count, and
+     * notes the bytes allocated so far
+     */
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        for (MemoryPoolMXBean pool : heapPools()) {
+            pool.resetPeakUsage();
+        }
+        PLANTINGS.reset();
+        allocatedBefore = allocatedBytes();
+    }
+
+    /*
+     * EFFECTS: returns the peak heap of the iteration and, if any plantings were
+     * counted, the bytes allocated per planting
+     */
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+            IterationParams iterationParams, IterationResult result) {
+        long allocated = allocatedBytes() - allocatedBefore;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        List<Result> results = new ArrayList<Result>();
+        results.add(new ScalarResult("heap.peak", peak / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+        long plantings = PLANTINGS.sum();
+        if (plantings > 0) {
+            results.add(new ScalarResult("alloc.perPlanting", (double) allocated / plantings, "B/planting",
+                    AggregationPolicy.AVG));
+        }
+        return results;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    /*
+     * EFFECTS: returns the bytes allocated so far by the live threads of this VM
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,242 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import model.*;
+import exception.*;
+
+/*
+ * Benchmarks the hot paths of the model: planting, advancing time, harvesting, the area accounting, finding a crop by
+ * name and logging an event. The farm benchmarks are run for every combination of planting count, catalog size and
+ * storage; narrow them with -p, e.g. -p plantings=1000 -p storage=ARRAYS. Benchmarks that change the farm get a newly
+ * generated one for every iteration, and the ones that empty part of it (timeLapses, harvest) are timed once per
+ * iteration, so each measurement starts from the same farm. The EventLog benchmarks are paired with a baseline that
+ * logs to a ring buffer under a single lock, the way the EventLog did before it queued events per log. The Event
+ * benchmarks compare a typed event, whose description is formatted when first asked for, with a message event that
+ * formats it up front.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelBenchmark {
+    private static final int LOG_CAPACITY = 64 * 1024;
+
+    /*
+     * A generated farm
+     */
+    @State(Scope.Thread)
+    public static class FarmState {
+        @Param({"1", "1000", "100000", "10000000"})
+        public int plantings;
+
+        @Param({"1", "100", "10000"})
+        public int catalogSize;
+
+        @Param({"OBJECTS", "ARRAYS"})
+        public Farm.Storage storage;
+
+        private Farm farm;
+        private Crop[] crops;
+        private int next;
+
+        // EFFECTS: bounds the EventLog, so the benchmarks do not fill the heap with events
+        @Setup(Level.Trial)
+        public void boundLog() {
+            EventLog.getInstance().setCapacity(LOG_CAPACITY);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: generates the farm
+        @Setup(Level.Iteration)
+        public void generate() {
+            farm = Farms.generate(plantings, catalogSize, storage);
+            crops = farm.getPlantableCrops().toArray(new Crop[0]);
+            next = 0;
+        }
+
+        // EFFECTS: empties the EventLog and makes it unbounded again
+        @TearDown(Level.Trial)
+        public void releaseLog() {
+            EventLog.getInstance().clear();
+            EventLog.getInstance().setCapacity(0);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns the plantable crops in turn
+        Crop nextCrop() {
+            Crop crop = crops[next];
+            next = next + 1 == crops.length ? 0 : next + 1;
+            return crop;
+        }
+    }
+
+    /*
+     * A catalog of plantable crops and the names looked up in it
+     */
+    @State(Scope.Thread)
+    public static class CatalogState {
+        @Param({"1", "100", "10000"})
+        public int catalogSize;
+
+        private CropCatalog catalog;
+        private String[] names;
+        private int next;
+
+        // MODIFIES: this
+        // EFFECTS: fills the catalog, and looks up its names in a scattered order
+        @Setup(Level.Trial)
+        public void fill() {
+            catalog = new CropCatalog();
+            names = new String[catalogSize];
+            for (Crop crop : Farms.catalog(catalogSize)) {
+                catalog.put(crop);
+            }
+            for (int i = 0; i < catalogSize; i++) {
+                names[i] = "crop" + (int) ((i * 2654435761L) % catalogSize);
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns the names to look up in turn
+        String nextName() {
+            String name = names[next];
+            next = next + 1 == names.length ? 0 : next + 1;
+            return name;
+        }
+    }
+
+    /*
+     * The EventLog, bounded so that it stays the same size while it is benchmarked
+     */
+    @State(Scope.Benchmark)
+    public static class LogState {
+        // EFFECTS: bounds the EventLog
+        @Setup(Level.Trial)
+        public void bound() {
+            EventLog.getInstance().setCapacity(LOG_CAPACITY);
+        }
+
+        // EFFECTS: empties the EventLog and makes it unbounded again
+        @TearDown(Level.Trial)
+        public void release() {
+            EventLog.getInstance().clear();
+            EventLog.getInstance().setCapacity(0);
+        }
+    }
+
+    /*
+     * The fields of a planting event, read from a state so that they are not constant folded
+     */
+    @State(Scope.Thread)
+    public static class EventState {
+        String cropName = "wheat";
+        int plantArea = 1;
+        int time = 0;
+    }
+
+    /*
+     * A bounded ring buffer of events guarded by one lock, the baseline that the EventLog is compared with
+     */
+    @State(Scope.Benchmark)
+    public static class SynchronizedLogState {
+        private Event[] events; // the logged events, the oldest at head
+        private int head; // the index of the oldest event
+        private int size; // the number of logged events
+
+        // EFFECTS: empties the ring buffer
+        @Setup(Level.Trial)
+        public void create() {
+            events = new Event[LOG_CAPACITY];
+            head = 0;
+            size = 0;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: adds e to the ring buffer, evicting the oldest event if it is full
+        synchronized void logEvent(Event e) {
+            if (size == events.length) {
+                events[head] = null;
+                head = head + 1 == events.length ? 0 : head + 1;
+                size--;
+            }
+            int tail = head + size;
+            events[tail < events.length ? tail : tail - events.length] = e;
+            size++;
+        }
+    }
+
+    @Benchmark
+    public Farm plant(FarmState state) throws NonPositiveAreaException, FilledFarmException {
+        state.farm.plant(state.nextCrop(), 1);
+        return state.farm;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Farm timeLapses(FarmState state) {
+        state.farm.timeLapses();
+        return state.farm;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Farm harvest(FarmState state) {
+        state.farm.harvest();
+        return state.farm;
+    }
+
+    @Benchmark
+    public int remainingArea(FarmState state) {
+        return state.farm.remainingArea();
+    }
+
+    @Benchmark
+    public Crop findCropByName(CatalogState state) {
+        return Crop.findCropByName(state.catalog, state.nextName());
+    }
+
+    @Benchmark
+    public Event typedEvent(EventState state) {
+        return Event.planted(state.cropName, state.plantArea, state.time);
+    }
+
+    @Benchmark
+    public String typedEventDescription(EventState state) {
+        return Event.planted(state.cropName, state.plantArea, state.time).getDescription();
+    }
+
+    @Benchmark
+    public Event messageEvent(EventState state) {
+        return new Event("Planted " + state.plantArea + " sq km of " + state.cropName);
+    }
+
+    @Benchmark
+    public void logEvent(LogState state) {
+        EventLog.getInstance().logEvent(Event.timeAdvanced(1));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logEventContended(LogState state) {
+        EventLog.getInstance().logEvent(Event.timeAdvanced(1));
+    }
+
+    @Benchmark
+    public void logEventSynchronized(SynchronizedLogState state) {
+        state.logEvent(Event.timeAdvanced(1));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logEventSynchronizedContended(SynchronizedLogState state) {
+        state.logEvent(Event.timeAdvanced(1));
+    }
+}
@@ -0,0 +1,182 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import model.*;
+import persistence.*;
+
+/*
+ * Benchmarks saving and loading generated farms in every persistence format, for files of about 1 KB up to 1 GB.
+ * Each write or read is one operation, so besides operations per second the results give the throughput in MB/s
+ * (megabytes) and plantings/s (plantings); run with HeapProfiler (as BenchmarkRunner does) for the peak heap and
+ * the allocation per planting. A new format is benchmarked by adding it to Format.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms16g", "-Xmx16g"})
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PersistenceBenchmark {
+    private static final int SAMPLE_PLANTINGS = 10000;
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    /*
+     * A persistence format, written and read by its writer and reader
+     */
+    public enum Format {
+        JSON {
+            @Override
+            void write(Farm farm, String destination) throws IOException {
+                JsonWriter writer = new JsonWriter(destination);
+                writer.open();
+                writer.write(farm);
+                writer.close();
+            }
+
+            @Override
+            Farm read(String source) throws IOException {
+                return new JsonReader(source).read();
+            }
+        },
+        JSON_COMPACT {
+            @Override
+            void write(Farm farm, String destination) throws IOException {
+                JsonWriter writer = new JsonWriter(destination, false);
+                writer.open();
+                writer.write(farm);
+                writer.close();
+            }
+
+            @Override
+            Farm read(String source) throws IOException {
+                return new JsonReader(source).read();
+            }
+        },
+        SNAPSHOT {
+            @Override
+            void write(Farm farm, String destination) throws IOException {
+                SnapshotWriter writer = new SnapshotWriter(destination);
+                writer.open();
+                writer.write(farm);
+                writer.close();
+            }
+
+            @Override
+            Farm read(String source) throws IOException {
+                return new SnapshotReader(source).read();
+            }
+        };
+
+        abstract void write(Farm farm, String destination) throws IOException;
+
+        abstract Farm read(String source) throws IOException;
+    }
+
+    /*
+     * A generated farm of about the given file size in the given format, and a file it has been saved to. The farm
+     * has at least one planting, so its file is never smaller than that of a farm with one planting and its catalog.
+     */
+    @State(Scope.Benchmark)
+    public static class FileState {
+        @Param({"1KB", "1MB", "64MB", "1GB"})
+        public String size;
+
+        @Param({"JSON", "JSON_COMPACT", "SNAPSHOT"})
+        public Format format;
+
+        @Param({"10"})
+        public int catalogSize;
+
+        private File directory;
+        private String saved;
+        private String written;
+        private Farm farm;
+        private double megabytes;
+
+        // MODIFIES: this
+        // EFFECTS: generates a farm whose file in format is about size bytes, and saves it
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            directory = Files.createTempDirectory("farm-bench").toFile();
+            saved = new File(directory, "saved").getPath();
+            written = new File(directory, "written").getPath();
+            long empty = fileSize(0);
+            double perPlanting = (double) (fileSize(SAMPLE_PLANTINGS) - empty) / SAMPLE_PLANTINGS;
+            long plantings = Math.max(1, Math.round((parseSize(size) - empty) / perPlanting));
+            farm = Farms.generate((int) Math.min(plantings, Integer.MAX_VALUE), catalogSize, Farm.Storage.ARRAYS);
+            format.write(farm, saved);
+            megabytes = new File(saved).length() / MEGABYTE;
+        }
+
+        // EFFECTS: deletes the files and the directory holding them
+        @TearDown(Level.Trial)
+        public void delete() {
+            new File(saved).delete();
+            new File(written).delete();
+            directory.delete();
+        }
+
+        // EFFECTS: returns the size of the file of a generated farm with the given number of plantings
+        private long fileSize(int plantings) throws IOException {
+            format.write(Farms.generate(plantings, catalogSize, Farm.Storage.ARRAYS), saved);
+            return new File(saved).length();
+        }
+    }
+
+    /*
+     * The megabytes and plantings processed, reported per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Processed {
+        public double megabytes;
+        public long plantings;
+
+        // MODIFIES: this
+        // EFFECTS: starts the counts of the iteration from zero
+        @Setup(Level.Iteration)
+        public void clear() {
+            megabytes = 0;
+            plantings = 0;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: counts the file and the plantings of the farm as processed
+        void count(FileState file, int plantingCount) {
+            megabytes += file.megabytes;
+            plantings += plantingCount;
+            HeapProfiler.countPlantings(plantingCount);
+        }
+    }
+
+    @Benchmark
+    public void write(FileState file, Processed processed) throws IOException {
+        file.format.write(file.farm, file.written);
+        processed.count(file, file.farm.getPlantedCropCount());
+    }
+
+    @Benchmark
+    public Farm read(FileState file, Processed processed) throws IOException {
+        Farm farm = file.format.read(file.saved);
+        processed.count(file, farm.getPlantedCropCount());
+        return farm;
+    }
+
+    /*
+     * REQUIRES: size is a number of bytes, optionally followed by KB, MB or GB
+     * EFFECTS: returns the number of bytes size stands for
+     */
+    static long parseSize(String size) {
+        String[] units = {"GB", "MB", "KB"};
+        for (int i = 0; i < units.length; i++) {
+            if (size.endsWith(units[i])) {
+                long number = Long.parseLong(size.substring(0, size.length() - 2));
+                return number << (10 * (units.length - i));
+            }
+        }
+        return Long.parseLong(size);
+    }
+}
@@ -0,0 +1,458 @@
+package model;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Represents a plot store that keeps its plantings in parallel primitive arrays: a crop type id, the seeds of the
+ * crop when it was planted, the planted area and the ripening quarter of each planting. The CropTypes of the
+ * plantings are dictionary encoded, so a planting costs a few ints instead of a PlantedCrop object and the
+ * dictionary only grows with the number of distinct crop types; PlantedCrop views are only built when they are asked
+ * for.
+ *
+ * A snapshot shares the arrays of the store it was taken from. The original may keep appending rows past the end
+ * of the snapshot, but copies its arrays before it overwrites a row (when harvesting or compacting); the snapshot
+ * copies them before any change of its own.
+ */
+class ArrayPlotStore extends PlotStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int HARVESTED = -1; // the type id of a harvested row
+
+    private ArrayList<CropType> types; // the distinct crop types planted since the store was cleared, by type id
+    private HashMap<CropType, Integer> typeIds; // the type id of each distinct crop type
+    private int[] typeIdColumn; // the type id of each row, HARVESTED once harvested
+    private int[] seedsColumn; // the seeds the crop of each row had when it was planted
+    private int[] areaColumn; // the planted area of each row
+    private int[] ripeningQuarterColumn; // the farm quarter in which each row ripens
+    private int rows; // the number of used rows
+    private int harvestedRows; // the number of harvested rows not yet compacted
+    private int[][] wheelRows; // the rows that ripen in each ripening wheel slot
+    private int[] wheelSizes; // the number of rows in each ripening wheel slot
+    private List<PlantedCrop> views; // the cached views of the rows, null if outdated
+    private int viewsQuarter; // the quarter in which the cached views were built
+    private boolean overwriteShared; // whether a snapshot reads the existing rows of the arrays
+    private boolean appendShared; // whether the arrays belong to the store this one is a snapshot of
+
+    /*
+     * EFFECTS: constructs an empty store
+     */
+    ArrayPlotStore() {
+        this.clear();
+    }
+
+    /*
+     * EFFECTS: constructs a snapshot of source that shares its arrays
+     */
+    private ArrayPlotStore(ArrayPlotStore source) {
+        this.types = new ArrayList<CropType>(source.types);
+        this.typeIds = new HashMap<CropType, Integer>(source.typeIds);
+        this.typeIdColumn = source.typeIdColumn;
+        this.seedsColumn = source.seedsColumn;
+        this.areaColumn = source.areaColumn;
+        this.ripeningQuarterColumn = source.ripeningQuarterColumn;
+        this.rows = source.rows;
+        this.harvestedRows = source.harvestedRows;
+        this.wheelRows = source.wheelRows.clone();
+        this.wheelSizes = source.wheelSizes.clone();
+        this.overwriteShared = true;
+        this.appendShared = true;
+        this.setParallelThreshold(source.getParallelThreshold());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns a snapshot of this store that shares its arrays until
+     * either side changes them
+     */
+    @Override
+    PlotStore snapshot(int quarter) {
+        this.overwriteShared = true;
+        return new ArrayPlotStore(this);
+    }
+
+    @Override
+    void plant(Crop crop, int plantArea, int ripeningQuarter) {
+        this.addRow(this.typeIdOf(crop.getType()), crop.getSeeds(), plantArea, ripeningQuarter);
+    }
+
+    @Override
+    void add(PlantedCrop plantedCrop, int ripeningQuarter) {
+        this.addRow(this.typeIdOf(plantedCrop.getType()), plantedCrop.getSeeds(), plantedCrop.getPlantedArea(),
+                ripeningQuarter);
+    }
+
+    /*
+     * MODIFIES: this, areaByCrop
+     * EFFECTS: stores the plantings held in records as PlotStore.plantRecords
+     * does, filling the columns straight from records after growing them once
+     * for all the rows, then filing the rows in ripening wheel slots sized for
+     * them
+     */
+    @Override
+    void plantRecords(Crop[] cropTable, IntBuffer records, int count, int quarter, long[] areaByCrop)
+            throws IllegalArgumentException {
+        if (this.appendShared) {
+            this.unshare();
+        }
+        int[] typeIdOfCrop = new int[cropTable.length];
+        int[] seedsOfCrop = new int[cropTable.length];
+        int[] timeRequiredOfCrop = new int[cropTable.length];
+        for (int i = 0; i < cropTable.length; i++) {
+            typeIdOfCrop[i] = this.typeIdOf(cropTable[i].getType());
+            seedsOfCrop[i] = cropTable[i].getSeeds();
+            timeRequiredOfCrop[i] = cropTable[i].getTimeRequired();
+        }
+        this.ensureCapacity(this.rows + count);
+        this.views = null;
+        int firstRow = this.rows;
+        int[] slotCounts = new int[WHEEL_SIZE];
+
+        for (int i = 0; i < count; i++) {
+            int index = checkIndex(records.get(3 * i), cropTable.length);
+            int plantArea = areaOf(records.get(3 * i + 1));
+            int ripeningQuarter = ripeningQuarter(quarter, timeRequiredOfCrop[index], records.get(3 * i + 2));
+            this.typeIdColumn[this.rows] = typeIdOfCrop[index];
+            this.seedsColumn[this.rows] = seedsOfCrop[index];
+            this.areaColumn[this.rows] = plantArea;
+            this.ripeningQuarterColumn[this.rows] = ripeningQuarter;
+            slotCounts[ripeningQuarter & (WHEEL_SIZE - 1)]++;
+            this.rows++;
+            areaByCrop[index] += plantArea;
+        }
+
+        for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+            int needed = this.wheelSizes[slot] + slotCounts[slot];
+            if (needed > this.wheelRows[slot].length) {
+                this.wheelRows[slot] = Arrays.copyOf(this.wheelRows[slot], needed);
+            }
+        }
+        for (int row = firstRow; row < this.rows; row++) {
+            int slot = this.ripeningQuarterColumn[row] & (WHEEL_SIZE - 1);
+            this.wheelRows[slot][this.wheelSizes[slot]++] = row;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: harvests the rows filed under the given quarters by marking them
+     * as harvested, compacts the columns once at least half of the rows are
+     * harvested
+     */
+    @Override
+    Harvest harvest(int firstQuarter, int lastQuarter) {
+        int[] cropsByType = new int[this.types.size()];
+        int[] areaByType = new int[this.types.size()];
+        int crops = 0;
+
+        for (int q = firstQuarter; q <= lastQuarter; q++) {
+            int slot = q & (WHEEL_SIZE - 1);
+            int bucketSize = this.wheelSizes[slot];
+            if (bucketSize > 0) {
+                this.unshare();
+            }
+            int[] bucket = this.wheelRows[slot];
+            if (this.harvestsInParallel(bucketSize)) {
+                int[][] counts = ForkJoinPool.commonPool()
+                        .invoke(new HarvestTask(bucket, 0, bucketSize, this.chunkSize(bucketSize)));
+                addTo(cropsByType, counts[0]);
+                addTo(areaByType, counts[1]);
+            } else {
+                this.harvestRows(bucket, 0, bucketSize, cropsByType, areaByType);
+            }
+            crops += bucketSize;
+            this.wheelSizes[slot] = 0;
+        }
+
+        Harvest harvest = new Harvest();
+        if (crops > 0) {
+            this.collectHarvest(cropsByType, areaByType, harvest);
+            this.harvestedRows += crops;
+            this.views = null;
+            if (this.harvestedRows * 2 >= this.rows) {
+                this.compact();
+            }
+        }
+        return harvest;
+    }
+
+    @Override
+    List<PlantedCrop> plantedCrops(int quarter) {
+        if (this.views == null || this.viewsQuarter != quarter) {
+            this.compact();
+            List<PlantedCrop> plantedCrops = new ArrayList<PlantedCrop>(this.rows);
+
+            for (int row = 0; row < this.rows; row++) {
+                plantedCrops.add(this.viewOf(row, quarter));
+            }
+
+            this.views = Collections.unmodifiableList(plantedCrops);
+            this.viewsQuarter = quarter;
+        }
+        return this.views;
+    }
+
+    @Override
+    void forEachPlanting(int quarter, PlantingVisitor visitor) throws IOException {
+        Crop crop = null;
+        for (int row = 0; row < this.rows; row++) {
+            int typeId = this.typeIdColumn[row];
+            if (typeId != HARVESTED) {
+                CropType type = this.types.get(typeId);
+                if (crop == null || crop.getType() != type || crop.getSeeds() != this.seedsColumn[row]) {
+                    crop = new Crop(type, this.seedsColumn[row]);
+                }
+                int timeGrown = type.getTimeRequired() - (this.ripeningQuarterColumn[row] - quarter);
+                visitor.visit(crop, timeGrown, this.areaColumn[row]);
+            }
+        }
+    }
+
+    @Override
+    List<PlantedCrop> ripeningIn(int ripeningQuarter, int quarter) {
+        int slot = ripeningQuarter & (WHEEL_SIZE - 1);
+        List<PlantedCrop> ripening = new ArrayList<PlantedCrop>(this.wheelSizes[slot]);
+
+        for (int i = 0; i < this.wheelSizes[slot]; i++) {
+            ripening.add(this.viewOf(this.wheelRows[slot][i], quarter));
+        }
+
+        return ripening;
+    }
+
+    @Override
+    int size() {
+        return this.rows - this.harvestedRows;
+    }
+
+    int typeCount() {
+        return this.types.size();
+    }
+
+    /*
+     * EFFECTS: returns true if this store and other read their rows from the
+     * same arrays, so neither has copied them since a snapshot
+     */
+    boolean sharesRowsWith(ArrayPlotStore other) {
+        return this.typeIdColumn == other.typeIdColumn;
+    }
+
+    @Override
+    void clear() {
+        this.overwriteShared = false;
+        this.appendShared = false;
+        this.types = new ArrayList<CropType>();
+        this.typeIds = new HashMap<CropType, Integer>();
+        this.typeIdColumn = new int[INITIAL_CAPACITY];
+        this.seedsColumn = new int[INITIAL_CAPACITY];
+        this.areaColumn = new int[INITIAL_CAPACITY];
+        this.ripeningQuarterColumn = new int[INITIAL_CAPACITY];
+        this.rows = 0;
+        this.harvestedRows = 0;
+        this.wheelRows = new int[WHEEL_SIZE][INITIAL_CAPACITY];
+        this.wheelSizes = new int[WHEEL_SIZE];
+        this.views = null;
+    }
+
+    /*
+     * MODIFIES: this, cropsByType, areaByType
+     * EFFECTS: marks the rows in bucket[from..to) as harvested and adds their
+     * number and area to cropsByType and areaByType
+     */
+    private void harvestRows(int[] bucket, int from, int to, int[] cropsByType, int[] areaByType) {
+        for (int i = from; i < to; i++) {
+            int row = bucket[i];
+            int typeId = this.typeIdColumn[row];
+            cropsByType[typeId]++;
+            areaByType[typeId] += this.areaColumn[row];
+            this.typeIdColumn[row] = HARVESTED;
+        }
+    }
+
+    /*
+     * MODIFIES: total
+     * EFFECTS: adds every entry of part to the same entry of total
+     */
+    private static void addTo(int[] total, int[] part) {
+        for (int i = 0; i < part.length; i++) {
+            total[i] += part[i];
+        }
+    }
+
+    /*
+     * Represents the harvest of a range of a ripening wheel bucket, split in
+     * halves until a range fits in one chunk; returns the number and the area of
+     * the harvested rows by type id
+     */
+    private class HarvestTask extends RecursiveTask<int[][]> {
+        private final int[] bucket; // the rows of the bucket
+        private final int from; // the first index of the range
+        private final int to; // the index after the last one of the range
+        private final int chunkSize; // the largest range harvested without splitting
+
+        HarvestTask(int[] bucket, int from, int to, int chunkSize) {
+            this.bucket = bucket;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected int[][] compute() {
+            if (this.to - this.from <= this.chunkSize) {
+                int[][] counts = new int[2][types.size()];
+                harvestRows(this.bucket, this.from, this.to, counts[0], counts[1]);
+                return counts;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            HarvestTask left = new HarvestTask(this.bucket, this.from, middle, this.chunkSize);
+            HarvestTask right = new HarvestTask(this.bucket, middle, this.to, this.chunkSize);
+            left.fork();
+            int[][] counts = right.compute();
+            int[][] leftCounts = left.join();
+            addTo(leftCounts[0], counts[0]);
+            addTo(leftCounts[1], counts[1]);
+            return leftCounts;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns the type id of type, assigning the next id if no crop of
+     * that type has been planted since the store was cleared
+     */
+    private int typeIdOf(CropType type) {
+        Integer typeId = this.typeIds.get(type);
+        if (typeId == null) {
+            typeId = this.types.size();
+            this.types.add(type);
+            this.typeIds.put(type, typeId);
+        }
+        return typeId;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: appends a row with the given columns and files it in the ripening
+     * wheel, growing the arrays as needed
+     */
+    private void addRow(int typeId, int seeds, int plantArea, int ripeningQuarter) {
+        if (this.appendShared) {
+            this.unshare();
+        }
+        if (this.rows == this.typeIdColumn.length) {
+            this.ensureCapacity(this.rows * 2);
+        }
+        this.typeIdColumn[this.rows] = typeId;
+        this.seedsColumn[this.rows] = seeds;
+        this.areaColumn[this.rows] = plantArea;
+        this.ripeningQuarterColumn[this.rows] = ripeningQuarter;
+        this.fileRow(this.rows, ripeningQuarter);
+        this.rows++;
+        this.views = null;
+    }
+
+    /*
+     * REQUIRES: the arrays are not shared
+     * MODIFIES: this
+     * EFFECTS: grows the columns to hold at least capacity rows
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.typeIdColumn.length) {
+            this.typeIdColumn = Arrays.copyOf(this.typeIdColumn, capacity);
+            this.seedsColumn = Arrays.copyOf(this.seedsColumn, capacity);
+            this.areaColumn = Arrays.copyOf(this.areaColumn, capacity);
+            this.ripeningQuarterColumn = Arrays.copyOf(this.ripeningQuarterColumn, capacity);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: if the arrays are shared with a snapshot or the store this one
+     * is a snapshot of, replaces them with private copies
+     */
+    private void unshare() {
+        if (!this.overwriteShared && !this.appendShared) {
+            return;
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, this.rows);
+        this.typeIdColumn = Arrays.copyOf(this.typeIdColumn, capacity);
+        this.seedsColumn = Arrays.copyOf(this.seedsColumn, capacity);
+        this.areaColumn = Arrays.copyOf(this.areaColumn, capacity);
+        this.ripeningQuarterColumn = Arrays.copyOf(this.ripeningQuarterColumn, capacity);
+        for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+            this.wheelRows[slot] = Arrays.copyOf(this.wheelRows[slot],
+                    Math.max(INITIAL_CAPACITY, this.wheelSizes[slot]));
+        }
+        this.overwriteShared = false;
+        this.appendShared = false;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds row to the ripening wheel slot of ripeningQuarter
+     */
+    private void fileRow(int row, int ripeningQuarter) {
+        int slot = ripeningQuarter & (WHEEL_SIZE - 1);
+        if (this.wheelSizes[slot] == this.wheelRows[slot].length) {
+            this.wheelRows[slot] = Arrays.copyOf(this.wheelRows[slot], this.wheelSizes[slot] * 2);
+        }
+        this.wheelRows[slot][this.wheelSizes[slot]] = row;
+        this.wheelSizes[slot]++;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes the harvested rows in a single pass, keeping the planting
+     * order, and refiles the remaining rows in the ripening wheel
+     */
+    private void compact() {
+        if (this.harvestedRows == 0) {
+            return;
+        }
+        this.unshare();
+        Arrays.fill(this.wheelSizes, 0);
+        int next = 0;
+
+        for (int row = 0; row < this.rows; row++) {
+            if (this.typeIdColumn[row] != HARVESTED) {
+                this.typeIdColumn[next] = this.typeIdColumn[row];
+                this.seedsColumn[next] = this.seedsColumn[row];
+                this.areaColumn[next] = this.areaColumn[row];
+                this.ripeningQuarterColumn[next] = this.ripeningQuarterColumn[row];
+                this.fileRow(next, this.ripeningQuarterColumn[next]);
+                next++;
+            }
+        }
+
+        this.rows = next;
+        this.harvestedRows = 0;
+    }
+
+    /*
+     * EFFECTS: returns a new PlantedCrop holding the data of row, as it is in the
+     * given quarter
+     */
+    private PlantedCrop viewOf(int row, int quarter) {
+        CropType type = this.types.get(this.typeIdColumn[row]);
+        PlantedCrop view = new PlantedCrop(type, this.seedsColumn[row], this.areaColumn[row]);
+        view.setTimeGrown(type.getTimeRequired() - (this.ripeningQuarterColumn[row] - quarter));
+        return view;
+    }
+
+    /*
+     * MODIFIES: harvest
+     * EFFECTS: records in harvest the harvested rows of each type, given their
+     * number and area by type id
+     */
+    private void collectHarvest(int[] cropsByType, int[] areaByType, Harvest harvest) {
+        for (int typeId = 0; typeId < areaByType.length; typeId++) {
+            if (cropsByType[typeId] != 0) {
+                CropType type = this.types.get(typeId);
+                harvest.add(cropsByType[typeId], type.getName(), areaByType[typeId],
+                        areaByType[typeId] * type.getRevenue());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -1,20 +1,20 @@
 package model;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Collection;
 import org.json.JSONObject;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 import exception.*;
+import persistence.JsonTokenWriter;
 import persistence.Writable;
 
 /*
  * Represents a crop with its name, revenue per square kilometre (in dollar), remaining amount of seeds (in square
- * kilometres), time required to ripe (in quarter).
+ * kilometres), time required to ripe (in quarter). The name, revenue and time required are held by a shared CropType.
  */
 public class Crop implements Writable {
-    protected String name; // the name of the crop
-    protected int revenue; // the revenue of the crop
+    protected CropType type; // the variety of the crop (name, revenue and time required)
     protected int seeds; // the remaining amount of seeds of the crop
-    protected int timeRequired; // the required time for the crop to ripe
 
     /*
      * EFFECTS: name of the crop is set to cropName not assigned to any other crop;
@@ -34,10 +34,20 @@ public class Crop implements Writable {
         if (timeRequired < 1 || timeRequired > 4) {
             throw new IllegalArgumentException("Time required must be between 1 and 4 quarters");
         }
-        this.name = name;
-        this.revenue = revenue;
+        this.type = CropType.of(name, revenue, timeRequired);
+        this.seeds = seeds;
+    }
+
+    /*
+     * EFFECTS: crop is of the given type with the given remaining amount of
+     * seeds, throws IllegalArgumentException if seeds < 0
+     */
+    public Crop(CropType type, int seeds) throws IllegalArgumentException {
+        if (seeds < 0) {
+            throw new IllegalArgumentException("Seeds amount cannot be negative");
+        }
+        this.type = type;
         this.seeds = seeds;
-        this.timeRequired = timeRequired;
     }
 
     /*
@@ -46,12 +56,20 @@ public class Crop implements Writable {
      * EFFECTS: increases this.seeds by amount
      */
     public void addSeeds(int amount) throws NonPositiveAreaException {
+        this.addSeeds(amount, EventLog.getInstance());
+    }
+
+    /*
+     * REQUIRES: amount > 0
+     * MODIFIES: this, log
+     * EFFECTS: increases this.seeds by amount and logs it to log
+     */
+    void addSeeds(int amount, EventLog log) throws NonPositiveAreaException {
         if (amount <= 0) {
             throw new NonPositiveAreaException();
         }
         this.seeds += amount;
-        EventLog.getInstance().logEvent(new Event(
-                "Added " + amount + " sq km seeds to " + this.name + " - Total seeds now: " + this.seeds + " sq km"));
+        log.logEvent(Event.seedsAdded(this.getName(), amount, this.seeds));
     }
 
     /*
@@ -69,10 +87,14 @@ public class Crop implements Writable {
     }
 
     /*
-     * EFFECTS: returns the Crop where Crop.name == name in crops, returns null if
-     * such Crop does not exist
+     * EFFECTS: returns the Crop where Crop.name == name (ignoring case) in crops,
+     * returns null if such Crop does not exist; looks the name up in constant
+     * time if crops is a CropCatalog
      */
-    public static Crop findCropByName(ArrayList<Crop> crops, String name) {
+    public static Crop findCropByName(Collection<Crop> crops, String name) {
+        if (crops instanceof CropCatalog) {
+            return ((CropCatalog) crops).find(name);
+        }
 
         for (Crop c : crops) {
             if (c.getName().equalsIgnoreCase(name)) {
@@ -83,12 +105,16 @@ public class Crop implements Writable {
         return null;
     }
 
+    public CropType getType() {
+        return this.type;
+    }
+
     public String getName() {
-        return this.name;
+        return this.type.getName();
     }
 
     public int getRevenue() {
-        return this.revenue;
+        return this.type.getRevenue();
     }
 
     public int getSeeds() {
@@ -96,7 +122,7 @@ public class Crop implements Writable {
     }
 
     public int getTimeRequired() {
-        return this.timeRequired;
+        return this.type.getTimeRequired();
     }
 
     /*
@@ -104,7 +130,7 @@ public class Crop implements Writable {
      */
     public String toString() {
         return String.format("%s - $%d - %d seeds - %dq",
-                this.name, this.revenue, this.seeds, this.timeRequired);
+                this.getName(), this.getRevenue(), this.seeds, this.getTimeRequired());
     }
 
     @ExcludeFromJacocoGeneratedReport
@@ -112,10 +138,10 @@ public class Crop implements Writable {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((name == null) ? 0 : name.hashCode());
-        result = prime * result + revenue;
+        result = prime * result + getName().hashCode();
+        result = prime * result + getRevenue();
         result = prime * result + seeds;
-        result = prime * result + timeRequired;
+        result = prime * result + getTimeRequired();
         return result;
     }
 
@@ -130,29 +156,26 @@ public class Crop implements Writable {
             return false;
         }
         Crop other = (Crop) obj;
-        if (name == null) {
-            if (other.name != null) {
-                return false;
-            }
-        } else if (!name.equals(other.name)) {
-            return false;
-        } else if (revenue != other.revenue) {
-            return false;
-        } else if (seeds != other.seeds) {
-            return false;
-        } else if (timeRequired != other.timeRequired) {
-            return false;
-        }
-        return true;
+        return type == other.type && seeds == other.seeds;
     }
 
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("name", this.name);
-        json.put("revenue", this.revenue);
+        json.put("name", this.getName());
+        json.put("revenue", this.getRevenue());
         json.put("seeds", this.seeds);
-        json.put("timeRequired", this.timeRequired);
+        json.put("timeRequired", this.getTimeRequired());
         return json;
     }
+
+    @Override
+    public void writeJson(JsonTokenWriter json) throws IOException {
+        json.beginObject();
+        json.name("name").value(this.getName());
+        json.name("revenue").value(this.getRevenue());
+        json.name("seeds").value(this.seeds);
+        json.name("timeRequired").value(this.getTimeRequired());
+        json.endObject();
+    }
 }
\ No newline at end of file
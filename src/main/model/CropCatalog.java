@@ -0,0 +1,164 @@
+package model;
+
+import java.util.*;
+
+/*
+ * Represents the catalog of plantable crops of a farm, in insertion order. Crops are indexed by case-folded name, so
+ * no two crops in the catalog share a name (ignoring case) and finding, replacing and removing a crop by name take
+ * constant time. Removed crops leave a null behind that is compacted away on the next positional access.
+ */
+public class CropCatalog extends AbstractList<Crop> {
+    private ArrayList<Crop> crops; // the crops in insertion order, removed ones are null until compacted
+    private HashMap<String, Integer> indexByName; // the index in crops of each crop, keyed by case-folded name
+    private int removedSlots; // the number of null (removed) entries in crops
+
+    /*
+     * EFFECTS: constructs an empty catalog
+     */
+    public CropCatalog() {
+        this.crops = new ArrayList<Crop>();
+        this.indexByName = new HashMap<String, Integer>();
+        this.removedSlots = 0;
+    }
+
+    /*
+     * EFFECTS: returns the crop whose name equals name ignoring case, returns null
+     * if there is no such crop
+     */
+    public Crop find(String name) {
+        if (name == null) {
+            return null;
+        }
+        Integer index = this.indexByName.get(fold(name));
+        return index == null ? null : this.crops.get(index);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds crop at the end of the catalog, or puts it in place of the
+     * crop with the same name (ignoring case) if there is one; returns the
+     * replaced crop, or null if crop was added
+     */
+    public Crop put(Crop crop) {
+        String key = fold(crop.getName());
+        Integer index = this.indexByName.get(key);
+        if (index != null) {
+            return this.crops.set(index, crop);
+        }
+        this.indexByName.put(key, this.crops.size());
+        this.crops.add(crop);
+        this.modCount++;
+        return null;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes the crop whose name equals name ignoring case and returns
+     * it, returns null if there is no such crop
+     */
+    public Crop remove(String name) {
+        Integer index = name == null ? null : this.indexByName.remove(fold(name));
+        if (index == null) {
+            return null;
+        }
+        this.removedSlots++;
+        this.modCount++;
+        return this.crops.set(index, null);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: same as this.put(crop), always returns true
+     */
+    @Override
+    public boolean add(Crop crop) {
+        this.put(crop);
+        return true;
+    }
+
+    @Override
+    public Crop get(int index) {
+        this.compact();
+        return this.crops.get(index);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes the crop at index and returns it
+     */
+    @Override
+    public Crop remove(int index) {
+        return this.remove(this.get(index).getName());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes o if it is a crop in this catalog, returns true if it was
+     * removed
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!this.contains(o)) {
+            return false;
+        }
+        this.remove(((Crop) o).getName());
+        return true;
+    }
+
+    /*
+     * EFFECTS: returns true if o is a crop equal to the crop of the same name in
+     * this catalog
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Crop)) {
+            return false;
+        }
+        Crop crop = (Crop) o;
+        return crop.equals(this.find(crop.getName()));
+    }
+
+    @Override
+    public int size() {
+        return this.crops.size() - this.removedSlots;
+    }
+
+    @Override
+    public void clear() {
+        this.crops.clear();
+        this.indexByName.clear();
+        this.removedSlots = 0;
+        this.modCount++;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes the null slots left by removals in a single pass, keeping
+     * the insertion order, and reindexes the remaining crops
+     */
+    private void compact() {
+        if (this.removedSlots == 0) {
+            return;
+        }
+        int next = 0;
+
+        for (int i = 0; i < this.crops.size(); i++) {
+            Crop c = this.crops.get(i);
+            if (c != null) {
+                this.crops.set(next, c);
+                this.indexByName.put(fold(c.getName()), next);
+                next++;
+            }
+        }
+
+        this.crops.subList(next, this.crops.size()).clear();
+        this.removedSlots = 0;
+    }
+
+    /*
+     * EFFECTS: returns name case-folded, the key under which crops are indexed
+     */
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,197 @@
+package model;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Represents a crop variety: its name, revenue per square kilometre (in dollar) and time required to ripe (in
+ * quarter). Crop types are immutable and interned, so every crop and planted crop of a variety shares one instance.
+ * The registry only holds them weakly: a type that no crop, planting or store refers to any more is collected and
+ * dropped from the registry, and a later lookup registers it again under a new id.
+ */
+public final class CropType {
+    private static final Map<String, Entry[]> REGISTRY = new ConcurrentHashMap<String, Entry[]>();
+    private static final Map<Integer, Entry> BY_ID = new ConcurrentHashMap<Integer, Entry>();
+    private static final ReferenceQueue<CropType> COLLECTED = new ReferenceQueue<CropType>();
+    private static int nextId = 0; // the id of the next registered crop type, guarded by REGISTRY
+
+    private final int id; // the registry id of the crop type
+    private final String name; // the name of the crop
+    private final int revenue; // the revenue of the crop
+    private final int timeRequired; // the required time for the crop to ripe
+
+    /*
+     * Represents the registration of a crop type, cleared once the type is collected
+     */
+    private static final class Entry extends WeakReference<CropType> {
+        private final String name; // the name the type is registered under
+        private final int id; // the registry id of the type
+
+        Entry(CropType type) {
+            super(type, COLLECTED);
+            this.name = type.name;
+            this.id = type.id;
+        }
+    }
+
+    /*
+     * EFFECTS: constructs a crop type with the given registry id and data
+     */
+    private CropType(int id, String name, int revenue, int timeRequired) {
+        this.id = id;
+        this.name = name;
+        this.revenue = revenue;
+        this.timeRequired = timeRequired;
+    }
+
+    /*
+     * EFFECTS: returns the crop type with the given name, revenue and
+     * timeRequired, registering it if it does not exist yet; throws
+     * IllegalArgumentException if the name is empty, revenue is negative or
+     * timeRequired is not between 1 and 4
+     */
+    public static CropType of(String name, int revenue, int timeRequired) throws IllegalArgumentException {
+        CropType type = find(REGISTRY.get(name == null ? "" : name), revenue, timeRequired);
+        return type != null ? type : register(name, revenue, timeRequired);
+    }
+
+    /*
+     * EFFECTS: returns the crop type with the given registry id, or null if
+     * there is none or it was collected
+     */
+    public static CropType byId(int id) {
+        Entry entry = BY_ID.get(id);
+        return entry == null ? null : entry.get();
+    }
+
+    /*
+     * EFFECTS: returns the number of crop types registered and not yet dropped
+     * from the registry
+     */
+    static int registeredCount() {
+        return BY_ID.size();
+    }
+
+    /*
+     * EFFECTS: returns true if the registry still holds an entry for id, even
+     * one whose type was collected but not yet dropped
+     */
+    static boolean isRegistered(int id) {
+        return BY_ID.containsKey(id);
+    }
+
+    /*
+     * MODIFIES: the registry
+     * EFFECTS: clears the registration of type and queues it to be dropped by
+     * the next registration, as the collector does once type is unreachable;
+     * for tests, which cannot make the collector run
+     */
+    static void expire(CropType type) {
+        Entry entry = BY_ID.get(type.id);
+        if (entry != null && entry.get() == type) {
+            entry.clear();
+            entry.enqueue();
+        }
+    }
+
+    /*
+     * EFFECTS: returns the crop type registered in sameName (which may be null)
+     * with the given revenue and timeRequired, or null if there is none
+     */
+    private static CropType find(Entry[] sameName, int revenue, int timeRequired) {
+        if (sameName != null) {
+            for (Entry entry : sameName) {
+                CropType t = entry.get();
+                if (t != null && t.revenue == revenue && t.timeRequired == timeRequired) {
+                    return t;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * MODIFIES: the registry
+     * EFFECTS: validates and registers a new crop type, returns the registered one
+     * if another thread registered it first
+     */
+    private static CropType register(String name, int revenue, int timeRequired) throws IllegalArgumentException {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Crop name cannot be null or empty");
+        }
+        if (revenue < 0) {
+            throw new IllegalArgumentException("Revenue cannot be negative");
+        }
+        if (timeRequired < 1 || timeRequired > 4) {
+            throw new IllegalArgumentException("Time required must be between 1 and 4 quarters");
+        }
+        synchronized (REGISTRY) {
+            dropCollected();
+            Entry[] sameName = REGISTRY.getOrDefault(name, new Entry[0]);
+            CropType type = find(sameName, revenue, timeRequired);
+            if (type != null) {
+                return type;
+            }
+            type = new CropType(nextId++, name.intern(), revenue, timeRequired);
+            Entry entry = new Entry(type);
+            BY_ID.put(type.id, entry);
+            Entry[] withType = Arrays.copyOf(sameName, sameName.length + 1);
+            withType[sameName.length] = entry;
+            REGISTRY.put(type.name, withType);
+            return type;
+        }
+    }
+
+    /*
+     * REQUIRES: the caller holds the REGISTRY lock
+     * MODIFIES: the registry
+     * EFFECTS: drops the entries of the crop types collected since the last call
+     */
+    private static void dropCollected() {
+        for (Entry entry = (Entry) COLLECTED.poll(); entry != null; entry = (Entry) COLLECTED.poll()) {
+            BY_ID.remove(entry.id);
+            Entry[] sameName = REGISTRY.get(entry.name);
+            if (sameName == null) {
+                continue;
+            }
+            Entry[] kept = new Entry[sameName.length];
+            int count = 0;
+            for (Entry e : sameName) {
+                if (e != entry) {
+                    kept[count++] = e;
+                }
+            }
+            if (count == 0) {
+                REGISTRY.remove(entry.name);
+            } else {
+                REGISTRY.put(entry.name, Arrays.copyOf(kept, count));
+            }
+        }
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getRevenue() {
+        return this.revenue;
+    }
+
+    public int getTimeRequired() {
+        return this.timeRequired;
+    }
+
+    /*
+     * EFFECTS: returns string representation of this CropType
+     */
+    @Override
+    public String toString() {
+        return String.format("%s - $%d - %dq", this.name, this.revenue, this.timeRequired);
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+ * Encodes columns of numbers as the differences between consecutive values, each written as a zigzag varint: the
+ * sign is folded into the lowest bit and the result is written 7 bits per byte, so a slowly changing column takes
+ * about one byte per value.
+ */
+final class DeltaCodec {
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private DeltaCodec() {
+    }
+
+    /*
+     * REQUIRES: 0 <= count <= values.length
+     * EFFECTS: returns the first count values encoded
+     */
+    static byte[] encode(long[] values, int count) {
+        byte[] bytes = new byte[count * MAX_VARINT_BYTES];
+        int pos = 0;
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = values[i] - previous;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes[pos++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[pos++] = (byte) zigzag;
+            previous = values[i];
+        }
+        return Arrays.copyOf(bytes, pos);
+    }
+
+    /*
+     * REQUIRES: 0 <= count <= values.length
+     * EFFECTS: returns the first count values encoded
+     */
+    static byte[] encode(int[] values, int count) {
+        long[] widened = new long[count];
+        for (int i = 0; i < count; i++) {
+            widened[i] = values[i];
+        }
+        return encode(widened, count);
+    }
+
+    /*
+     * REQUIRES: bytes holds at least count encoded values, count <= values.length
+     * MODIFIES: values
+     * EFFECTS: decodes the first count values of bytes into values
+     */
+    static void decode(byte[] bytes, long[] values, int count) {
+        int pos = 0;
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[i] = previous;
+        }
+    }
+}
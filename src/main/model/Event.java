@@ -1,42 +1,277 @@
 package model;
 
+import java.time.Instant;
 import java.util.*;
 
 /**
  * Represents an alarm system event.
+ * An event is either a plain message or a typed record of something the
+ * farm did, holding the crop name and numbers involved; the description of
+ * a typed event is only formatted when it is first asked for, so logging one
+ * costs little more than allocating it. Events of a farm's activity also
+ * record the farm time (quarter) at which they happened.
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    /** the quarter of events that are not tied to a farm time */
+    public static final int NO_QUARTER = -1;
+
+    /**
+     * The kinds of event, each with the meaning of its fields.
+     */
+    public enum Type {
+        /** a plain message, the description is given */
+        MESSAGE,
+        /** a farm was created: first is its area */
+        FARM_CREATED,
+        /** a crop was planted: first is the planted area, at the quarter */
+        PLANTED,
+        /** time advanced one quarter: first is the new time */
+        TIME_ADVANCED,
+        /**
+         * time advanced several quarters: first is the number of quarters,
+         * second the new time, third the harvested crops, fourth their revenue
+         */
+        QUARTERS_ADVANCED,
+        /**
+         * crops were harvested at the quarter: first is their number, second
+         * their revenue
+         */
+        HARVESTED,
+        /** seeds were added to a crop: first is the amount, second the total */
+        SEEDS_ADDED,
+        /**
+         * a plantable crop was added: first is its revenue, second its seeds,
+         * third its time required
+         */
+        CROP_CREATED,
+        /** a farm was reset */
+        FARM_RESET,
+        /** the area of a farm was set: first is the area */
+        AREA_SET,
+        /**
+         * a farm was bulk-loaded: first is its plantable crops, second its
+         * plantings
+         */
+        FARM_LOADED,
+        /** the event log was cleared */
+        LOG_CLEARED
+    }
+
+    private final Type type;
+    private final long epochNanos;
+    private final int quarter;
+    private final String cropName;
+    private final long first;
+    private final long second;
+    private final long third;
+    private final long fourth;
     private String description;
 
     /**
      * Creates an event with the given description
      * and the current date/time stamp.
-     * 
+     *
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
+        this(Type.MESSAGE, NO_QUARTER, null, 0, 0, 0, 0);
         this.description = description;
     }
 
+    /**
+     * Creates a typed event with the current time stamp.
+     */
+    private Event(Type type, int quarter, String cropName, long first, long second, long third, long fourth) {
+        Instant now = Instant.now();
+        this.epochNanos = now.getEpochSecond() * NANOS_PER_SECOND + now.getNano();
+        this.type = type;
+        this.quarter = quarter;
+        this.cropName = cropName;
+        this.first = first;
+        this.second = second;
+        this.third = third;
+        this.fourth = fourth;
+    }
+
+    /**
+     * Creates an event recording that a farm of the given area was created.
+     */
+    public static Event farmCreated(int area) {
+        return new Event(Type.FARM_CREATED, NO_QUARTER, null, area, 0, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that plantArea sq km of the named crop were
+     * planted at quarter time.
+     */
+    public static Event planted(String cropName, int plantArea, int time) {
+        return new Event(Type.PLANTED, time, cropName, plantArea, 0, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that time advanced one quarter to time.
+     */
+    public static Event timeAdvanced(int time) {
+        return new Event(Type.TIME_ADVANCED, time, null, time, 0, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that time advanced the given number of
+     * quarters to time, harvesting crops crops worth revenue.
+     */
+    public static Event quartersAdvanced(int quarters, int time, int crops, int revenue) {
+        return new Event(Type.QUARTERS_ADVANCED, time, null, quarters, time, crops, revenue);
+    }
+
+    /**
+     * Creates an event recording the harvest of crops crops worth revenue at
+     * quarter time.
+     */
+    public static Event harvested(int crops, int revenue, int time) {
+        return new Event(Type.HARVESTED, time, null, crops, revenue, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that amount sq km of seeds were added to the
+     * named crop, leaving it with total sq km.
+     */
+    public static Event seedsAdded(String cropName, int amount, int total) {
+        return new Event(Type.SEEDS_ADDED, NO_QUARTER, cropName, amount, total, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that the given crop was made plantable.
+     */
+    public static Event cropCreated(Crop crop) {
+        return new Event(Type.CROP_CREATED, NO_QUARTER, crop.getName(), crop.getRevenue(), crop.getSeeds(),
+                crop.getTimeRequired(), 0);
+    }
+
+    /**
+     * Creates an event recording that a farm was reset.
+     */
+    public static Event farmReset() {
+        return new Event(Type.FARM_RESET, NO_QUARTER, null, 0, 0, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that the area of a farm was set to area.
+     */
+    public static Event areaSet(int area) {
+        return new Event(Type.AREA_SET, NO_QUARTER, null, area, 0, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that a farm with the given number of
+     * plantable crops and plantings was bulk-loaded.
+     */
+    public static Event farmLoaded(int crops, int plantings) {
+        return new Event(Type.FARM_LOADED, NO_QUARTER, null, crops, plantings, 0, 0);
+    }
+
+    /**
+     * Creates an event recording that the event log was cleared.
+     */
+    public static Event logCleared() {
+        return new Event(Type.LOG_CLEARED, NO_QUARTER, null, 0, 0, 0, 0);
+    }
+
     /**
      * Gets the date of this event (includes time).
-     * 
+     *
      * @return the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(Math.floorDiv(epochNanos, NANOS_PER_MILLI));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getEpochNanos() {
+        return epochNanos;
+    }
+
+    public String getCropName() {
+        return cropName;
+    }
+
+    /**
+     * Gets the farm time at which this event happened: the quarter reached
+     * for time advancing, the quarter of the planting or harvest otherwise.
+     *
+     * @return the quarter, or NO_QUARTER if the event has none
+     */
+    public int getQuarter() {
+        return quarter;
+    }
+
+    /**
+     * Gets the revenue this event brought in.
+     *
+     * @return the revenue of a harvest or of the harvests of advancing time,
+     *         0 for other events
+     */
+    public long getRevenue() {
+        if (type == Type.HARVESTED) {
+            return second;
+        } else if (type == Type.QUARTERS_ADVANCED) {
+            return fourth;
+        }
+        return 0;
     }
 
     /**
-     * Gets the description of this event.
-     * 
+     * Gets the description of this event, formatting it the first time it
+     * is asked for.
+     *
      * @return the description of the event
      */
     public String getDescription() {
-        return description;
+        String formatted = description;
+        if (formatted == null) {
+            formatted = format();
+            description = formatted;
+        }
+        return formatted;
+    }
+
+    /**
+     * Formats the description of this typed event.
+     */
+    private String format() {
+        switch (type) {
+            case FARM_CREATED:
+                return "Created new farm with area: " + first + " sq km";
+            case PLANTED:
+                return "Planted " + first + " sq km of " + cropName;
+            case TIME_ADVANCED:
+                return "Time advanced to quarter " + first;
+            case QUARTERS_ADVANCED:
+                return "Time advanced by " + first + " quarters to quarter " + second + ", harvested " + third
+                        + " crops, revenue: $" + fourth;
+            case HARVESTED:
+                return "Harvested " + first + " crops, revenue: $" + second;
+            case SEEDS_ADDED:
+                return "Added " + first + " sq km seeds to " + cropName + " - Total seeds now: " + second + " sq km";
+            case CROP_CREATED:
+                return "Created new crop: " + cropName + " - Revenue: $" + first + " - Seeds: " + second + " sq km"
+                        + " - Time: " + third + " quarters";
+            case FARM_RESET:
+                return "Farm reset to initial state";
+            case AREA_SET:
+                return "Farm area set to: " + first + " sq km";
+            case FARM_LOADED:
+                return "Loaded farm: " + first + " crops, " + second + " plantings";
+            case LOG_CLEARED:
+                return "Event log cleared.";
+            default:
+                return "";
+        }
     }
 
     @Override
@@ -48,16 +283,17 @@ public class Event {
             return false;
         }
         Event otherEvent = (Event) other;
-        return (this.dateLogged.equals(otherEvent.dateLogged) && this.description.equals(otherEvent.description));
+        return (this.getDate().equals(otherEvent.getDate())
+                && this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * getDate().hashCode() + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
-}
\ No newline at end of file
+}
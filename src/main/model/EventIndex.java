@@ -0,0 +1,272 @@
+package model;
+
+import java.util.*;
+
+/*
+ * Represents the index of the events of one type held by the EventLog, in the order of the log. Alongside each event
+ * it keeps its time stamp, raised where needed so that the stamps never decrease (events logged on different threads
+ * can be stamped slightly out of order), its quarter and the running total of revenue up to and including it, so that
+ * the events, count and revenue of a time range are found by binary search. Quarters go back to 0 when a farm is
+ * reset or another farm is logged, so the entries are split into runs of non-decreasing quarters, each searched on
+ * its own. Entries are only added at the end and removed from the front, as the log evicts its oldest events. The
+ * arrays are only allocated when the first entry is added, as most logs never hold events of most types.
+ */
+class EventIndex {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Event[] NO_EVENTS = new Event[0];
+    private static final long[] NO_LONGS = new long[0];
+    private static final int[] NO_INTS = new int[0];
+
+    private Event[] events;
+    private long[] nanos; // the non-decreasing time stamps
+    private int[] quarters;
+    private long[] revenueTotals; // the revenue of all the entries up to and including each one
+    private long removedRevenue; // the revenue total of the entries removed from the front
+    private int base; // the position of the first entry
+    private int size;
+    private int[] runStarts; // the position of the first entry of each run; the first run may start before base
+    private int runs;
+
+    /*
+     * EFFECTS: constructs an empty index
+     */
+    EventIndex() {
+        this.events = NO_EVENTS;
+        this.nanos = NO_LONGS;
+        this.quarters = NO_INTS;
+        this.revenueTotals = NO_LONGS;
+        this.runStarts = NO_INTS;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds event at the end of the index
+     */
+    void add(Event event) {
+        if (this.base + this.size == this.events.length) {
+            this.makeRoom();
+        }
+        int p = this.base + this.size;
+        long previousTotal = this.size == 0 ? this.removedRevenue : this.revenueTotals[p - 1];
+        this.events[p] = event;
+        this.nanos[p] = this.size == 0 ? event.getEpochNanos() : Math.max(event.getEpochNanos(), this.nanos[p - 1]);
+        this.quarters[p] = event.getQuarter();
+        this.revenueTotals[p] = previousTotal + event.getRevenue();
+        if (this.size == 0 || event.getQuarter() < this.quarters[p - 1]) {
+            if (this.runs == this.runStarts.length) {
+                this.runStarts = Arrays.copyOf(this.runStarts, Math.max(INITIAL_CAPACITY, this.runs * 2));
+            }
+            this.runStarts[this.runs++] = p;
+        }
+        this.size++;
+    }
+
+    /*
+     * REQUIRES: the index is not empty
+     * MODIFIES: this
+     * EFFECTS: removes the first entry of the index
+     */
+    void removeFirst() {
+        this.removedRevenue = this.revenueTotals[this.base];
+        this.events[this.base] = null;
+        this.base++;
+        this.size--;
+        if (this.size == 0) {
+            this.clear();
+        } else if (this.runs > 1 && this.runStarts[1] <= this.base) {
+            System.arraycopy(this.runStarts, 1, this.runStarts, 0, --this.runs);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes every entry
+     */
+    void clear() {
+        Arrays.fill(this.events, this.base, this.base + this.size, null);
+        this.base = 0;
+        this.size = 0;
+        this.runs = 0;
+        this.removedRevenue = 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /*
+     * EFFECTS: returns the events stamped from fromNanos to toNanos (inclusive),
+     * oldest first
+     */
+    List<Event> eventsBetween(long fromNanos, long toNanos) {
+        int lo = this.lowerBound(this.nanos, this.base, this.base + this.size, fromNanos);
+        int hi = this.upperBound(this.nanos, lo, this.base + this.size, toNanos);
+        return new ArrayList<Event>(Arrays.asList(this.events).subList(lo, hi));
+    }
+
+    /*
+     * EFFECTS: returns the number of events stamped from fromNanos to toNanos
+     * (inclusive)
+     */
+    int countBetween(long fromNanos, long toNanos) {
+        int lo = this.lowerBound(this.nanos, this.base, this.base + this.size, fromNanos);
+        return this.upperBound(this.nanos, lo, this.base + this.size, toNanos) - lo;
+    }
+
+    /*
+     * EFFECTS: returns the revenue of the events stamped from fromNanos to
+     * toNanos (inclusive)
+     */
+    long revenueBetween(long fromNanos, long toNanos) {
+        int lo = this.lowerBound(this.nanos, this.base, this.base + this.size, fromNanos);
+        return this.revenue(lo, this.upperBound(this.nanos, lo, this.base + this.size, toNanos));
+    }
+
+    /*
+     * EFFECTS: returns the events of the quarters from fromQuarter to toQuarter
+     * (inclusive), oldest first
+     */
+    List<Event> eventsInQuarters(int fromQuarter, int toQuarter) {
+        List<Event> found = new ArrayList<Event>();
+        for (int r = 0; r < this.runs; r++) {
+            int lo = this.lowerBound(this.quarters, this.runStart(r), this.runEnd(r), fromQuarter);
+            int hi = this.upperBound(this.quarters, lo, this.runEnd(r), toQuarter);
+            found.addAll(Arrays.asList(this.events).subList(lo, hi));
+        }
+        return found;
+    }
+
+    /*
+     * EFFECTS: returns the number of events of the quarters from fromQuarter to
+     * toQuarter (inclusive)
+     */
+    int countInQuarters(int fromQuarter, int toQuarter) {
+        int count = 0;
+        for (int r = 0; r < this.runs; r++) {
+            int lo = this.lowerBound(this.quarters, this.runStart(r), this.runEnd(r), fromQuarter);
+            count += this.upperBound(this.quarters, lo, this.runEnd(r), toQuarter) - lo;
+        }
+        return count;
+    }
+
+    /*
+     * EFFECTS: returns the revenue of the events of the quarters from
+     * fromQuarter to toQuarter (inclusive)
+     */
+    long revenueInQuarters(int fromQuarter, int toQuarter) {
+        long revenue = 0;
+        for (int r = 0; r < this.runs; r++) {
+            int lo = this.lowerBound(this.quarters, this.runStart(r), this.runEnd(r), fromQuarter);
+            revenue += this.revenue(lo, this.upperBound(this.quarters, lo, this.runEnd(r), toQuarter));
+        }
+        return revenue;
+    }
+
+    /*
+     * EFFECTS: returns the revenue of the entries at positions from lo
+     * (inclusive) to hi (exclusive)
+     */
+    private long revenue(int lo, int hi) {
+        if (lo >= hi) {
+            return 0;
+        }
+        long before = lo == this.base ? this.removedRevenue : this.revenueTotals[lo - 1];
+        return this.revenueTotals[hi - 1] - before;
+    }
+
+    private int runStart(int r) {
+        return Math.max(this.runStarts[r], this.base);
+    }
+
+    private int runEnd(int r) {
+        return r + 1 < this.runs ? this.runStarts[r + 1] : this.base + this.size;
+    }
+
+    /*
+     * EFFECTS: returns the first position from lo to hi whose value is at least
+     * key, or hi if there is none; values are non-decreasing from lo to hi
+     */
+    private int lowerBound(long[] values, int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * EFFECTS: returns the first position from lo to hi whose value is greater
+     * than key, or hi if there is none; values are non-decreasing from lo to hi
+     */
+    private int upperBound(long[] values, int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * EFFECTS: as lowerBound, over int values
+     */
+    private int lowerBound(int[] values, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * EFFECTS: as upperBound, over int values
+     */
+    private int upperBound(int[] values, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: moves the entries to the front of the arrays, doubling the
+     * arrays if they are at least half full (allocating them if they are empty)
+     */
+    private void makeRoom() {
+        int capacity = this.size * 2 > this.events.length ? this.events.length * 2 : this.events.length;
+        capacity = Math.max(INITIAL_CAPACITY, capacity);
+        Event[] movedEvents = new Event[capacity];
+        long[] movedNanos = new long[capacity];
+        int[] movedQuarters = new int[capacity];
+        long[] movedTotals = new long[capacity];
+        System.arraycopy(this.events, this.base, movedEvents, 0, this.size);
+        System.arraycopy(this.nanos, this.base, movedNanos, 0, this.size);
+        System.arraycopy(this.quarters, this.base, movedQuarters, 0, this.size);
+        System.arraycopy(this.revenueTotals, this.base, movedTotals, 0, this.size);
+        for (int r = 0; r < this.runs; r++) {
+            this.runStarts[r] = Math.max(0, this.runStarts[r] - this.base);
+        }
+        this.events = movedEvents;
+        this.nanos = movedNanos;
+        this.quarters = movedQuarters;
+        this.revenueTotals = movedTotals;
+        this.base = 0;
+    }
+}
@@ -1,59 +1,610 @@
 package model;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents a log of alarm system events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * The log is unbounded by default; with a capacity it keeps only the
+ * most recent events in a ring buffer, counting the ones it evicts and
+ * optionally spilling them to an overflow file.
+ * Any number of threads may log at once: logging pushes the event onto a
+ * lock-free queue, and whichever thread holds the drain lock moves the
+ * queued events into the ring buffer in the order they were pushed,
+ * handing each one to the sinks of the log as it goes. Each log counts
+ * its own queued events and is drained by the thread whose push brings
+ * the count to its drain threshold, so the queue never holds much more
+ * than that many events, whichever threads log into it.
+ * The events held are indexed by type, time stamp and quarter, so the
+ * events, count and revenue of a range are found without going through
+ * the whole log.
+ * Besides the global log, scoped logs can be created for parts of the
+ * system that should keep their events apart, such as each farm of a
+ * FarmRegistry.
  */
 public class EventLog implements Iterable<Event> {
     /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    private static final EventLog theLog = new EventLog();
+    /** the logging state of each thread */
+    private static final ThreadLocal<Producer> PRODUCER = ThreadLocal.withInitial(Producer::new);
+    private static final int INITIAL_SIZE = 16;
+    /** the most events queued before a push tries to drain the queue */
+    private static final int DRAIN_INTERVAL = 256;
+
+    /** events pushed but not yet drained: the consumer takes from pendingHead, producers swap pendingTail */
+    private final AtomicReference<Node> pendingTail;
+    private Node pendingHead;
+    /** the number of events pushed but not yet drained */
+    private final AtomicInteger pendingCount;
+    /** the queued events at which a push tries to drain: DRAIN_INTERVAL, or the capacity if smaller */
+    private volatile int drainThreshold;
+    /** held while draining or reading the ring buffer, which only the holder touches */
+    private final ReentrantLock drainLock;
+    /** the destinations every drained event is handed to */
+    private final List<EventSink> sinks;
+
+    /** the logged events, oldest at head, wrapping around the end */
+    private Event[] events;
+    private int head;
+    private int size;
+    /** the most events kept, or 0 if unbounded */
+    private int capacity;
+    /** the events evicted since the log was last cleared */
+    private long evicted;
+    /** the index of the events held of each type, by Event.Type ordinal */
+    private final EventIndex[] indexes;
+    /** where evicted events are appended, or null if they are dropped */
+    private BufferedWriter overflow;
+    private IOException overflowError;
+
+    /**
+     * A queued event, linked to the one pushed after it.
+     */
+    private static final class Node {
+        private Event event;
+        private volatile Node next;
+
+        Node(Event event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * What the log keeps for each logging thread.
+     */
+    private static final class Producer {
+        /** whether the events of the thread are dropped instead of logged */
+        private boolean muted;
+    }
 
     /**
-     * Prevent external construction.
+     * Prevent external construction: the global log is reached through
+     * getInstance and scoped logs are made by createScoped.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<Event>();
+        Node stub = new Node(null);
+        pendingHead = stub;
+        pendingTail = new AtomicReference<Node>(stub);
+        pendingCount = new AtomicInteger();
+        drainThreshold = DRAIN_INTERVAL;
+        drainLock = new ReentrantLock();
+        sinks = new CopyOnWriteArrayList<EventSink>();
+        events = new Event[INITIAL_SIZE];
+        indexes = new EventIndex[Event.Type.values().length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = new EventIndex();
+        }
     }
 
     /**
-     * Gets instance of EventLog - creates it
-     * if it doesn't already exist.
+     * Gets instance of EventLog.
      * (Singleton Design Pattern)
-     * 
+     *
      * @return instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
         return theLog;
     }
 
     /**
-     * Adds an event to the event log.
-     * 
+     * Creates a scoped log, separate from the global one, with no sinks
+     * and the given capacity.
+     *
+     * @param capacity the most events kept, or 0 for an unbounded log
+     * @return a new, empty EventLog
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public static EventLog createScoped(int capacity) throws IllegalArgumentException {
+        EventLog log = new EventLog();
+        log.setCapacity(capacity);
+        return log;
+    }
+
+    /**
+     * Adds an event to the event log, evicting the oldest event if the log
+     * is at its capacity. Never blocks: once the queue of this log holds
+     * its drain threshold of events, the calling thread drains it if no
+     * other thread is doing so.
+     *
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        if (PRODUCER.get().muted) {
+            return;
+        }
+        Node node = new Node(e);
+        pendingTail.getAndSet(node).next = node;
+        if (pendingCount.incrementAndGet() >= drainThreshold) {
+            if (drainLock.tryLock()) {
+                try {
+                    drain();
+                } finally {
+                    drainLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops or resumes logging the events of the calling thread, so that
+     * work that repeats what was already logged (such as replaying saved
+     * changes) does not log it again.
+     *
+     * @param muted true to drop the events of the calling thread
+     */
+    public static void setMuted(boolean muted) {
+        PRODUCER.get().muted = muted;
+    }
+
+    /**
+     * Hands every event drained from now on to sink, in the order of the log.
+     *
+     * @param sink the destination of the events
+     */
+    public void addSink(EventSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Stops handing events to sink.
+     *
+     * @param sink the destination to remove
+     */
+    public void removeSink(EventSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Moves the events queued so far into the log and hands them to the
+     * sinks, waiting for any drain in progress to finish first.
+     */
+    public void flush() {
+        drainLock.lock();
+        try {
+            drain();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Limits the log to the given number of most recent events, evicting
+     * the oldest events if it holds more.
+     *
+     * @param capacity the most events kept, or 0 to keep every event
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Event log capacity cannot be negative");
+        }
+        drainLock.lock();
+        try {
+            drain();
+            this.capacity = capacity;
+            drainThreshold = capacity > 0 ? Math.min(DRAIN_INTERVAL, capacity) : DRAIN_INTERVAL;
+            if (capacity > 0) {
+                while (size > capacity) {
+                    evictOldest();
+                }
+                Event[] resized = new Event[capacity];
+                copyInto(resized);
+                events = resized;
+                head = 0;
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public int getCapacity() {
+        drainLock.lock();
+        try {
+            return capacity;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of events in the log, including those still queued.
+     *
+     * @return the number of events
+     */
+    public int size() {
+        drainLock.lock();
+        try {
+            drain();
+            return size;
+        } finally {
+            drainLock.unlock();
+        }
     }
 
     /**
-     * Clears the event log and logs the event.
+     * Gets the number of events evicted since the log was last cleared,
+     * including those evicted by draining the queue.
+     *
+     * @return the number of evicted events
+     */
+    public long getEvictedCount() {
+        drainLock.lock();
+        try {
+            drain();
+            return evicted;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Appends the events evicted from now on to the end of the given file,
+     * one line each: the time they were logged in milliseconds since the
+     * epoch, a tab, and their description with backslashes and line breaks
+     * escaped. Replaces any overflow file already in use.
+     *
+     * @param file the overflow file, created if it does not exist
+     * @throws IOException if the file cannot be opened
+     */
+    public void spillTo(String file) throws IOException {
+        drainLock.lock();
+        try {
+            drain();
+            stopSpilling();
+            overflow = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            overflowError = null;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the overflow file, after which evicted events are
+     * dropped.
+     *
+     * @throws IOException if writing to the overflow file failed at any
+     *                     point since it was opened
+     */
+    public void stopSpilling() throws IOException {
+        drainLock.lock();
+        try {
+            drain();
+            if (overflow != null) {
+                try {
+                    overflow.close();
+                } catch (IOException e) {
+                    overflowError = e;
+                }
+                overflow = null;
+            }
+            IOException error = overflowError;
+            overflowError = null;
+            if (error != null) {
+                throw error;
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Clears the event log and logs the event. Events still queued when the
+     * log is cleared reach the sinks before they are dropped with the rest.
      */
     public void clear() {
-        events.clear();
-        logEvent(new Event("Event log cleared."));
+        drainLock.lock();
+        try {
+            drain();
+            Arrays.fill(events, null);
+            head = 0;
+            size = 0;
+            evicted = 0;
+            for (EventIndex index : indexes) {
+                index.clear();
+            }
+        } finally {
+            drainLock.unlock();
+        }
+        logEvent(Event.logCleared());
+    }
+
+    /**
+     * Gets the events of the given type held by the log, oldest first.
+     *
+     * @param type the type of the events
+     * @return the events of that type
+     */
+    public List<Event> getEvents(Event.Type type) {
+        return getEvents(type, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets the events of the given type held by the log that were logged
+     * from fromNanos to toNanos (inclusive, in nanoseconds since the epoch),
+     * oldest first.
+     *
+     * @param type      the type of the events
+     * @param fromNanos the start of the time range
+     * @param toNanos   the end of the time range
+     * @return the events of that type in the range
+     */
+    public List<Event> getEvents(Event.Type type, long fromNanos, long toNanos) {
+        drainLock.lock();
+        try {
+            drain();
+            return indexes[type.ordinal()].eventsBetween(fromNanos, toNanos);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the events of the given type held by the log that were logged
+     * from fromNanos to toNanos (inclusive, in nanoseconds since the epoch).
+     *
+     * @param type      the type of the events
+     * @param fromNanos the start of the time range
+     * @param toNanos   the end of the time range
+     * @return the number of events of that type in the range
+     */
+    public int count(Event.Type type, long fromNanos, long toNanos) {
+        drainLock.lock();
+        try {
+            drain();
+            return indexes[type.ordinal()].countBetween(fromNanos, toNanos);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the revenue of the events of the given type held by the log that
+     * were logged from fromNanos to toNanos (inclusive, in nanoseconds since
+     * the epoch).
+     *
+     * @param type      the type of the events
+     * @param fromNanos the start of the time range
+     * @param toNanos   the end of the time range
+     * @return the revenue of the events of that type in the range
+     */
+    public long sumRevenue(Event.Type type, long fromNanos, long toNanos) {
+        drainLock.lock();
+        try {
+            drain();
+            return indexes[type.ordinal()].revenueBetween(fromNanos, toNanos);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the events of the given type held by the log that happened in the
+     * quarters from fromQuarter to toQuarter (inclusive), oldest first within
+     * each stretch of non-decreasing quarters. Events without a quarter are
+     * never in the range.
+     *
+     * @param type        the type of the events
+     * @param fromQuarter the first quarter of the range
+     * @param toQuarter   the last quarter of the range
+     * @return the events of that type in the range
+     */
+    public List<Event> getEventsInQuarters(Event.Type type, int fromQuarter, int toQuarter) {
+        drainLock.lock();
+        try {
+            drain();
+            return indexes[type.ordinal()].eventsInQuarters(Math.max(0, fromQuarter), toQuarter);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the events of the given type held by the log that happened in
+     * the quarters from fromQuarter to toQuarter (inclusive).
+     *
+     * @param type        the type of the events
+     * @param fromQuarter the first quarter of the range
+     * @param toQuarter   the last quarter of the range
+     * @return the number of events of that type in the range
+     */
+    public int countInQuarters(Event.Type type, int fromQuarter, int toQuarter) {
+        drainLock.lock();
+        try {
+            drain();
+            return indexes[type.ordinal()].countInQuarters(Math.max(0, fromQuarter), toQuarter);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the revenue of the events of the given type held by the log that
+     * happened in the quarters from fromQuarter to toQuarter (inclusive).
+     *
+     * @param type        the type of the events
+     * @param fromQuarter the first quarter of the range
+     * @param toQuarter   the last quarter of the range
+     * @return the revenue of the events of that type in the range
+     */
+    public long sumRevenueInQuarters(Event.Type type, int fromQuarter, int toQuarter) {
+        drainLock.lock();
+        try {
+            drain();
+            return indexes[type.ordinal()].revenueInQuarters(Math.max(0, fromQuarter), toQuarter);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the revenue harvested in the quarters from fromQuarter to
+     * toQuarter (inclusive), both by harvests and by advancing time several
+     * quarters at once; the harvests of advancing time count at the quarter
+     * reached.
+     *
+     * @param fromQuarter the first quarter of the range
+     * @param toQuarter   the last quarter of the range
+     * @return the revenue harvested in the range
+     */
+    public long harvestRevenueInQuarters(int fromQuarter, int toQuarter) {
+        int from = Math.max(0, fromQuarter);
+        drainLock.lock();
+        try {
+            drain();
+            return indexes[Event.Type.HARVESTED.ordinal()].revenueInQuarters(from, toQuarter)
+                    + indexes[Event.Type.QUARTERS_ADVANCED.ordinal()].revenueInQuarters(from, toQuarter);
+        } finally {
+            drainLock.unlock();
+        }
     }
 
+    /**
+     * Returns an iterator over a snapshot of the log, oldest event first. The
+     * snapshot holds every event logged before this call returned; later
+     * changes to the log do not affect it.
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        Event[] snapshot;
+        drainLock.lock();
+        try {
+            drain();
+            snapshot = new Event[size];
+            copyInto(snapshot);
+        } finally {
+            drainLock.unlock();
+        }
+        return Collections.unmodifiableList(Arrays.asList(snapshot)).iterator();
+    }
+
+    /**
+     * Moves the queued events into the ring buffer in the order they were
+     * pushed; stops at an event whose producer has not linked it yet, which
+     * the next drain picks up. The caller holds drainLock.
+     */
+    private void drain() {
+        Node next = pendingHead.next;
+        int drained = 0;
+        while (next != null) {
+            Event e = next.event;
+            append(e);
+            for (EventSink sink : sinks) {
+                sink.append(e);
+            }
+            next.event = null;
+            pendingHead = next;
+            next = next.next;
+            drained++;
+        }
+        if (drained > 0) {
+            pendingCount.addAndGet(-drained);
+        }
+    }
+
+    /**
+     * Adds e to the ring buffer, evicting the oldest event if the log is at
+     * its capacity. The caller holds drainLock.
+     */
+    private void append(Event e) {
+        if (capacity > 0 && size == capacity) {
+            evictOldest();
+        } else if (size == events.length) {
+            grow();
+        }
+        events[(head + size) % events.length] = e;
+        size++;
+        indexes[e.getType().ordinal()].add(e);
+    }
+
+    /**
+     * Removes the oldest event, spilling it to the overflow file if there
+     * is one; a failed write closes the file and is reported by
+     * stopSpilling.
+     */
+    private void evictOldest() {
+        Event oldest = events[head];
+        indexes[oldest.getType().ordinal()].removeFirst();
+        events[head] = null;
+        head = (head + 1) % events.length;
+        size--;
+        evicted++;
+        if (overflow != null) {
+            try {
+                spill(oldest);
+            } catch (IOException e) {
+                overflowError = e;
+                try {
+                    overflow.close();
+                } catch (IOException ignored) {
+                    // the write failure is the one reported
+                }
+                overflow = null;
+            }
+        }
+    }
+
+    /**
+     * Writes event as one line of the overflow file.
+     */
+    private void spill(Event event) throws IOException {
+        overflow.write(Long.toString(Math.floorDiv(event.getEpochNanos(), 1_000_000L)));
+        overflow.write('\t');
+        overflow.write(event.getDescription().replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r"));
+        overflow.newLine();
+    }
+
+    /**
+     * Doubles the room for events, keeping their order.
+     */
+    private void grow() {
+        Event[] grown = new Event[events.length * 2];
+        copyInto(grown);
+        events = grown;
+        head = 0;
+    }
+
+    /**
+     * Copies the events, oldest first, to the start of dest.
+     */
+    private void copyInto(Event[] dest) {
+        for (int i = 0; i < size; i++) {
+            dest[i] = events[(head + i) % events.length];
+        }
     }
-}
\ No newline at end of file
+}
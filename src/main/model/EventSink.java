@@ -0,0 +1,13 @@
+package model;
+
+/*
+ * Represents a destination that receives every event logged to the EventLog, in the order of the log. Events are
+ * handed over while the log drains its queue, possibly on the thread that logged them, so a sink must only pass them
+ * on (for example by offering them to a queue) and must not log events itself.
+ */
+public interface EventSink {
+    /*
+     * EFFECTS: receives an event that was logged
+     */
+    void append(Event event);
+}
@@ -1,19 +1,37 @@
 package model;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.*;
 import org.json.*;
 import exception.*;
+import persistence.JsonTokenWriter;
 import persistence.Writable;
 
 /*
  * Represents a farm with given area (in square kilometres), a list of planted crops with the area of each of them.
  */
 public class Farm implements Writable {
+    /*
+     * The ways a farm can store its planted crops: OBJECTS keeps one PlantedCrop per planting, ARRAYS keeps the
+     * plantings in parallel int arrays and only builds PlantedCrop views when they are asked for
+     */
+    public enum Storage {
+        OBJECTS, ARRAYS
+    }
+
     private int area; // the total area of the farm
-    private ArrayList<PlantedCrop> crops; // a list of planted crops
+    private Storage storage; // how the planted crops are stored
+    private PlotStore crops; // the planted crops, filed by the quarter in which they ripen
+    private int quarter; // the quarters elapsed since the farm was created or reset, drives crop growth
     private int time; // the time past in the year (in quarter)
     private int revenue; // the total revenue so far
-    private ArrayList<Crop> plantableCrops; // a list of created plantable crops
+    private CropCatalog plantableCrops; // the catalog of created plantable crops
+    private int plantedArea; // the sum of the area of all the planted crops
+    private Map<String, Integer> plantedAreaByCrop; // the planted area of each crop, keyed by crop name
+    private boolean selfChecking; // whether the area accounting is verified after every mutation
+    private List<FarmListener> listeners; // the observers told about every mutation
+    private EventLog eventLog; // where the events of this farm are logged
 
     /*
      * REQUIRES: area >= 0
@@ -21,12 +39,73 @@ public class Farm implements Writable {
      * is set to empty, the plantedArea and time are set to 0
      */
     public Farm(int area) {
+        this(area, Storage.OBJECTS);
+    }
+
+    /*
+     * REQUIRES: area >= 0
+     * EFFECTS: area of the farm is set to given number, the list of planted crops
+     * is set to empty and kept in the given storage, the plantedArea and time are
+     * set to 0
+     */
+    public Farm(int area, Storage storage) {
+        this(area, storage, true);
+    }
+
+    /*
+     * REQUIRES: area >= 0
+     * EFFECTS: constructs an empty farm as Farm(area, storage) does, logging its
+     * creation only if logCreation
+     */
+    Farm(int area, Storage storage, boolean logCreation) {
         this.area = area;
-        this.crops = new ArrayList<PlantedCrop>();
+        this.storage = storage;
+        this.crops = storage == Storage.ARRAYS ? new ArrayPlotStore() : new ObjectPlotStore(this);
+        this.quarter = 0;
         this.time = 0;
         this.revenue = 0;
-        this.plantableCrops = new ArrayList<Crop>();
-        EventLog.getInstance().logEvent(new Event("Created new farm with area: " + area + " sq km"));
+        this.plantableCrops = new CropCatalog();
+        this.plantedArea = 0;
+        this.plantedAreaByCrop = new HashMap<String, Integer>();
+        this.selfChecking = false;
+        this.listeners = new ArrayList<FarmListener>();
+        this.eventLog = EventLog.getInstance();
+        if (logCreation) {
+            this.eventLog.logEvent(Event.farmCreated(area));
+        }
+    }
+
+    /*
+     * EFFECTS: constructs a snapshot of source, see snapshot()
+     */
+    private Farm(Farm source) {
+        this.area = source.area;
+        this.storage = Storage.ARRAYS;
+        this.crops = source.crops.snapshot(source.quarter);
+        this.quarter = source.quarter;
+        this.time = source.time;
+        this.revenue = source.revenue;
+        this.plantableCrops = new CropCatalog();
+        for (Crop c : source.plantableCrops) {
+            this.plantableCrops.put(new Crop(c.getType(), c.getSeeds()));
+        }
+        this.plantedArea = source.plantedArea;
+        this.plantedAreaByCrop = new HashMap<String, Integer>(source.plantedAreaByCrop);
+        this.selfChecking = false;
+        this.listeners = new ArrayList<FarmListener>();
+        this.eventLog = source.eventLog;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns a copy of this farm as it is now, kept in ARRAYS storage
+     * and without listeners, that can be read on another thread while this farm
+     * keeps changing; with ARRAYS storage the plantings are shared copy-on-write,
+     * so taking the snapshot costs little and this farm copies them the next time
+     * it harvests; logs no event
+     */
+    public Farm snapshot() {
+        return new Farm(this);
     }
 
     /*
@@ -35,14 +114,7 @@ public class Farm implements Writable {
      * this.area, else return false
      */
     public Boolean isFilled() {
-        int area;
-        area = 0;
-
-        for (PlantedCrop p : this.crops) {
-            area += p.getPlantedArea();
-        }
-
-        return area == this.area;
+        return this.plantedArea == this.area;
     }
 
     /*
@@ -60,26 +132,63 @@ public class Farm implements Writable {
         if (this.isFilled()) {
             throw new FilledFarmException();
         }
-        this.crops.add(new PlantedCrop(crop, plantArea));
+        this.crops.plant(crop, plantArea, this.quarter + crop.getTimeRequired());
+        this.addToPlantedArea(crop.getName(), plantArea);
+        this.checkAccountingIfEnabled();
         crop.seeds -= plantArea;
-        EventLog.getInstance().logEvent(new Event("Planted " + plantArea + " sq km of " + crop.getName()));
+        this.eventLog.logEvent(Event.planted(crop.getName(), plantArea, this.time));
+
+        for (FarmListener listener : this.listeners) {
+            listener.planted(crop, crop.seeds + plantArea, plantArea);
+        }
     }
 
     /*
      * MODIFIES: this
-     * EFFECTS: increments this.time, passes every PlantedCrop from this.crops to
-     * PlantedCrop.grow(), then calls
-     * this.harvest()
+     * EFFECTS: increments this.time, grows every PlantedCrop in this.crops by one
+     * quarter, then harvests the crops that are ripe (including ripe crops added
+     * since the last harvest); only the crops that ripen are visited
      */
     public void timeLapses() {
         this.time++;
+        this.quarter++;
+        this.eventLog.logEvent(Event.timeAdvanced(this.time));
+        this.harvestBuckets(this.quarter - 1, this.quarter);
 
-        for (PlantedCrop p : this.crops) {
-            p.grow();
+        for (FarmListener listener : this.listeners) {
+            listener.timeAdvanced(1);
         }
+    }
 
-        EventLog.getInstance().logEvent(new Event("Time advanced to quarter " + this.time));
-        this.harvest();
+    /*
+     * REQUIRES: quarters >= 0
+     * MODIFIES: this
+     * EFFECTS: advances the farm by the given number of quarters with the same
+     * outcome as calling this.timeLapses() that many times, but computes each
+     * planting's ripening quarter directly, harvests everything that ripens
+     * within the window in a single pass and logs one aggregated event for the
+     * window; returns what was harvested, throws IllegalArgumentException if
+     * quarters < 0
+     */
+    public Harvest advance(int quarters) throws IllegalArgumentException {
+        if (quarters < 0) {
+            throw new IllegalArgumentException("Cannot advance a negative number of quarters");
+        }
+        if (quarters == 0) {
+            return new Harvest();
+        }
+        int lastQuarter = this.quarter + Math.min(quarters, PlotStore.WHEEL_SIZE - 1);
+        Harvest harvest = this.crops.harvest(this.quarter, lastQuarter);
+        this.time += quarters;
+        this.quarter += quarters;
+        this.collect(harvest);
+        this.eventLog.logEvent(
+                Event.quartersAdvanced(quarters, this.time, harvest.getCrops(), harvest.getRevenue()));
+
+        for (FarmListener listener : this.listeners) {
+            listener.timeAdvanced(quarters);
+        }
+        return harvest;
     }
 
     /*
@@ -89,23 +198,41 @@ public class Farm implements Writable {
      * there is no such PlantedCrop
      */
     public void harvest() {
-        int harvestedRevenue = 0;
-        int harvestedCrops = 0;
-
-        for (int i = this.crops.size() - 1; i >= 0; i--) {
-            PlantedCrop p = this.crops.get(i);
-            if (p.isRipe()) {
-                harvestedRevenue += p.plantedRevenue();
-                harvestedCrops++;
-                this.crops.remove(i);
-            }
+        this.harvestBuckets(this.quarter, this.quarter);
+
+        for (FarmListener listener : this.listeners) {
+            listener.harvested();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: harvests every planted crop that ripens in the quarters from
+     * firstQuarter to lastQuarter (inclusive), logs one harvest event if anything
+     * was harvested
+     */
+    private void harvestBuckets(int firstQuarter, int lastQuarter) {
+        Harvest harvest = this.crops.harvest(firstQuarter, lastQuarter);
+        this.collect(harvest);
+
+        if (harvest.getCrops() > 0) {
+            this.eventLog.logEvent(Event.harvested(harvest.getCrops(), harvest.getRevenue(), this.time));
         }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds the revenue of harvest to this.revenue and removes its area
+     * from the planted area
+     */
+    private void collect(Harvest harvest) {
+        this.revenue += harvest.getRevenue();
 
-        if (harvestedCrops > 0) {
-            this.revenue += harvestedRevenue;
-            EventLog.getInstance()
-                    .logEvent(new Event("Harvested " + harvestedCrops + " crops, revenue: $" + harvestedRevenue));
+        for (Map.Entry<String, Integer> entry : harvest.getAreaByCrop().entrySet()) {
+            this.addToPlantedArea(entry.getKey(), -entry.getValue());
         }
+
+        this.checkAccountingIfEnabled();
     }
 
     /*
@@ -114,10 +241,63 @@ public class Farm implements Writable {
      * this.revenue to 0
      */
     public void reset() {
-        this.crops = new ArrayList<PlantedCrop>();
+        this.crops.clear();
+        this.quarter = 0;
         this.time = 0;
         this.revenue = 0;
-        EventLog.getInstance().logEvent(new Event("Farm reset to initial state"));
+        this.plantedArea = 0;
+        this.plantedAreaByCrop.clear();
+        this.checkAccountingIfEnabled();
+        this.eventLog.logEvent(Event.farmReset());
+
+        for (FarmListener listener : this.listeners) {
+            listener.farmReset();
+        }
+    }
+
+    /*
+     * REQUIRES: amount > 0
+     * MODIFIES: this, crop
+     * EFFECTS: adds amount seeds to crop (one of the plantable crops) and tells
+     * the listeners, throws NonPositiveAreaException if amount <= 0
+     */
+    public void addSeeds(Crop crop, int amount) throws NonPositiveAreaException {
+        crop.addSeeds(amount, this.eventLog);
+
+        for (FarmListener listener : this.listeners) {
+            listener.seedsAdded(crop, amount);
+        }
+    }
+
+    public EventLog getEventLog() {
+        return this.eventLog;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: logs the events of this farm to log from now on instead of where
+     * they were logged so far (the global EventLog unless set otherwise)
+     */
+    public void setEventLog(EventLog log) {
+        this.eventLog = log;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds listener to the observers told about every mutation made
+     * through plant, timeLapses, advance, harvest, reset, addSeeds,
+     * addPlantableCrop and setArea
+     */
+    public void addListener(FarmListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes listener from the observers of this farm
+     */
+    public void removeListener(FarmListener listener) {
+        this.listeners.remove(listener);
     }
 
     /*
@@ -125,22 +305,145 @@ public class Farm implements Writable {
      * EFFECTS: returns the remaining available area of the farm
      */
     public int remainingArea() {
-        int totalPlantedArea;
-        totalPlantedArea = 0;
+        return this.area - this.plantedArea;
+    }
+
+    /*
+     * EFFECTS: returns the sum of the area of all the planted crops
+     */
+    public int getPlantedArea() {
+        return this.plantedArea;
+    }
 
-        for (PlantedCrop p : this.crops) {
-            totalPlantedArea += p.getPlantedArea();
+    /*
+     * EFFECTS: returns the sum of the area of all the planted crops named
+     * cropName, returns 0 if no such crop is planted
+     */
+    public int getPlantedArea(String cropName) {
+        Integer cropArea = this.plantedAreaByCrop.get(cropName);
+        return cropArea == null ? 0 : cropArea;
+    }
+
+    /*
+     * EFFECTS: returns the planted area of each planted crop, keyed by crop name
+     */
+    public Map<String, Integer> getPlantedAreaByCrop() {
+        return Collections.unmodifiableMap(this.plantedAreaByCrop);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: turns the consistency self-check of the planted area accounting on
+     * or off; while it is on, every mutation calls this.checkAccounting()
+     */
+    public void setSelfChecking(boolean selfChecking) {
+        this.selfChecking = selfChecking;
+        this.checkAccountingIfEnabled();
+    }
+
+    /*
+     * EFFECTS: recomputes the planted area (in total and per crop) from
+     * this.crops, throws IllegalStateException if it differs from the running
+     * totals
+     */
+    public void checkAccounting() throws IllegalStateException {
+        int totalArea = 0;
+        Map<String, Integer> areaByCrop = new HashMap<String, Integer>();
+
+        for (PlantedCrop p : this.getPlantedCrops()) {
+            totalArea += p.getPlantedArea();
+            areaByCrop.merge(p.getName(), p.getPlantedArea(), Integer::sum);
+        }
+
+        if (totalArea != this.plantedArea) {
+            throw new IllegalStateException(
+                    "Planted area is " + this.plantedArea + " sq km but crops cover " + totalArea + " sq km");
+        }
+        if (!areaByCrop.equals(this.plantedAreaByCrop)) {
+            throw new IllegalStateException(
+                    "Planted area by crop is " + this.plantedAreaByCrop + " but crops cover " + areaByCrop);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds delta to the planted area in total and of the crop named
+     * cropName, drops the crop from the breakdown once its area reaches 0
+     */
+    private void addToPlantedArea(String cropName, int delta) {
+        this.plantedArea += delta;
+        int cropArea = this.getPlantedArea(cropName) + delta;
+        if (cropArea == 0) {
+            this.plantedAreaByCrop.remove(cropName);
+        } else {
+            this.plantedAreaByCrop.put(cropName, cropArea);
         }
+    }
 
-        return this.area - totalPlantedArea;
+    /*
+     * EFFECTS: calls this.checkAccounting() if self-checking is on
+     */
+    private void checkAccountingIfEnabled() {
+        if (this.selfChecking) {
+            this.checkAccounting();
+        }
     }
 
     public int getArea() {
         return this.area;
     }
 
-    public ArrayList<PlantedCrop> getPlantedCrops() {
-        return this.crops;
+    /*
+     * EFFECTS: returns a read-only view of the planted crops; crops are added and
+     * removed only through this farm so that the planted area stays accounted
+     */
+    public List<PlantedCrop> getPlantedCrops() {
+        return this.crops.plantedCrops(this.quarter);
+    }
+
+    /*
+     * EFFECTS: returns the number of planted crops
+     */
+    public int getPlantedCropCount() {
+        return this.crops.size();
+    }
+
+    /*
+     * EFFECTS: returns the planted crops that will be harvested by the next call
+     * to this.timeLapses()
+     */
+    public List<PlantedCrop> getCropsRipeningNextQuarter() {
+        List<PlantedCrop> ripening = this.crops.ripeningIn(this.quarter, this.quarter);
+        ripening.addAll(this.crops.ripeningIn(this.quarter + 1, this.quarter));
+        return ripening;
+    }
+
+    public Storage getStorage() {
+        return this.storage;
+    }
+
+    /*
+     * REQUIRES: parallelThreshold > 0
+     * MODIFIES: this
+     * EFFECTS: harvests every quarter in which at least parallelThreshold crops
+     * ripen in parallel on the common ForkJoinPool; revenue, planted area and
+     * logged events are the same as when harvesting sequentially. Farms harvest
+     * sequentially until this is called.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.crops.setParallelThreshold(parallelThreshold);
+    }
+
+    public int getParallelThreshold() {
+        return this.crops.getParallelThreshold();
+    }
+
+    /*
+     * EFFECTS: returns the number of quarters elapsed since the farm was created
+     * or reset, the clock by which planted crops grow
+     */
+    int getQuarter() {
+        return this.quarter;
     }
 
     public int getTime() {
@@ -151,13 +454,18 @@ public class Farm implements Writable {
         return this.revenue;
     }
 
-    public ArrayList<Crop> getPlantableCrops() {
+    public CropCatalog getPlantableCrops() {
         return this.plantableCrops;
     }
 
     public void setArea(int area) {
         this.area = area;
-        EventLog.getInstance().logEvent(new Event("Farm area set to: " + area + " sq km"));
+        this.checkAccountingIfEnabled();
+        this.eventLog.logEvent(Event.areaSet(area));
+
+        for (FarmListener listener : this.listeners) {
+            listener.areaSet(area);
+        }
     }
 
     public void setTime(int time) {
@@ -176,7 +484,7 @@ public class Farm implements Writable {
         json.put("revenue", this.revenue);
         JSONArray jsonArray1 = new JSONArray();
 
-        for (PlantedCrop p : this.crops) {
+        for (PlantedCrop p : this.getPlantedCrops()) {
             jsonArray1.put(p.toJson());
         }
 
@@ -191,22 +499,146 @@ public class Farm implements Writable {
         return json;
     }
 
+    /*
+     * MODIFIES: json
+     * EFFECTS: writes this as a JSON object to json, streaming the plantings
+     * straight from the plot store; the area comes first and the crops last so
+     * that a streaming reader can add them as they are read
+     */
+    @Override
+    public void writeJson(JsonTokenWriter json) throws IOException {
+        json.beginObject();
+        json.name("area").value(this.area);
+        json.name("time").value(this.time);
+        json.name("revenue").value(this.revenue);
+        json.name("plantableCrops").beginArray();
+
+        for (Crop c : this.plantableCrops) {
+            c.writeJson(json);
+        }
+
+        json.endArray();
+        json.name("crops").beginArray();
+        this.forEachPlanting((crop, timeGrown, plantedArea) -> PlantedCrop.writeJson(json, crop, timeGrown,
+                plantedArea));
+        json.endArray();
+        json.endObject();
+    }
+
+    /*
+     * EFFECTS: gives every planted crop to visitor in planting order, straight
+     * from the plot store, rethrowing the first IOException it throws
+     */
+    public void forEachPlanting(PlantingVisitor visitor) throws IOException {
+        this.crops.forEachPlanting(this.quarter, visitor);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds plantedCrop to farm, throws IllegalArgumentException if its
+     * time grown is not between 0 and its time required
+     */
+    public void addPlantedCrop(PlantedCrop plantedCrop) throws IllegalArgumentException {
+        int ripeningQuarter = PlotStore.ripeningQuarter(this.quarter, plantedCrop.getTimeRequired(),
+                plantedCrop.getTimeGrown());
+        this.crops.add(plantedCrop, ripeningQuarter);
+        this.addToPlantedArea(plantedCrop.getName(), plantedCrop.getPlantedArea());
+        this.checkAccountingIfEnabled();
+    }
+
+    /*
+     * REQUIRES: plantedArea > 0
+     * MODIFIES: this
+     * EFFECTS: adds a planting of plantedArea sq km of crop that has grown for
+     * timeGrown quarters to farm, without using seeds of crop; unlike
+     * addPlantedCrop(PlantedCrop), the array storage keeps no reference to a
+     * per-planting object; throws IllegalArgumentException if timeGrown is not
+     * between 0 and the time required of crop
+     */
+    public void addPlantedCrop(Crop crop, int plantedArea, int timeGrown) throws IllegalArgumentException {
+        int ripeningQuarter = PlotStore.ripeningQuarter(this.quarter, crop.getTimeRequired(), timeGrown);
+        this.crops.plant(crop, plantedArea, ripeningQuarter);
+        this.addToPlantedArea(crop.getName(), plantedArea);
+        this.checkAccountingIfEnabled();
+    }
+
+    /*
+     * REQUIRES: plantedArea > 0
+     * MODIFIES: this
+     * EFFECTS: adds a planting as addPlantedCrop(crop, plantedArea, timeGrown)
+     * does, without checking the accounting; for FarmLoader
+     */
+    void loadPlantedCrop(Crop crop, int plantedArea, int timeGrown) throws IllegalArgumentException {
+        int ripeningQuarter = PlotStore.ripeningQuarter(this.quarter, crop.getTimeRequired(), timeGrown);
+        this.crops.plant(crop, plantedArea, ripeningQuarter);
+        this.addToPlantedArea(crop.getName(), plantedArea);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds the count plantings held in records as three ints each (the
+     * index in cropTable of the crop, the planted area and the time grown),
+     * without checking the accounting; throws IllegalArgumentException if a
+     * record has an index out of range, a non-positive area or a time grown
+     * outside 0 to the time required of its crop, or the planted area
+     * overflows; for FarmLoader
+     */
+    void loadPlantedCrops(Crop[] cropTable, IntBuffer records, int count) throws IllegalArgumentException {
+        long[] areaByCrop = new long[cropTable.length];
+        this.crops.plantRecords(cropTable, records, count, this.quarter, areaByCrop);
+        long total = this.plantedArea;
+        for (long area : areaByCrop) {
+            total += area;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Planted area overflows: " + total + " sq km");
+        }
+        for (int i = 0; i < cropTable.length; i++) {
+            if (areaByCrop[i] > 0) {
+                this.addToPlantedArea(cropTable[i].getName(), (int) areaByCrop[i]);
+            }
+        }
+    }
+
     /*
      * MODIFIES: this
-     * EFFECTS: adds plantedCrop to farm
+     * EFFECTS: adds plantableCrop as addPlantableCrop does, without logging or
+     * telling the listeners; for FarmLoader
      */
-    public void addPlantedCrop(PlantedCrop plantedCrop) {
-        this.crops.add(plantedCrop);
+    void loadPlantableCrop(Crop plantableCrop) {
+        this.plantableCrops.put(plantableCrop);
     }
 
     /*
      * MODIFIES: this
-     * EFFECTS: adds plantableCrop to farm
+     * EFFECTS: sets the area without checking the accounting, logging or
+     * telling the listeners; for FarmLoader
      */
-    public void addPlantableCrop(Crop plantableCrop) {
-        this.plantableCrops.add(plantableCrop);
-        EventLog.getInstance().logEvent(new Event("Created new crop: " + plantableCrop.getName() + " - Revenue: $"
-                + plantableCrop.getRevenue() + " - Seeds: " + plantableCrop.getSeeds() + " sq km" + " - Time: "
-                + plantableCrop.getTimeRequired() + " quarters"));
+    void loadArea(int area) {
+        this.area = area;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: logs one event summing up what was loaded; for FarmLoader
+     */
+    void finishLoad() {
+        this.eventLog.logEvent(Event.farmLoaded(this.plantableCrops.size(), this.crops.size()));
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds plantableCrop to farm, replacing the plantable crop with the
+     * same name (ignoring case) if there is one; returns the replaced crop, whose
+     * seeds are dropped with it, or null if there was none
+     */
+    public Crop addPlantableCrop(Crop plantableCrop) {
+        Crop replaced = this.plantableCrops.put(plantableCrop);
+        this.eventLog.logEvent(Event.cropCreated(plantableCrop));
+
+        for (FarmListener listener : this.listeners) {
+            listener.plantableCropAdded(plantableCrop);
+        }
+        return replaced;
     }
 }
\ No newline at end of file
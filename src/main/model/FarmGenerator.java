@@ -0,0 +1,304 @@
+package model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Represents a generator of synthetic farms for benchmarks and scale tests. A farm gets a catalog of varieties with
+ * random revenues, seeds and growing times, and plantings of random varieties and areas at random stages of growth.
+ * Everything is drawn from a SplittableRandom seeded with the given seed, so the same seed and settings always give
+ * the same farm. The plantings are drawn in chunks of CHUNK_SIZE, each from its own split of the random generator,
+ * on the common ForkJoinPool, then loaded into the farm in order; the chunks do not depend on the number of workers,
+ * so neither does the farm.
+ */
+public class FarmGenerator {
+    static final int CHUNK_SIZE = 64 * 1024; // the number of plantings drawn from one split of the random generator
+    private static final int QUARTERS = 5; // the number of stages of growth, from just planted (4 to go) to ripe (0)
+    private static final String[] NAMES = {"wheat", "corn", "rice", "barley", "oats", "rye", "soy", "canola",
+        "potato", "sugarbeet", "sorghum", "millet", "cotton", "sunflower", "lentil", "pea", "chickpea", "flax",
+        "hops", "tobacco"};
+
+    private long seed;
+    private int varieties = 10;
+    private int plantings = 1000;
+    private int area = Integer.MAX_VALUE;
+    private int minPlotArea = 1;
+    private int maxPlotArea = 1;
+    private int minSeeds = 0;
+    private int maxSeeds = 1000;
+    private int minRevenue = 1;
+    private int maxRevenue = 100;
+    private double[] maturity; // the cumulative weights of the quarters left to ripen, null if uniform in growth
+    private Farm.Storage storage = Farm.Storage.OBJECTS;
+
+    /*
+     * EFFECTS: constructs a generator of farms drawn with the given random seed,
+     * of 1000 plantings of 1 sq km each over 10 varieties by default
+     */
+    public FarmGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the number of varieties in the catalog, throws
+     * IllegalArgumentException if varieties < 1
+     */
+    public FarmGenerator setVarieties(int varieties) throws IllegalArgumentException {
+        if (varieties < 1) {
+            throw new IllegalArgumentException("A farm needs at least one variety");
+        }
+        this.varieties = varieties;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the number of plantings, throws IllegalArgumentException if
+     * plantings < 0
+     */
+    public FarmGenerator setPlantings(int plantings) throws IllegalArgumentException {
+        if (plantings < 0) {
+            throw new IllegalArgumentException("Plantings cannot be negative");
+        }
+        this.plantings = plantings;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the area of the farm, throws IllegalArgumentException if
+     * area < 0
+     */
+    public FarmGenerator setArea(int area) throws IllegalArgumentException {
+        if (area < 0) {
+            throw new IllegalArgumentException("Area cannot be negative");
+        }
+        this.area = area;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the range the area of each planting is drawn from, throws
+     * IllegalArgumentException unless 0 < min <= max
+     */
+    public FarmGenerator setPlotArea(int min, int max) throws IllegalArgumentException {
+        checkRange(min, max, 1, "Plot area");
+        this.minPlotArea = min;
+        this.maxPlotArea = max;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the range the remaining seeds of each variety are drawn from,
+     * throws IllegalArgumentException unless 0 <= min <= max
+     */
+    public FarmGenerator setSeeds(int min, int max) throws IllegalArgumentException {
+        checkRange(min, max, 0, "Seeds");
+        this.minSeeds = min;
+        this.maxSeeds = max;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the range the revenue of each variety is drawn from, throws
+     * IllegalArgumentException unless 0 <= min <= max
+     */
+    public FarmGenerator setRevenue(int min, int max) throws IllegalArgumentException {
+        checkRange(min, max, 0, "Revenue");
+        this.minRevenue = min;
+        this.maxRevenue = max;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the maturity of the plantings: weights[q] is the relative
+     * share of plantings that ripen in q quarters (0 for ripe, up to 4), and a
+     * planting whose variety grows faster than that is just planted; weights
+     * shorter than 5 leave the remaining quarters out. Without weights, the
+     * quarters a planting has grown are uniform between none and ripe. Throws
+     * IllegalArgumentException if there are more than 5 weights, any is
+     * negative, or none is positive
+     */
+    public FarmGenerator setMaturity(double... weights) throws IllegalArgumentException {
+        if (weights.length > QUARTERS) {
+            throw new IllegalArgumentException("Crops ripen in at most " + (QUARTERS - 1) + " quarters");
+        }
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int q = 0; q < weights.length; q++) {
+            if (!(weights[q] >= 0)) {
+                throw new IllegalArgumentException("Maturity weights cannot be negative");
+            }
+            total += weights[q];
+            cumulative[q] = total;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("At least one maturity weight must be positive");
+        }
+        this.maturity = cumulative;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the storage of the generated farms
+     */
+    public FarmGenerator setStorage(Farm.Storage storage) {
+        this.storage = storage;
+        return this;
+    }
+
+    /*
+     * EFFECTS: returns the catalog of varieties, with the seeds they have left,
+     * that generate() plants
+     */
+    public Crop[] generateCatalog() {
+        return this.drawCatalog(new SplittableRandom(this.seed).split());
+    }
+
+    /*
+     * EFFECTS: returns a newly generated farm, logging a single load event;
+     * throws IllegalArgumentException if the largest plots could take more than
+     * the area of the farm
+     */
+    public Farm generate() throws IllegalArgumentException {
+        if ((long) this.plantings * this.maxPlotArea > this.area) {
+            throw new IllegalArgumentException(this.plantings + " plots of up to " + this.maxPlotArea
+                    + " sq km may not fit in " + this.area + " sq km");
+        }
+        SplittableRandom random = new SplittableRandom(this.seed);
+        Crop[] catalog = this.drawCatalog(random.split());
+        int[] plantedVarieties = new int[this.plantings];
+        int[] plotAreas = new int[this.plantings];
+        byte[] timesGrown = new byte[this.plantings];
+        SplittableRandom[] chunkRandoms = new SplittableRandom[(this.plantings + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        for (int c = 0; c < chunkRandoms.length; c++) {
+            chunkRandoms[c] = random.split();
+        }
+        ForkJoinPool.commonPool().invoke(new DrawTask(catalog, chunkRandoms, 0, chunkRandoms.length,
+                plantedVarieties, plotAreas, timesGrown));
+
+        FarmLoader loader = new FarmLoader(this.area, this.storage);
+        for (Crop crop : catalog) {
+            loader.addPlantableCrop(crop);
+        }
+        for (int i = 0; i < this.plantings; i++) {
+            loader.addPlantedCrop(catalog[plantedVarieties[i]], plotAreas[i], timesGrown[i]);
+        }
+        return loader.finish();
+    }
+
+    /*
+     * MODIFIES: random
+     * EFFECTS: returns a catalog of varieties drawn from random
+     */
+    private Crop[] drawCatalog(SplittableRandom random) {
+        Crop[] catalog = new Crop[this.varieties];
+        for (int i = 0; i < this.varieties; i++) {
+            String name = i < NAMES.length ? NAMES[i] : NAMES[i % NAMES.length] + (i / NAMES.length + 1);
+            catalog[i] = new Crop(name, between(random, this.minRevenue, this.maxRevenue),
+                    between(random, this.minSeeds, this.maxSeeds), random.nextInt(1, QUARTERS));
+        }
+        return catalog;
+    }
+
+    /*
+     * MODIFIES: random, plantedVarieties, plotAreas, timesGrown
+     * EFFECTS: draws the plantings of chunk c from random into the arrays
+     */
+    private void drawChunk(Crop[] catalog, SplittableRandom random, int c, int[] plantedVarieties, int[] plotAreas,
+            byte[] timesGrown) {
+        int from = c * CHUNK_SIZE;
+        int to = Math.min(this.plantings, from + CHUNK_SIZE);
+        for (int i = from; i < to; i++) {
+            int variety = random.nextInt(catalog.length);
+            int timeRequired = catalog[variety].getTimeRequired();
+            plantedVarieties[i] = variety;
+            plotAreas[i] = between(random, this.minPlotArea, this.maxPlotArea);
+            if (this.maturity == null) {
+                timesGrown[i] = (byte) random.nextInt(timeRequired + 1);
+            } else {
+                timesGrown[i] = (byte) (timeRequired - Math.min(timeRequired, this.quartersToRipen(random)));
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: random
+     * EFFECTS: returns the number of quarters to ripen drawn with the maturity
+     * weights
+     */
+    private int quartersToRipen(SplittableRandom random) {
+        double draw = random.nextDouble() * this.maturity[this.maturity.length - 1];
+        int q = 0;
+        while (q < this.maturity.length - 1 && draw >= this.maturity[q]) {
+            q++;
+        }
+        return q;
+    }
+
+    /*
+     * MODIFIES: random
+     * EFFECTS: returns a number drawn uniformly from [min, max]
+     */
+    private static int between(SplittableRandom random, int min, int max) {
+        return max == Integer.MAX_VALUE ? min + (int) random.nextLong(max - (long) min + 1)
+                : random.nextInt(min, max + 1);
+    }
+
+    /*
+     * EFFECTS: throws IllegalArgumentException unless lowest <= min <= max
+     */
+    private static void checkRange(int min, int max, int lowest, String what) throws IllegalArgumentException {
+        if (min < lowest || min > max) {
+            throw new IllegalArgumentException(what + " must be a range from " + lowest + " up, not " + min
+                    + " to " + max);
+        }
+    }
+
+    /*
+     * Represents the drawing of the plantings of a range of chunks, split in halves until it is a single chunk
+     */
+    private class DrawTask extends RecursiveAction {
+        private final Crop[] catalog;
+        private final SplittableRandom[] chunkRandoms; // the random generator of each chunk
+        private final int from; // the first chunk of the range
+        private final int to; // the chunk after the last one of the range
+        private final int[] plantedVarieties;
+        private final int[] plotAreas;
+        private final byte[] timesGrown;
+
+        DrawTask(Crop[] catalog, SplittableRandom[] chunkRandoms, int from, int to, int[] plantedVarieties,
+                int[] plotAreas, byte[] timesGrown) {
+            this.catalog = catalog;
+            this.chunkRandoms = chunkRandoms;
+            this.from = from;
+            this.to = to;
+            this.plantedVarieties = plantedVarieties;
+            this.plotAreas = plotAreas;
+            this.timesGrown = timesGrown;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= 1) {
+                for (int c = this.from; c < this.to; c++) {
+                    drawChunk(this.catalog, this.chunkRandoms[c], c, this.plantedVarieties, this.plotAreas,
+                            this.timesGrown);
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new DrawTask(this.catalog, this.chunkRandoms, this.from, middle, this.plantedVarieties,
+                    this.plotAreas, this.timesGrown),
+                    new DrawTask(this.catalog, this.chunkRandoms, middle, this.to, this.plantedVarieties,
+                            this.plotAreas, this.timesGrown));
+        }
+    }
+}
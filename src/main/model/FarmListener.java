@@ -0,0 +1,44 @@
+package model;
+
+/*
+ * Represents an observer of the mutations made to a farm through its methods. Each method is called after the
+ * mutation has succeeded, on the thread that made it.
+ */
+public interface FarmListener {
+    /*
+     * EFFECTS: called after plantArea sq km of crop were planted, crop had
+     * seedsBefore seeds before the planting
+     */
+    void planted(Crop crop, int seedsBefore, int plantArea);
+
+    /*
+     * EFFECTS: called after the farm advanced by quarters quarters, through
+     * timeLapses (quarters == 1) or advance
+     */
+    void timeAdvanced(int quarters);
+
+    /*
+     * EFFECTS: called after the ripe crops were harvested without time passing
+     */
+    void harvested();
+
+    /*
+     * EFFECTS: called after amount seeds were added to the plantable crop crop
+     */
+    void seedsAdded(Crop crop, int amount);
+
+    /*
+     * EFFECTS: called after crop was added to the plantable crops
+     */
+    void plantableCropAdded(Crop crop);
+
+    /*
+     * EFFECTS: called after the farm was reset
+     */
+    void farmReset();
+
+    /*
+     * EFFECTS: called after the area of the farm was set to area
+     */
+    void areaSet(int area);
+}
@@ -0,0 +1,145 @@
+package model;
+
+import java.nio.IntBuffer;
+
+/*
+ * Represents the bulk construction of a farm from saved data. Crops and plantings are inserted without logging an
+ * event, telling listeners or checking the accounting for each of them; finish() logs a single event summing up the
+ * load. Consecutive plantings of the same crop type and seeds share one Crop.
+ */
+public class FarmLoader {
+    private Farm farm; // the farm being loaded, null once finished
+    private Crop lastCrop; // the crop of the previous planting, null if none
+
+    /*
+     * REQUIRES: area >= 0
+     * EFFECTS: starts loading an empty farm with the given area and storage
+     */
+    public FarmLoader(int area, Farm.Storage storage) {
+        this.farm = new Farm(area, storage, false);
+    }
+
+    /*
+     * REQUIRES: area >= 0
+     * EFFECTS: starts loading an empty farm with the given area
+     */
+    public FarmLoader(int area) {
+        this(area, Farm.Storage.OBJECTS);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the area of the farm, throws IllegalStateException if the
+     * load is finished
+     */
+    public FarmLoader setArea(int area) throws IllegalStateException {
+        this.loading().loadArea(area);
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the time of the farm, throws IllegalStateException if the
+     * load is finished
+     */
+    public FarmLoader setTime(int time) throws IllegalStateException {
+        this.loading().setTime(time);
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the revenue of the farm, throws IllegalStateException if the
+     * load is finished
+     */
+    public FarmLoader setRevenue(int revenue) throws IllegalStateException {
+        this.loading().setRevenue(revenue);
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds crop to the plantable crops of the farm, replacing the one
+     * with the same name (ignoring case) if there is one, throws
+     * IllegalStateException if the load is finished
+     */
+    public FarmLoader addPlantableCrop(Crop crop) throws IllegalStateException {
+        this.loading().loadPlantableCrop(crop);
+        return this;
+    }
+
+    /*
+     * REQUIRES: seeds >= 0, plantedArea > 0
+     * MODIFIES: this
+     * EFFECTS: adds a planting of plantedArea sq km of the crop of the given type
+     * and seeds that has grown for timeGrown quarters, throws
+     * IllegalArgumentException if timeGrown is not between 0 and the time
+     * required of type, IllegalStateException if the load is finished
+     */
+    public FarmLoader addPlantedCrop(CropType type, int seeds, int plantedArea, int timeGrown)
+            throws IllegalArgumentException, IllegalStateException {
+        Farm loading = this.loading();
+        if (this.lastCrop == null || this.lastCrop.getType() != type || this.lastCrop.getSeeds() != seeds) {
+            this.lastCrop = new Crop(type, seeds);
+        }
+        loading.loadPlantedCrop(this.lastCrop, plantedArea, timeGrown);
+        return this;
+    }
+
+    /*
+     * REQUIRES: plantedArea > 0
+     * MODIFIES: this
+     * EFFECTS: adds a planting of plantedArea sq km of crop that has grown for
+     * timeGrown quarters; crop is kept by the farm and must not be changed
+     * afterwards; throws IllegalArgumentException if timeGrown is not between 0
+     * and the time required of crop, IllegalStateException if the load is
+     * finished
+     */
+    public FarmLoader addPlantedCrop(Crop crop, int plantedArea, int timeGrown)
+            throws IllegalArgumentException, IllegalStateException {
+        this.loading().loadPlantedCrop(crop, plantedArea, timeGrown);
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds the count plantings held in records as three ints each: the
+     * index in cropTable of the crop, the planted area and the time grown; the
+     * array storage copies them straight into its columns. The crops are kept
+     * by the farm and must not be changed afterwards. Throws
+     * IllegalArgumentException if a record has an index out of range, a
+     * non-positive area or a time grown outside 0 to the time required of its
+     * crop (the farm must then be dropped), IllegalStateException if the load
+     * is finished
+     */
+    public FarmLoader addPlantedCrops(Crop[] cropTable, IntBuffer records, int count)
+            throws IllegalArgumentException, IllegalStateException {
+        this.loading().loadPlantedCrops(cropTable, records, count);
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: finishes the load, logs "Loaded farm: N crops, M plantings" and
+     * returns the farm, throws IllegalStateException if the load is already
+     * finished
+     */
+    public Farm finish() throws IllegalStateException {
+        Farm loaded = this.loading();
+        this.farm = null;
+        this.lastCrop = null;
+        loaded.finishLoad();
+        return loaded;
+    }
+
+    /*
+     * EFFECTS: returns the farm being loaded, throws IllegalStateException if the
+     * load is finished
+     */
+    private Farm loading() throws IllegalStateException {
+        if (this.farm == null) {
+            throw new IllegalStateException("The farm has already been loaded");
+        }
+        return this.farm;
+    }
+}
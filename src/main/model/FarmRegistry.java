@@ -0,0 +1,258 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Represents a registry of many farms simulated together. The farms are split into shards, one per available
+ * processor by default, and each shard is owned by a worker thread of its own: while the farms advance, a farm is only
+ * touched by the worker of its shard, so the workers share no farm and take no lock on one. All the farms advance in
+ * lock-step, a quarter at a time: no farm starts a quarter until every farm has finished the one before. Each farm
+ * logs to a scoped EventLog of its own, so the workers do not contend on the global log either. The registry is driven
+ * by one thread: farms are added, read and advanced from that thread, and never read while an advance is running.
+ */
+public class FarmRegistry implements AutoCloseable {
+    public static final int DEFAULT_LOG_CAPACITY = 1024;
+
+    private List<Farm> farms; // the registered farms, by id
+    private List<List<Farm>> shards; // the farms of each shard
+    private ExecutorService[] workers; // the thread of each shard
+    private int logCapacity; // the capacity of the event log of each farm
+    private long totalFarmQuarters; // the farm-quarters advanced since construction
+    private long totalNanos; // the time spent advancing since construction
+    private long lastFarmQuarters; // the farm-quarters of the last advance
+    private long lastNanos; // the time the last advance took
+
+    /*
+     * EFFECTS: constructs an empty registry with one shard per available
+     * processor, keeping the DEFAULT_LOG_CAPACITY most recent events of each farm
+     */
+    public FarmRegistry() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_LOG_CAPACITY);
+    }
+
+    /*
+     * REQUIRES: shards > 0, logCapacity >= 0
+     * EFFECTS: constructs an empty registry with the given number of shards,
+     * keeping the logCapacity most recent events of each farm (all of them if
+     * logCapacity is 0)
+     */
+    public FarmRegistry(int shards, int logCapacity) {
+        this.farms = new ArrayList<Farm>();
+        this.shards = new ArrayList<List<Farm>>();
+        this.workers = new ExecutorService[shards];
+        this.logCapacity = logCapacity;
+        for (int i = 0; i < shards; i++) {
+            this.shards.add(new ArrayList<Farm>());
+            String name = "farm-shard-" + i;
+            this.workers[i] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /*
+     * REQUIRES: area >= 0
+     * MODIFIES: this
+     * EFFECTS: creates an empty farm with the given area and storage, logging
+     * its creation to its own event log, registers it and returns its id
+     */
+    public int createFarm(int area, Farm.Storage storage) {
+        Farm farm = new Farm(area, storage, false);
+        int id = this.addFarm(farm);
+        farm.getEventLog().logEvent(Event.farmCreated(area));
+        return id;
+    }
+
+    /*
+     * REQUIRES: farm is not registered here or in another registry
+     * MODIFIES: this, farm
+     * EFFECTS: registers farm in the shard with the fewest farms, gives it an
+     * event log of its own and returns its id; the farm must only be changed
+     * through this registry's thread from now on
+     */
+    public int addFarm(Farm farm) {
+        farm.setEventLog(EventLog.createScoped(this.logCapacity));
+        List<Farm> smallest = this.shards.get(0);
+        for (List<Farm> shard : this.shards) {
+            if (shard.size() < smallest.size()) {
+                smallest = shard;
+            }
+        }
+        smallest.add(farm);
+        this.farms.add(farm);
+        return this.farms.size() - 1;
+    }
+
+    /*
+     * EFFECTS: returns the farm with the given id, throws
+     * IndexOutOfBoundsException if there is none
+     */
+    public Farm getFarm(int id) {
+        return this.farms.get(id);
+    }
+
+    /*
+     * EFFECTS: returns the event log of the farm with the given id, throws
+     * IndexOutOfBoundsException if there is none
+     */
+    public EventLog getEventLog(int id) {
+        return this.farms.get(id).getEventLog();
+    }
+
+    public int size() {
+        return this.farms.size();
+    }
+
+    public int getShardCount() {
+        return this.shards.size();
+    }
+
+    public long getTotalFarmQuarters() {
+        return this.totalFarmQuarters;
+    }
+
+    /*
+     * EFFECTS: returns the farm-quarters per second of the last advance, 0 if
+     * nothing was advanced yet
+     */
+    public double getFarmQuartersPerSecond() {
+        return perSecond(this.lastFarmQuarters, this.lastNanos);
+    }
+
+    /*
+     * EFFECTS: returns the farm-quarters per second over every advance so far, 0
+     * if nothing was advanced yet
+     */
+    public double getTotalFarmQuartersPerSecond() {
+        return perSecond(this.totalFarmQuarters, this.totalNanos);
+    }
+
+    /*
+     * REQUIRES: quarters >= 0
+     * MODIFIES: this, the registered farms
+     * EFFECTS: advances every farm by the given number of quarters in lock-step,
+     * each shard on its own worker, with the same outcome for each farm as
+     * calling timeLapses() on it that many times; returns the farm-quarters
+     * advanced. Throws IllegalArgumentException if quarters < 0, and
+     * IllegalStateException if advancing a farm failed, in which case the
+     * remaining quarters are not advanced and the farms may be a quarter apart
+     */
+    public long advance(int quarters) throws IllegalArgumentException, IllegalStateException {
+        if (quarters < 0) {
+            throw new IllegalArgumentException("Cannot advance a negative number of quarters");
+        }
+        List<Integer> busy = new ArrayList<Integer>();
+        for (int i = 0; i < this.shards.size(); i++) {
+            if (!this.shards.get(i).isEmpty()) {
+                busy.add(i);
+            }
+        }
+        if (quarters == 0 || busy.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicBoolean stop = new AtomicBoolean();
+        CyclicBarrier quarterDone = new CyclicBarrier(busy.size(), () -> stop.set(failed.get()));
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        for (int i : busy) {
+            List<Farm> shard = this.shards.get(i);
+            results.add(this.workers[i].submit(() -> advanceShard(shard, quarters, quarterDone, failed, stop)));
+        }
+        Throwable failure = awaitAll(results);
+        if (failure != null) {
+            throw new IllegalStateException("A farm failed to advance", failure);
+        }
+
+        long farmQuarters = (long) this.farms.size() * quarters;
+        this.lastFarmQuarters = farmQuarters;
+        this.lastNanos = System.nanoTime() - start;
+        this.totalFarmQuarters += farmQuarters;
+        this.totalNanos += this.lastNanos;
+        return farmQuarters;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: stops the workers once they finish what they are doing
+     */
+    @Override
+    public void close() {
+        for (ExecutorService worker : this.workers) {
+            worker.shutdown();
+        }
+    }
+
+    /*
+     * MODIFIES: the farms of shard, failed
+     * EFFECTS: advances the farms of shard by the given number of quarters,
+     * moving the events each farm logged in a quarter into its log, and
+     * waiting at quarterDone after each quarter for the other shards; if a farm
+     * fails, sets failed and still waits at quarterDone, which copies failed to
+     * stop as the last shard arrives, so that every shard reads the same stop
+     * and stops after the same quarter; then throws what the farm threw
+     */
+    private static Void advanceShard(List<Farm> shard, int quarters, CyclicBarrier quarterDone,
+            AtomicBoolean failed, AtomicBoolean stop) throws InterruptedException, BrokenBarrierException {
+        Throwable thrown = null;
+        for (int q = 0; q < quarters && !stop.get(); q++) {
+            try {
+                for (Farm farm : shard) {
+                    farm.timeLapses();
+                    farm.getEventLog().flush();
+                }
+            } catch (RuntimeException | Error e) {
+                thrown = e;
+                failed.set(true);
+            }
+            quarterDone.await();
+        }
+        if (thrown instanceof Error) {
+            throw (Error) thrown;
+        } else if (thrown != null) {
+            throw (RuntimeException) thrown;
+        }
+        return null;
+    }
+
+    /*
+     * EFFECTS: waits for every result, even if the calling thread is
+     * interrupted (restoring its interrupt afterwards), and returns the first
+     * failure, or null if there was none
+     */
+    private static Throwable awaitAll(List<Future<?>> results) {
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<?> result : results) {
+            while (true) {
+                try {
+                    result.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return failure;
+    }
+
+    /*
+     * EFFECTS: returns count per second of nanos, 0 if nanos is 0
+     */
+    private static double perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,83 @@
+package model;
+
+import java.util.*;
+
+/*
+ * Represents the outcome of a harvest: the number of harvested crops, their revenue (in dollar) and the harvested
+ * area (in square kilometres) of each crop, keyed by crop name.
+ */
+public class Harvest {
+    private int crops; // the number of harvested crops
+    private int revenue; // the revenue of the harvested crops
+    private Map<String, Integer> areaByCrop; // the harvested area of each crop
+
+    /*
+     * EFFECTS: constructs an empty harvest
+     */
+    public Harvest() {
+        this.crops = 0;
+        this.revenue = 0;
+        this.areaByCrop = new HashMap<String, Integer>();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records the harvest of plantedArea sq km of the crop named
+     * cropName, worth revenue
+     */
+    public void add(String cropName, int plantedArea, int revenue) {
+        this.add(1, cropName, plantedArea, revenue);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records the harvest of crops plantings of the crop named cropName,
+     * covering plantedArea sq km in total and worth revenue
+     */
+    public void add(int crops, String cropName, int plantedArea, int revenue) {
+        this.crops += crops;
+        this.revenue += revenue;
+        this.areaByCrop.merge(cropName, plantedArea, Integer::sum);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds everything recorded in other to this
+     */
+    public void addAll(Harvest other) {
+        this.crops += other.crops;
+        this.revenue += other.revenue;
+
+        for (Map.Entry<String, Integer> entry : other.areaByCrop.entrySet()) {
+            this.areaByCrop.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+    }
+
+    public int getCrops() {
+        return this.crops;
+    }
+
+    public int getRevenue() {
+        return this.revenue;
+    }
+
+    /*
+     * EFFECTS: returns the harvested area of each crop, keyed by crop name
+     */
+    public Map<String, Integer> getAreaByCrop() {
+        return Collections.unmodifiableMap(this.areaByCrop);
+    }
+
+    /*
+     * EFFECTS: returns the sum of the harvested area of all crops
+     */
+    public int getArea() {
+        int area = 0;
+
+        for (int cropArea : this.areaByCrop.values()) {
+            area += cropArea;
+        }
+
+        return area;
+    }
+}
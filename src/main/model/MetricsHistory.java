@@ -0,0 +1,545 @@
+package model;
+
+import java.util.*;
+
+/*
+ * Represents the per-quarter history of a farm's metrics (revenue, area harvested and planted, area and planted area
+ * of each crop), stored as delta-encoded column blocks whose oldest ones are kept only as summaries.
+ */
+public class MetricsHistory implements FarmListener {
+    public static final int BLOCK_SIZE = 1024;
+    public static final int DEFAULT_MAX_RAW_BLOCKS = 1024;
+    public static final int DEFAULT_MAX_SUMMARIES = 1024;
+
+    private Farm farm; // the farm recorded, null once detached
+    private int maxRawBlocks; // the most sealed blocks kept at full resolution
+    private int maxSummaries; // the most blocks kept as summaries only
+    private List<Block> blocks; // the sealed blocks, oldest first; the summarised ones come first
+    private int summaries; // the number of blocks kept as summaries only
+    private long recordedQuarters; // the quarters recorded since the history was started or cleared
+
+    private int openRows; // the quarters recorded since the last block was sealed
+    private int[] openQuarters;
+    private long[] openRevenue;
+    private int[] openHarvested;
+    private int[] openPlanted;
+    private int[] openArea;
+    private Map<String, int[]> openCrops; // the planted area of each crop planted since the last block was sealed
+    private long openRevenueBefore; // the cumulative revenue before the first open quarter
+
+    private long lastRevenue; // the cumulative revenue at the last recorded quarter
+    private int lastPlantedArea; // the planted area at the last recorded quarter
+    private long plantedSince; // the area planted since the last recorded quarter
+
+    /*
+     * Represents a sealed block of recorded quarters, with its encoded columns
+     * (null once only the summary is kept) and its summary.
+     */
+    private static final class Block {
+        private int firstQuarter;
+        private int lastQuarter;
+        private int rows;
+        private long revenueBefore; // the cumulative revenue before the first quarter
+        private long revenueEnd; // the cumulative revenue at the last quarter
+        private long harvestedSum;
+        private long plantedSum;
+        private double utilizationSum;
+        private Map<String, Long> cropSums;
+        private byte[] quarters;
+        private byte[] revenue;
+        private byte[] harvested;
+        private byte[] planted;
+        private byte[] area;
+        private Map<String, byte[]> crops;
+
+        boolean isSummarised() {
+            return this.quarters == null;
+        }
+
+        long encodedBytes() {
+            if (this.isSummarised()) {
+                return 0;
+            }
+            long bytes = (long) this.quarters.length + this.revenue.length + this.harvested.length
+                    + this.planted.length + this.area.length;
+            for (byte[] column : this.crops.values()) {
+                bytes += column.length;
+            }
+            return bytes;
+        }
+    }
+
+    /*
+     * REQUIRES: maxRawBlocks >= 1, maxSummaries >= 1
+     * MODIFIES: farm
+     * EFFECTS: starts recording the metrics of farm, keeping at most
+     * maxRawBlocks blocks of BLOCK_SIZE quarters at full resolution and at most
+     * maxSummaries summarised blocks
+     */
+    public MetricsHistory(Farm farm, int maxRawBlocks, int maxSummaries) {
+        this.farm = farm;
+        this.maxRawBlocks = maxRawBlocks;
+        this.maxSummaries = maxSummaries;
+        this.openQuarters = new int[BLOCK_SIZE];
+        this.openRevenue = new long[BLOCK_SIZE];
+        this.openHarvested = new int[BLOCK_SIZE];
+        this.openPlanted = new int[BLOCK_SIZE];
+        this.openArea = new int[BLOCK_SIZE];
+        this.clear();
+        farm.addListener(this);
+    }
+
+    /*
+     * MODIFIES: farm
+     * EFFECTS: starts recording the metrics of farm with the default limits
+     */
+    public MetricsHistory(Farm farm) {
+        this(farm, DEFAULT_MAX_RAW_BLOCKS, DEFAULT_MAX_SUMMARIES);
+    }
+
+    /*
+     * MODIFIES: this, farm
+     * EFFECTS: stops recording the farm; the history recorded so far stays
+     */
+    public void detach() {
+        if (this.farm != null) {
+            this.farm.removeListener(this);
+            this.farm = null;
+        }
+    }
+
+    public long getRecordedQuarters() {
+        return this.recordedQuarters;
+    }
+
+    /*
+     * EFFECTS: returns the number of recorded quarters still kept at full
+     * resolution
+     */
+    public long getFullResolutionQuarters() {
+        long rows = this.openRows;
+        for (Block block : this.blocks) {
+            if (!block.isSummarised()) {
+                rows += block.rows;
+            }
+        }
+        return rows;
+    }
+
+    /*
+     * EFFECTS: returns the number of blocks kept as summaries only
+     */
+    public int getSummaryCount() {
+        return this.summaries;
+    }
+
+    /*
+     * EFFECTS: returns the size in bytes of the encoded columns of the sealed
+     * blocks
+     */
+    public long getEncodedBytes() {
+        long bytes = 0;
+        for (Block block : this.blocks) {
+            bytes += block.encodedBytes();
+        }
+        return bytes;
+    }
+
+    /*
+     * EFFECTS: returns the recorded quarters from fromQuarter to toQuarter
+     * (inclusive), one point each, with the area of each of the given crops;
+     * where only summaries are kept, returns one point per summary whose last
+     * quarter is in the range
+     */
+    public MetricsSeries getRange(int fromQuarter, int toQuarter, String... crops) {
+        return this.query(fromQuarter, toQuarter, 1, crops);
+    }
+
+    /*
+     * REQUIRES: maxPoints >= 1
+     * EFFECTS: returns the recorded quarters from fromQuarter to toQuarter
+     * (inclusive) in at most maxPoints points of equal width in quarters, with
+     * the area of each of the given crops; a summarised block counts in the point
+     * of its last quarter
+     */
+    public MetricsSeries getDownsampled(int fromQuarter, int toQuarter, int maxPoints, String... crops) {
+        long span = (long) toQuarter - fromQuarter + 1;
+        long width = Math.max(1, (span + maxPoints - 1) / maxPoints);
+        return this.query(fromQuarter, toQuarter, width, crops);
+    }
+
+    @Override
+    public void planted(Crop crop, int seedsBefore, int plantArea) {
+        this.plantedSince += plantArea;
+    }
+
+    @Override
+    public void timeAdvanced(int quarters) {
+        this.record();
+    }
+
+    @Override
+    public void harvested() {
+    }
+
+    @Override
+    public void seedsAdded(Crop crop, int amount) {
+    }
+
+    @Override
+    public void plantableCropAdded(Crop crop) {
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: forgets the history, since the farm's time starts over
+     */
+    @Override
+    public void farmReset() {
+        this.clear();
+    }
+
+    @Override
+    public void areaSet(int area) {
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: empties the history and starts over from the current state of the
+     * farm
+     */
+    private void clear() {
+        this.blocks = new ArrayList<Block>();
+        this.summaries = 0;
+        this.recordedQuarters = 0;
+        this.openRows = 0;
+        this.openCrops = new HashMap<String, int[]>();
+        this.lastRevenue = this.farm.getRevenue();
+        this.lastPlantedArea = this.farm.getPlantedArea();
+        this.plantedSince = 0;
+        this.openRevenueBefore = this.lastRevenue;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records the current quarter of the farm, as one quarter however
+     * many it advanced by, sealing the open block once it is full
+     */
+    private void record() {
+        int planted = this.farm.getPlantedArea();
+        int i = this.openRows;
+        this.openQuarters[i] = this.farm.getTime();
+        this.openRevenue[i] = this.farm.getRevenue();
+        this.openHarvested[i] = (int) Math.max(0, this.lastPlantedArea + this.plantedSince - planted);
+        this.openPlanted[i] = planted;
+        this.openArea[i] = this.farm.getArea();
+        for (Map.Entry<String, Integer> entry : this.farm.getPlantedAreaByCrop().entrySet()) {
+            if (entry.getValue() != 0) {
+                int[] column = this.openCrops.get(entry.getKey());
+                if (column == null) {
+                    column = new int[BLOCK_SIZE];
+                    this.openCrops.put(entry.getKey(), column);
+                }
+                column[i] = entry.getValue();
+            }
+        }
+        this.openRows++;
+        this.recordedQuarters++;
+        this.lastRevenue = this.openRevenue[i];
+        this.lastPlantedArea = planted;
+        this.plantedSince = 0;
+        if (this.openRows == BLOCK_SIZE) {
+            this.seal();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: encodes the open quarters into a new block (see DeltaCodec) with
+     * the sums of its columns as its summary; past maxRawBlocks blocks the
+     * oldest keeps only its summary, and past maxSummaries summaries two of them
+     * are merged, so memory stays bounded
+     */
+    private void seal() {
+        Block block = new Block();
+        int n = this.openRows;
+        block.firstQuarter = this.openQuarters[0];
+        block.lastQuarter = this.openQuarters[n - 1];
+        block.rows = n;
+        block.revenueBefore = this.openRevenueBefore;
+        block.revenueEnd = this.openRevenue[n - 1];
+        block.cropSums = new HashMap<String, Long>();
+        for (int i = 0; i < n; i++) {
+            block.harvestedSum += this.openHarvested[i];
+            block.plantedSum += this.openPlanted[i];
+            block.utilizationSum += utilization(this.openPlanted[i], this.openArea[i]);
+        }
+        block.quarters = DeltaCodec.encode(this.openQuarters, n);
+        block.revenue = DeltaCodec.encode(this.openRevenue, n);
+        block.harvested = DeltaCodec.encode(this.openHarvested, n);
+        block.planted = DeltaCodec.encode(this.openPlanted, n);
+        block.area = DeltaCodec.encode(this.openArea, n);
+        block.crops = new HashMap<String, byte[]>();
+        for (Map.Entry<String, int[]> entry : this.openCrops.entrySet()) {
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += entry.getValue()[i];
+            }
+            block.cropSums.put(entry.getKey(), sum);
+            block.crops.put(entry.getKey(), DeltaCodec.encode(entry.getValue(), n));
+        }
+        this.blocks.add(block);
+        this.openRows = 0;
+        this.openCrops = new HashMap<String, int[]>();
+        this.openRevenueBefore = block.revenueEnd;
+
+        if (this.blocks.size() - this.summaries > this.maxRawBlocks) {
+            Block oldest = this.blocks.get(this.summaries);
+            oldest.quarters = null;
+            oldest.revenue = null;
+            oldest.harvested = null;
+            oldest.planted = null;
+            oldest.area = null;
+            oldest.crops = null;
+            this.summaries++;
+        }
+        if (this.summaries > this.maxSummaries) {
+            this.mergeSummaries();
+        }
+    }
+
+    /*
+     * REQUIRES: this.summaries >= 2
+     * MODIFIES: this
+     * EFFECTS: merges the two neighbouring summaries covering the fewest
+     * quarters, the oldest such pair if there are several
+     */
+    private void mergeSummaries() {
+        int best = 0;
+        for (int i = 1; i + 1 < this.summaries; i++) {
+            if (this.blocks.get(i).rows + this.blocks.get(i + 1).rows
+                    < this.blocks.get(best).rows + this.blocks.get(best + 1).rows) {
+                best = i;
+            }
+        }
+        Block first = this.blocks.get(best);
+        Block second = this.blocks.remove(best + 1);
+        first.lastQuarter = second.lastQuarter;
+        first.rows += second.rows;
+        first.revenueEnd = second.revenueEnd;
+        first.harvestedSum += second.harvestedSum;
+        first.plantedSum += second.plantedSum;
+        first.utilizationSum += second.utilizationSum;
+        for (Map.Entry<String, Long> entry : second.cropSums.entrySet()) {
+            first.cropSums.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+        this.summaries--;
+    }
+
+    /*
+     * REQUIRES: width >= 1
+     * EFFECTS: returns the recorded quarters from fromQuarter to toQuarter
+     * (inclusive) in points of width quarters; uses the summary of a block
+     * instead of decoding it when the whole block falls in one point
+     */
+    private MetricsSeries query(int fromQuarter, int toQuarter, long width, String[] crops) {
+        Aggregator aggregator = new Aggregator(new MetricsSeries(crops), fromQuarter, width, crops);
+        long[] quarters = new long[BLOCK_SIZE];
+        long[] revenue = new long[BLOCK_SIZE];
+        long[] harvested = new long[BLOCK_SIZE];
+        long[] planted = new long[BLOCK_SIZE];
+        long[] area = new long[BLOCK_SIZE];
+        long[][] cropAreas = new long[crops.length][BLOCK_SIZE];
+
+        for (int b = this.firstBlockEndingFrom(fromQuarter); b < this.blocks.size(); b++) {
+            Block block = this.blocks.get(b);
+            if (block.firstQuarter > toQuarter) {
+                break;
+            }
+            boolean inRange = block.firstQuarter >= fromQuarter && block.lastQuarter <= toQuarter;
+            if (block.isSummarised() || inRange && aggregator.samePoint(block.firstQuarter, block.lastQuarter)) {
+                if (block.lastQuarter >= fromQuarter && block.lastQuarter <= toQuarter) {
+                    aggregator.addSummary(block);
+                }
+                continue;
+            }
+            DeltaCodec.decode(block.quarters, quarters, block.rows);
+            DeltaCodec.decode(block.revenue, revenue, block.rows);
+            DeltaCodec.decode(block.harvested, harvested, block.rows);
+            DeltaCodec.decode(block.planted, planted, block.rows);
+            DeltaCodec.decode(block.area, area, block.rows);
+            for (int c = 0; c < crops.length; c++) {
+                byte[] column = block.crops.get(crops[c]);
+                if (column == null) {
+                    Arrays.fill(cropAreas[c], 0);
+                } else {
+                    DeltaCodec.decode(column, cropAreas[c], block.rows);
+                }
+            }
+            long before = block.revenueBefore;
+            for (int i = 0; i < block.rows; i++) {
+                if (quarters[i] >= fromQuarter && quarters[i] <= toQuarter) {
+                    aggregator.addRow((int) quarters[i], before, revenue[i], harvested[i], planted[i], area[i],
+                            cropAreas, i);
+                }
+                before = revenue[i];
+            }
+        }
+
+        long before = this.openRevenueBefore;
+        for (int i = 0; i < this.openRows; i++) {
+            if (this.openQuarters[i] >= fromQuarter && this.openQuarters[i] <= toQuarter) {
+                for (int c = 0; c < crops.length; c++) {
+                    int[] column = this.openCrops.get(crops[c]);
+                    cropAreas[c][i] = column == null ? 0 : column[i];
+                }
+                aggregator.addRow(this.openQuarters[i], before, this.openRevenue[i], this.openHarvested[i],
+                        this.openPlanted[i], this.openArea[i], cropAreas, i);
+            }
+            before = this.openRevenue[i];
+        }
+        return aggregator.finish();
+    }
+
+    /*
+     * EFFECTS: returns the index of the first block whose last quarter is at
+     * least quarter, or the number of blocks if there is none; the blocks are in
+     * increasing order of quarters, since the history is cleared when the farm's
+     * time starts over
+     */
+    private int firstBlockEndingFrom(int quarter) {
+        int lo = 0;
+        int hi = this.blocks.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.blocks.get(mid).lastQuarter < quarter) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * EFFECTS: returns the share of area that is planted, 0 if area is 0
+     */
+    private static double utilization(long planted, long area) {
+        return area == 0 ? 0 : (double) planted / area;
+    }
+
+    /*
+     * Represents the point being summed up by a query, added to the series once
+     * a row or summary falls in the next point.
+     */
+    private static final class Aggregator {
+        private MetricsSeries series;
+        private int fromQuarter;
+        private long width;
+        private String[] crops;
+        private long point = -1; // the index of the point being summed up, -1 if none
+        private int lastQuarter;
+        private int rows;
+        private long revenueBefore;
+        private long revenueEnd;
+        private long harvested;
+        private long planted;
+        private double utilization;
+        private double[] cropSums;
+
+        Aggregator(MetricsSeries series, int fromQuarter, long width, String[] crops) {
+            this.series = series;
+            this.fromQuarter = fromQuarter;
+            this.width = width;
+            this.crops = crops;
+            this.cropSums = new double[crops.length];
+        }
+
+        /*
+         * EFFECTS: returns whether the two quarters fall in the same point
+         */
+        boolean samePoint(int first, int last) {
+            return this.pointOf(first) == this.pointOf(last);
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: adds a recorded quarter to its point
+         */
+        void addRow(int quarter, long revenueBefore, long revenue, long harvested, long planted, long area,
+                long[][] cropAreas, int row) {
+            this.startPoint(quarter, revenueBefore);
+            this.lastQuarter = quarter;
+            this.rows++;
+            this.revenueEnd = revenue;
+            this.harvested += harvested;
+            this.planted += planted;
+            this.utilization += MetricsHistory.utilization(planted, area);
+            for (int c = 0; c < this.crops.length; c++) {
+                this.cropSums[c] += cropAreas[c][row];
+            }
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: adds the quarters of a block to the point of its last quarter,
+         * through its summary
+         */
+        void addSummary(Block block) {
+            this.startPoint(block.lastQuarter, block.revenueBefore);
+            this.lastQuarter = block.lastQuarter;
+            this.rows += block.rows;
+            this.revenueEnd = block.revenueEnd;
+            this.harvested += block.harvestedSum;
+            this.planted += block.plantedSum;
+            this.utilization += block.utilizationSum;
+            for (int c = 0; c < this.crops.length; c++) {
+                this.cropSums[c] += block.cropSums.getOrDefault(this.crops[c], 0L);
+            }
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: adds the last point to the series and returns it
+         */
+        MetricsSeries finish() {
+            this.emit();
+            return this.series;
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: if quarter falls in another point than the one being summed up,
+         * adds that one to the series and starts the point of quarter
+         */
+        private void startPoint(int quarter, long revenueBefore) {
+            long next = this.pointOf(quarter);
+            if (next != this.point) {
+                this.emit();
+                this.point = next;
+                this.revenueBefore = revenueBefore;
+            }
+        }
+
+        /*
+         * MODIFIES: this
+         * EFFECTS: adds the point being summed up to the series, if any, and resets
+         * the sums
+         */
+        private void emit() {
+            if (this.rows > 0) {
+                this.series.add(this.lastQuarter, this.rows, this.revenueEnd, this.revenueEnd - this.revenueBefore,
+                        this.harvested, this.planted, this.utilization, this.cropSums);
+            }
+            this.rows = 0;
+            this.harvested = 0;
+            this.planted = 0;
+            this.utilization = 0;
+            Arrays.fill(this.cropSums, 0);
+        }
+
+        private long pointOf(int quarter) {
+            return Math.floorDiv((long) quarter - this.fromQuarter, this.width);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package model;
+
+import java.util.*;
+
+/*
+ * Represents the result of a query on a MetricsHistory: a series of points, oldest first, each covering one or more
+ * recorded quarters. Flows (revenue earned, harvested area) are summed over the quarters a point covers, levels
+ * (planted area, utilization, the area of each crop asked for) are averaged over them, and the cumulative revenue is
+ * the one at the end of the point. The points are stored as columns.
+ */
+public class MetricsSeries {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] quarters; // the last quarter covered by each point
+    private int[] rows; // the number of recorded quarters each point covers
+    private long[] revenue;
+    private long[] revenueEarned;
+    private long[] harvestedArea;
+    private double[] plantedArea;
+    private double[] utilization;
+    private Map<String, double[]> cropArea; // the average area of each crop asked for
+
+    /*
+     * EFFECTS: constructs an empty series with a column for the area of each of
+     * the given crops
+     */
+    MetricsSeries(String[] crops) {
+        this.quarters = new int[INITIAL_CAPACITY];
+        this.rows = new int[INITIAL_CAPACITY];
+        this.revenue = new long[INITIAL_CAPACITY];
+        this.revenueEarned = new long[INITIAL_CAPACITY];
+        this.harvestedArea = new long[INITIAL_CAPACITY];
+        this.plantedArea = new double[INITIAL_CAPACITY];
+        this.utilization = new double[INITIAL_CAPACITY];
+        this.cropArea = new LinkedHashMap<String, double[]>();
+        for (String crop : crops) {
+            this.cropArea.put(crop, new double[INITIAL_CAPACITY]);
+        }
+    }
+
+    /*
+     * REQUIRES: rows > 0, cropAreaSums holds a sum for each crop of this series
+     * MODIFIES: this
+     * EFFECTS: adds a point covering rows recorded quarters up to quarter, given
+     * the sums of its columns
+     */
+    void add(int quarter, int rows, long revenue, long revenueEarned, long harvestedArea, long plantedAreaSum,
+            double utilizationSum, double[] cropAreaSums) {
+        if (this.size == this.quarters.length) {
+            this.grow();
+        }
+        int i = this.size++;
+        this.quarters[i] = quarter;
+        this.rows[i] = rows;
+        this.revenue[i] = revenue;
+        this.revenueEarned[i] = revenueEarned;
+        this.harvestedArea[i] = harvestedArea;
+        this.plantedArea[i] = (double) plantedAreaSum / rows;
+        this.utilization[i] = utilizationSum / rows;
+        int c = 0;
+        for (double[] column : this.cropArea.values()) {
+            column[i] = cropAreaSums[c++] / rows;
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getQuarter(int i) {
+        return this.quarters[this.check(i)];
+    }
+
+    public int getQuartersCovered(int i) {
+        return this.rows[this.check(i)];
+    }
+
+    public long getRevenue(int i) {
+        return this.revenue[this.check(i)];
+    }
+
+    public long getRevenueEarned(int i) {
+        return this.revenueEarned[this.check(i)];
+    }
+
+    public long getHarvestedArea(int i) {
+        return this.harvestedArea[this.check(i)];
+    }
+
+    public double getPlantedArea(int i) {
+        return this.plantedArea[this.check(i)];
+    }
+
+    public double getUtilization(int i) {
+        return this.utilization[this.check(i)];
+    }
+
+    /*
+     * EFFECTS: returns the average area of the named crop over point i, throws
+     * IllegalArgumentException if the crop was not asked for in the query and
+     * IndexOutOfBoundsException if there is no point i
+     */
+    public double getCropArea(String cropName, int i) throws IllegalArgumentException {
+        double[] column = this.cropArea.get(cropName);
+        if (column == null) {
+            throw new IllegalArgumentException("Crop not queried: " + cropName);
+        }
+        return column[this.check(i)];
+    }
+
+    /*
+     * EFFECTS: returns i, throws IndexOutOfBoundsException if there is no point i
+     */
+    private int check(int i) {
+        if (i < 0 || i >= this.size) {
+            throw new IndexOutOfBoundsException("No point " + i + " in a series of " + this.size);
+        }
+        return i;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: doubles the room for points
+     */
+    private void grow() {
+        int capacity = this.quarters.length * 2;
+        this.quarters = Arrays.copyOf(this.quarters, capacity);
+        this.rows = Arrays.copyOf(this.rows, capacity);
+        this.revenue = Arrays.copyOf(this.revenue, capacity);
+        this.revenueEarned = Arrays.copyOf(this.revenueEarned, capacity);
+        this.harvestedArea = Arrays.copyOf(this.harvestedArea, capacity);
+        this.plantedArea = Arrays.copyOf(this.plantedArea, capacity);
+        this.utilization = Arrays.copyOf(this.utilization, capacity);
+        for (Map.Entry<String, double[]> entry : this.cropArea.entrySet()) {
+            entry.setValue(Arrays.copyOf(entry.getValue(), capacity));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package model;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Represents a plot store that keeps one PlantedCrop object per planting. The PlantedCrop objects follow the clock of
+ * their farm, and harvested ones are left as null in the list until the list is next read or at least half of it
+ * is harvested.
+ */
+class ObjectPlotStore extends PlotStore {
+    private Farm farm; // the farm whose crops are stored
+    private ArrayList<PlantedCrop> crops; // a list of planted crops, harvested ones are null until compacted
+    private int harvestedSlots; // the number of null (harvested) entries in crops
+    private ArrayList<ArrayList<PlantedCrop>> ripeningWheel; // planted crops bucketed by ripening quarter
+
+    /*
+     * EFFECTS: constructs an empty store for the crops of farm
+     */
+    ObjectPlotStore(Farm farm) {
+        this.farm = farm;
+        this.crops = new ArrayList<PlantedCrop>();
+        this.harvestedSlots = 0;
+        this.ripeningWheel = new ArrayList<ArrayList<PlantedCrop>>(WHEEL_SIZE);
+
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.ripeningWheel.add(new ArrayList<PlantedCrop>());
+        }
+    }
+
+    @Override
+    void plant(Crop crop, int plantArea, int ripeningQuarter) {
+        this.add(new PlantedCrop(crop, plantArea), ripeningQuarter);
+    }
+
+    @Override
+    void add(PlantedCrop plantedCrop, int ripeningQuarter) {
+        plantedCrop.plantOn(this.farm, this.crops.size(), ripeningQuarter);
+        this.crops.add(plantedCrop);
+        this.bucketOf(ripeningQuarter).add(plantedCrop);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: harvests the crops filed under the given quarters, leaving a null
+     * in their slots instead of shifting the list; compacts the list once at
+     * least half of it is harvested
+     */
+    @Override
+    Harvest harvest(int firstQuarter, int lastQuarter) {
+        Harvest harvest = new Harvest();
+
+        for (int q = firstQuarter; q <= lastQuarter; q++) {
+            ArrayList<PlantedCrop> bucket = this.bucketOf(q);
+            if (this.harvestsInParallel(bucket.size())) {
+                harvest.addAll(ForkJoinPool.commonPool()
+                        .invoke(new HarvestTask(bucket, 0, bucket.size(), this.chunkSize(bucket.size()))));
+            } else {
+                this.harvestCrops(bucket, 0, bucket.size(), harvest);
+            }
+            this.harvestedSlots += bucket.size();
+            bucket.clear();
+        }
+
+        if (this.harvestedSlots > 0 && this.harvestedSlots * 2 >= this.crops.size()) {
+            this.compact();
+        }
+        return harvest;
+    }
+
+    /*
+     * MODIFIES: this, harvest
+     * EFFECTS: harvests the crops in bucket[from..to) into harvest, leaving a null
+     * in their slots
+     */
+    private void harvestCrops(List<PlantedCrop> bucket, int from, int to, Harvest harvest) {
+        for (int i = from; i < to; i++) {
+            PlantedCrop p = bucket.get(i);
+            harvest.add(p.getName(), p.getPlantedArea(), p.plantedRevenue());
+            this.crops.set(p.getSlot(), null);
+            p.uproot();
+        }
+    }
+
+    /*
+     * Represents the harvest of a range of a ripening wheel bucket, split in
+     * halves until a range fits in one chunk
+     */
+    private class HarvestTask extends RecursiveTask<Harvest> {
+        private final List<PlantedCrop> bucket; // the crops of the bucket
+        private final int from; // the first index of the range
+        private final int to; // the index after the last one of the range
+        private final int chunkSize; // the largest range harvested without splitting
+
+        HarvestTask(List<PlantedCrop> bucket, int from, int to, int chunkSize) {
+            this.bucket = bucket;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Harvest compute() {
+            if (this.to - this.from <= this.chunkSize) {
+                Harvest harvest = new Harvest();
+                harvestCrops(this.bucket, this.from, this.to, harvest);
+                return harvest;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            HarvestTask left = new HarvestTask(this.bucket, this.from, middle, this.chunkSize);
+            HarvestTask right = new HarvestTask(this.bucket, middle, this.to, this.chunkSize);
+            left.fork();
+            Harvest rightHarvest = right.compute();
+            Harvest harvest = left.join();
+            harvest.addAll(rightHarvest);
+            return harvest;
+        }
+    }
+
+    @Override
+    List<PlantedCrop> plantedCrops(int quarter) {
+        this.compact();
+        return Collections.unmodifiableList(this.crops);
+    }
+
+    @Override
+    void forEachPlanting(int quarter, PlantingVisitor visitor) throws IOException {
+        for (PlantedCrop p : this.plantedCrops(quarter)) {
+            visitor.visit(p, p.getTimeGrown(), p.getPlantedArea());
+        }
+    }
+
+    @Override
+    PlotStore snapshot(int quarter) {
+        ArrayPlotStore snapshot = new ArrayPlotStore();
+        snapshot.setParallelThreshold(this.getParallelThreshold());
+
+        for (PlantedCrop p : this.plantedCrops(quarter)) {
+            snapshot.plant(p, p.getPlantedArea(), quarter + p.getTimeRequired() - p.getTimeGrown());
+        }
+
+        return snapshot;
+    }
+
+    @Override
+    List<PlantedCrop> ripeningIn(int ripeningQuarter, int quarter) {
+        return new ArrayList<PlantedCrop>(this.bucketOf(ripeningQuarter));
+    }
+
+    @Override
+    int size() {
+        return this.crops.size() - this.harvestedSlots;
+    }
+
+    @Override
+    void clear() {
+        for (PlantedCrop p : this.crops) {
+            if (p != null) {
+                p.uproot();
+            }
+        }
+        this.crops = new ArrayList<PlantedCrop>();
+        this.harvestedSlots = 0;
+
+        for (ArrayList<PlantedCrop> bucket : this.ripeningWheel) {
+            bucket.clear();
+        }
+    }
+
+    /*
+     * EFFECTS: returns the ripening wheel bucket of the given quarter
+     */
+    private ArrayList<PlantedCrop> bucketOf(int quarter) {
+        return this.ripeningWheel.get(quarter & (WHEEL_SIZE - 1));
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes the null slots left in this.crops by harvests in a single
+     * pass, keeping the planting order, and renumbers the slots of the remaining
+     * crops
+     */
+    private void compact() {
+        if (this.harvestedSlots == 0) {
+            return;
+        }
+        int next = 0;
+
+        for (int i = 0; i < this.crops.size(); i++) {
+            PlantedCrop p = this.crops.get(i);
+            if (p != null) {
+                p.setSlot(next);
+                this.crops.set(next, p);
+                next++;
+            }
+        }
+
+        this.crops.subList(next, this.crops.size()).clear();
+        this.harvestedSlots = 0;
+    }
+}
@@ -1,14 +1,20 @@
 package model;
 
+import java.io.IOException;
 import org.json.JSONObject;
+import persistence.JsonTokenWriter;
 
 /*
  * Represents a planted crop with corresponding name, revenue, seeds, and timeRequired. On top of that, timeGrown and
- * plantedArea are recorded.
+ * plantedArea are recorded. While the crop is planted on a farm, its timeGrown follows the farm's clock. The crop
+ * type is shared with the crop it was planted from.
  */
 public class PlantedCrop extends Crop {
-    private int timeGrown; // the time that the crop has grown
+    private int timeGrown; // the time that the crop has grown (while not planted on a farm)
     private int plantedArea; // the planted area of the crop
+    private Farm farm; // the farm this crop is planted on, null if none
+    private int slot; // the index of this crop in the planted crops of the farm
+    private int ripeningQuarter; // the farm quarter in which this crop ripens
 
     /*
      * REQUIRES: plantedArea >= 0
@@ -16,16 +22,29 @@ public class PlantedCrop extends Crop {
      * plantedArea, timeGrown is set to 0
      */
     public PlantedCrop(Crop crop, int plantedArea) {
-        super(crop.name, crop.revenue, crop.seeds, crop.timeRequired);
+        this(crop.type, crop.seeds, plantedArea);
+    }
+
+    /*
+     * REQUIRES: seeds >= 0, plantedArea >= 0
+     * EFFECTS: crop type and seeds are set to given type and seeds, plantedArea is
+     * set to given plantedArea, timeGrown is set to 0
+     */
+    public PlantedCrop(CropType type, int seeds, int plantedArea) {
+        super(type, seeds);
         this.plantedArea = plantedArea;
         this.timeGrown = 0;
     }
 
     /*
      * MODIFIES: this
-     * EFFECTS: increments this.timeGrown
+     * EFFECTS: increments this.timeGrown, throws IllegalStateException if the crop
+     * is ripe or is planted on a farm (its growth then follows the farm)
      */
     public void grow() throws IllegalStateException {
+        if (this.farm != null) {
+            throw new IllegalStateException("Cannot grow a crop planted on a farm");
+        }
         if (this.isRipe()) {
             throw new IllegalStateException("Cannot grow a ripe crop");
         }
@@ -38,18 +57,49 @@ public class PlantedCrop extends Crop {
      * false
      */
     public Boolean isRipe() {
-        return this.timeGrown == this.timeRequired;
+        return this.getTimeGrown() == this.type.getTimeRequired();
+    }
+
+    /*
+     * REQUIRES: this is not planted on any farm
+     * MODIFIES: this
+     * EFFECTS: plants this on farm at the given slot, to ripen in ripeningQuarter
+     */
+    void plantOn(Farm farm, int slot, int ripeningQuarter) {
+        this.farm = farm;
+        this.slot = slot;
+        this.ripeningQuarter = ripeningQuarter;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: takes this off its farm, keeping the time it has grown so far
+     */
+    void uproot() {
+        this.timeGrown = this.getTimeGrown();
+        this.farm = null;
+    }
+
+    int getSlot() {
+        return this.slot;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
     }
 
     /*
      * EFFECTS: returns the revenue for this planted crop instance
      */
     public int plantedRevenue() {
-        return this.plantedArea * this.revenue;
+        return this.plantedArea * this.type.getRevenue();
     }
 
     public int getTimeGrown() {
-        return this.timeGrown;
+        if (this.farm == null) {
+            return this.timeGrown;
+        }
+        return this.type.getTimeRequired() - (this.ripeningQuarter - this.farm.getQuarter());
     }
 
     public int getPlantedArea() {
@@ -59,20 +109,45 @@ public class PlantedCrop extends Crop {
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("name", name);
-        json.put("revenue", revenue);
+        json.put("name", getName());
+        json.put("revenue", getRevenue());
         json.put("seeds", seeds);
-        json.put("timeRequired", timeRequired);
-        json.put("timeGrown", timeGrown);
+        json.put("timeRequired", getTimeRequired());
+        json.put("timeGrown", getTimeGrown());
         json.put("plantedArea", plantedArea);
         return json;
     }
 
+    @Override
+    public void writeJson(JsonTokenWriter json) throws IOException {
+        writeJson(json, this, getTimeGrown(), plantedArea);
+    }
+
+    /*
+     * MODIFIES: json
+     * EFFECTS: writes a planting of plantedArea sq km of crop that has grown for
+     * timeGrown as a JSON object to json, in the same form as toJson
+     */
+    static void writeJson(JsonTokenWriter json, Crop crop, int timeGrown, int plantedArea) throws IOException {
+        json.beginObject();
+        json.name("name").value(crop.getName());
+        json.name("revenue").value(crop.getRevenue());
+        json.name("seeds").value(crop.getSeeds());
+        json.name("timeRequired").value(crop.getTimeRequired());
+        json.name("timeGrown").value(timeGrown);
+        json.name("plantedArea").value(plantedArea);
+        json.endObject();
+    }
+
     /*
      * MODIFIES: this
-     * EFFECTS: sets this.timeGrown to given timeGrown
+     * EFFECTS: sets this.timeGrown to given timeGrown, throws
+     * IllegalStateException if the crop is planted on a farm
      */
-    public void setTimeGrown(int timeGrown) {
+    public void setTimeGrown(int timeGrown) throws IllegalStateException {
+        if (this.farm != null) {
+            throw new IllegalStateException("Cannot set the growth of a crop planted on a farm");
+        }
         this.timeGrown = timeGrown;
     }
 
@@ -80,15 +155,15 @@ public class PlantedCrop extends Crop {
      * EFFECTS: returns string representation of this plantedCrop
      */
     public String toString() {
-        return this.name + ": " + this.revenue + ": " + this.seeds + ": " + this.timeRequired + ": " + this.plantedArea
-                + ": " + this.timeGrown;
+        return this.getName() + ": " + this.getRevenue() + ": " + this.seeds + ": " + this.getTimeRequired() + ": "
+                + this.plantedArea + ": " + this.getTimeGrown();
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + timeGrown;
+        result = prime * result + getTimeGrown();
         result = prime * result + plantedArea;
         return result;
     }
@@ -105,7 +180,7 @@ public class PlantedCrop extends Crop {
             return false;
         }
         PlantedCrop other = (PlantedCrop) obj;
-        if (timeGrown != other.timeGrown) {
+        if (getTimeGrown() != other.getTimeGrown()) {
             return false;
         }
         if (plantedArea != other.plantedArea) {
@@ -0,0 +1,17 @@
+package model;
+
+import java.io.IOException;
+
+/*
+ * Represents a callback that is given the plantings of a farm one at a time, without a PlantedCrop object having to
+ * exist for each of them
+ */
+@FunctionalInterface
+public interface PlantingVisitor {
+    /*
+     * EFFECTS: visits a planting of plantedArea sq km of crop that has grown for
+     * timeGrown quarters; crop may be shared between plantings and must not be
+     * kept or modified
+     */
+    void visit(Crop crop, int timeGrown, int plantedArea) throws IOException;
+}
@@ -0,0 +1,166 @@
+package model;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Represents the storage of the crops planted on a farm. Every planting is filed under the farm quarter in which it
+ * ripens, so that a harvest only visits the plantings that ripen. A quarter with at least parallelThreshold ripening
+ * plantings is harvested in chunks on the common ForkJoinPool, and the chunk results are merged in planting order.
+ */
+abstract class PlotStore {
+    static final int WHEEL_SIZE = 8; // a power of two greater than the longest growing time
+    static final int CHUNKS_PER_WORKER = 4; // the number of chunks a parallel harvest aims to give each worker
+
+    private int parallelThreshold = Integer.MAX_VALUE; // the bucket size from which harvests run in parallel
+
+    /*
+     * REQUIRES: parallelThreshold > 0
+     * MODIFIES: this
+     * EFFECTS: sets the number of plantings ripening in one quarter from which
+     * that quarter is harvested in parallel
+     */
+    void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    int getParallelThreshold() {
+        return this.parallelThreshold;
+    }
+
+    /*
+     * EFFECTS: returns true if a bucket of bucketSize plantings should be
+     * harvested in parallel
+     */
+    boolean harvestsInParallel(int bucketSize) {
+        return bucketSize >= this.parallelThreshold;
+    }
+
+    /*
+     * EFFECTS: returns the number of plantings each chunk of a parallel harvest
+     * of bucketSize plantings covers, at least parallelThreshold / 2 so that
+     * chunks stay worth a task
+     */
+    int chunkSize(int bucketSize) {
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_WORKER;
+        return Math.max(Math.max(1, this.parallelThreshold / 2), bucketSize / chunks);
+    }
+
+    /*
+     * REQUIRES: plantArea > 0, ripeningQuarter >= the current quarter of the farm
+     * MODIFIES: this
+     * EFFECTS: stores a new planting of plantArea sq km of crop that ripens in
+     * ripeningQuarter
+     */
+    abstract void plant(Crop crop, int plantArea, int ripeningQuarter);
+
+    /*
+     * MODIFIES: this, areaByCrop
+     * EFFECTS: stores the count plantings held in records as three ints each
+     * (the index in cropTable of the crop, the planted area and the time grown)
+     * as they are in the given quarter, and adds the area of each planting to
+     * areaByCrop at the index of its crop; throws IllegalArgumentException at
+     * the first record with an index out of range, a non-positive area or a
+     * time grown outside 0 to the time required of its crop, leaving the
+     * records before it stored
+     */
+    void plantRecords(Crop[] cropTable, IntBuffer records, int count, int quarter, long[] areaByCrop)
+            throws IllegalArgumentException {
+        for (int i = 0; i < count; i++) {
+            int index = checkIndex(records.get(3 * i), cropTable.length);
+            Crop crop = cropTable[index];
+            int plantArea = areaOf(records.get(3 * i + 1));
+            this.plant(crop, plantArea, ripeningQuarter(quarter, crop.getTimeRequired(), records.get(3 * i + 2)));
+            areaByCrop[index] += plantArea;
+        }
+    }
+
+    /*
+     * EFFECTS: returns index, throws IllegalArgumentException if it is not
+     * between 0 and size - 1
+     */
+    static int checkIndex(int index, int size) throws IllegalArgumentException {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Crop index out of range: " + index);
+        }
+        return index;
+    }
+
+    /*
+     * EFFECTS: returns plantArea, throws IllegalArgumentException if it is not
+     * positive
+     */
+    static int areaOf(int plantArea) throws IllegalArgumentException {
+        if (plantArea <= 0) {
+            throw new IllegalArgumentException("Planted area must be positive: " + plantArea);
+        }
+        return plantArea;
+    }
+
+    /*
+     * EFFECTS: returns the quarter in which a planting that takes timeRequired
+     * quarters to ripen and has grown for timeGrown quarters by the given
+     * quarter ripens, throws IllegalArgumentException if timeGrown is not
+     * between 0 and timeRequired, which would file it outside the ripening wheel
+     */
+    static int ripeningQuarter(int quarter, int timeRequired, int timeGrown) throws IllegalArgumentException {
+        if (timeGrown < 0 || timeGrown > timeRequired) {
+            throw new IllegalArgumentException("Time grown must be between 0 and " + timeRequired + ": " + timeGrown);
+        }
+        return quarter + timeRequired - timeGrown;
+    }
+
+    /*
+     * REQUIRES: plantedCrop is not planted on any farm, ripeningQuarter >= the
+     * current quarter of the farm
+     * MODIFIES: this
+     * EFFECTS: stores plantedCrop, to ripen in ripeningQuarter
+     */
+    abstract void add(PlantedCrop plantedCrop, int ripeningQuarter);
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes every planting filed under the quarters from firstQuarter
+     * to lastQuarter (inclusive) and returns what was harvested
+     */
+    abstract Harvest harvest(int firstQuarter, int lastQuarter);
+
+    /*
+     * EFFECTS: returns the stored plantings in planting order, as they are in
+     * the given quarter
+     */
+    abstract List<PlantedCrop> plantedCrops(int quarter);
+
+    /*
+     * EFFECTS: gives the stored plantings to visitor in planting order, as they
+     * are in the given quarter
+     */
+    abstract void forEachPlanting(int quarter, PlantingVisitor visitor) throws IOException;
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns an array store holding the plantings of this store as
+     * they are in the given quarter, which later changes to this store do not
+     * affect
+     */
+    abstract PlotStore snapshot(int quarter);
+
+    /*
+     * EFFECTS: returns the plantings that ripen in ripeningQuarter, as they are in
+     * the given quarter
+     */
+    abstract List<PlantedCrop> ripeningIn(int ripeningQuarter, int quarter);
+
+    /*
+     * EFFECTS: returns the number of stored plantings
+     */
+    abstract int size();
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: removes every planting
+     */
+    abstract void clear();
+}
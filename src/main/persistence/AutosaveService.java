@@ -0,0 +1,210 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Date;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import model.*;
+
+/*
+ * Represents a service that saves a farm as JSON in the background a short delay after it changes. A burst of
+ * changes within the delay leads to one save. The snapshot of the farm is taken on the thread that changes it (the
+ * farm thread, reached through the executor given at construction) and is written on the service's own thread,
+ * through a temporary file that replaces the destination once complete, so the farm thread never waits for a save.
+ * For a farm in ARRAYS storage the snapshot shares the planting arrays until either side changes them, so taking it
+ * costs little however large the farm; a farm in OBJECTS storage is copied whole.
+ */
+public class AutosaveService implements FarmListener, Closeable {
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private Path destination; // the file the farm is saved to
+    private long delayMillis; // the time waited after a change before saving
+    private Executor farmThread; // runs tasks on the thread that changes the farm
+    private ScheduledExecutorService saver; // the thread that schedules and writes the saves
+    private Farm farm; // the farm that is saved, null if none
+    private boolean scheduled; // whether a snapshot is scheduled, only used on the farm thread
+    private boolean dirty; // whether the farm changed since the last snapshot, only used on the farm thread
+    private AtomicReference<Farm> latest; // the latest snapshot not written yet, null if none
+    private volatile Date lastSaveTime; // when the latest successful save finished, null if none yet
+    private volatile IOException lastError; // the error of the latest save, null if it succeeded
+    private volatile Runnable saveCallback; // run on the saver thread after every save attempt
+
+    /*
+     * REQUIRES: delayMillis >= 0
+     * EFFECTS: constructs a service that saves to destination delayMillis after
+     * the farm changes, taking snapshots through farmThread
+     */
+    public AutosaveService(String destination, long delayMillis, Executor farmThread) {
+        this.destination = Paths.get(destination);
+        this.delayMillis = delayMillis;
+        this.farmThread = farmThread;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "farm-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.saver = executor;
+        this.latest = new AtomicReference<Farm>();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: saves farm from now on instead of the farm saved so far (none if
+     * null); must be called on the farm thread
+     */
+    public void watch(Farm farm) {
+        if (this.farm != null) {
+            this.farm.removeListener(this);
+        }
+        this.farm = farm;
+        this.dirty = false;
+        if (farm != null) {
+            farm.addListener(this);
+        }
+    }
+
+    public Date getLastSaveTime() {
+        return lastSaveTime;
+    }
+
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: sets the callback run on the service's thread after every save
+     * attempt
+     */
+    public void setSaveCallback(Runnable saveCallback) {
+        this.saveCallback = saveCallback;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: stops watching the farm, saves it one last time if it changed
+     * since the last snapshot and waits for the pending saves to finish; must be
+     * called on the farm thread
+     */
+    @Override
+    public void close() throws IOException {
+        if (dirty) {
+            takeSnapshot();
+        }
+        watch(null);
+        saver.shutdown();
+        try {
+            if (!saver.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IOException("Timed out waiting for the autosave to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the autosave to finish", e);
+        }
+        if (lastError != null) {
+            throw lastError;
+        }
+    }
+
+    @Override
+    public void planted(Crop crop, int seedsBefore, int plantArea) {
+        changed();
+    }
+
+    @Override
+    public void timeAdvanced(int quarters) {
+        changed();
+    }
+
+    @Override
+    public void harvested() {
+        changed();
+    }
+
+    @Override
+    public void seedsAdded(Crop crop, int amount) {
+        changed();
+    }
+
+    @Override
+    public void plantableCropAdded(Crop crop) {
+        changed();
+    }
+
+    @Override
+    public void farmReset() {
+        changed();
+    }
+
+    @Override
+    public void areaSet(int area) {
+        changed();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: marks the farm as changed and, unless a snapshot is already
+     * scheduled, schedules one delayMillis from now on the farm thread
+     */
+    private void changed() {
+        dirty = true;
+        if (!scheduled) {
+            scheduled = true;
+            saver.schedule(() -> farmThread.execute(this::takeSnapshot), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: on the farm thread, snapshots the farm and hands the snapshot to
+     * the saver thread, replacing a snapshot that is still waiting to be written
+     */
+    private void takeSnapshot() {
+        scheduled = false;
+        if (farm == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        latest.set(farm.snapshot());
+        try {
+            saver.execute(this::writeLatest);
+        } catch (RejectedExecutionException e) {
+            // closed: close() wrote the final snapshot itself or nothing is left to save
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: on the saver thread, writes the latest snapshot (if any) to a
+     * temporary file and moves it over the destination
+     */
+    private void writeLatest() {
+        Farm snapshot = latest.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        Path temporary = destination.resolveSibling(destination.getFileName() + ".tmp");
+        try {
+            JsonWriter writer = new JsonWriter(temporary.toString(), false);
+            writer.open();
+            try {
+                writer.write(snapshot);
+            } finally {
+                writer.close();
+            }
+            Files.move(temporary, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSaveTime = new Date();
+            lastError = null;
+        } catch (IOException e) {
+            lastError = e;
+        }
+        Runnable callback = saveCallback;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+}
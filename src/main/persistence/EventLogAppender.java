@@ -0,0 +1,332 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.*;
+
+/*
+ * Represents an appender that writes the EventLog to a rolling file on a background thread. Logged events reach it as
+ * a sink of the log, which only offers them to a bounded queue; the appender's thread takes them off in batches,
+ * encodes them into a reusable direct buffer and writes the buffer to the file when it fills or when the flush
+ * interval has passed since the last write. Once the file reaches its maximum size it is renamed to file.1 (file.1 to
+ * file.2 and so on, keeping at most the given number of old files) and a new file is started. Each event is one line:
+ * the time it was logged (ISO-8601, UTC), a tab, and its description with backslashes and line breaks escaped, in
+ * UTF-8 with '?' in place of any unpaired surrogate.
+ * Logging never waits for the appender: events that arrive while the queue is full are dropped, and a line saying how
+ * many were dropped is written in their place.
+ */
+public class EventLogAppender implements EventSink, Closeable {
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final int BATCH_SIZE = 1024;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long CLOSE_TIMEOUT_MILLIS = 30000;
+    private static final Event WAKE_UP = new Event(""); // queued by close to wake the writer thread, never written
+
+    private Path file; // the file being written
+    private long maxFileBytes; // the size at which the file is rotated
+    private int maxBackups; // the most rotated files kept
+    private long flushMillis; // the longest time an event waits in the buffer
+    private BlockingQueue<Event> queue; // events handed over by the log, not yet encoded
+    private AtomicLong dropped; // events dropped because the queue was full
+    private Thread writer; // the thread that encodes and writes the events
+    private volatile boolean closing; // whether close has been called
+    private volatile IOException lastError; // the error that stopped the writing, null if none
+
+    // only used on the writer thread
+    private FileChannel channel;
+    private long fileBytes; // the size of the file
+    private ByteBuffer buffer;
+    private CharsetEncoder encoder;
+    private StringBuilder line;
+    private long lastFlush; // when the buffer was last written or found empty
+    private long reportedDropped; // the dropped events already reported in the file
+
+    /*
+     * REQUIRES: maxFileBytes > 0, maxBackups >= 0, flushMillis > 0
+     * EFFECTS: constructs an appender that writes to file, rotating it at
+     * maxFileBytes, keeping maxBackups rotated files and writing buffered events
+     * at least every flushMillis; call start to begin
+     */
+    public EventLogAppender(String file, long maxFileBytes, int maxBackups, long flushMillis) {
+        this.file = Paths.get(file);
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = maxBackups;
+        this.flushMillis = flushMillis;
+        this.queue = new ArrayBlockingQueue<Event>(QUEUE_CAPACITY);
+        this.dropped = new AtomicLong();
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.line = new StringBuilder();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: opens the file for appending, starts the writer thread and
+     * registers this as a sink of the EventLog, throws IOException if the file
+     * cannot be opened
+     */
+    public void start() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileBytes = channel.size();
+        lastFlush = System.currentTimeMillis();
+        writer = new Thread(this::run, "event-log-appender");
+        writer.setDaemon(true);
+        writer.start();
+        EventLog.getInstance().addSink(this);
+    }
+
+    /*
+     * EFFECTS: offers event to the queue of events to write, counting it as
+     * dropped if the queue is full
+     */
+    @Override
+    public void append(Event event) {
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: stops taking events from the EventLog, writes every event logged
+     * so far and closes the file; throws IOException if writing failed at any
+     * point or did not finish in time
+     */
+    @Override
+    public void close() throws IOException {
+        EventLog.getInstance().flush();
+        EventLog.getInstance().removeSink(this);
+        closing = true;
+        queue.offer(WAKE_UP);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the event log to be written", e);
+        }
+        if (writer.isAlive()) {
+            throw new IOException("Timed out waiting for the event log to be written");
+        }
+        if (lastError != null) {
+            throw lastError;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: runs the writer thread: encodes the queued events as they arrive
+     * and, once per flush interval, pulls the events still queued in the
+     * EventLog and writes the buffer, until closed; records the first error and
+     * stops writing
+     */
+    private void run() {
+        List<Event> batch = new ArrayList<Event>(BATCH_SIZE);
+        try {
+            while (!closing) {
+                long wait = Math.max(1, flushMillis - (System.currentTimeMillis() - lastFlush));
+                Event first = null;
+                try {
+                    first = queue.poll(wait, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    closing = true;
+                }
+                if (first != null) {
+                    encode(first);
+                }
+                writeBatches(batch);
+                if (System.currentTimeMillis() - lastFlush >= flushMillis) {
+                    EventLog.getInstance().flush();
+                    writeBatches(batch);
+                    writeBuffer();
+                }
+            }
+            writeBatches(batch);
+            writeBuffer();
+        } catch (IOException e) {
+            lastError = e;
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (lastError == null) {
+                    lastError = e;
+                }
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: encodes the queued events, BATCH_SIZE at a time, until the queue
+     * is empty, noting the events dropped on the way
+     */
+    private void writeBatches(List<Event> batch) throws IOException {
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            reportDropped();
+            for (Event event : batch) {
+                encode(event);
+            }
+            batch.clear();
+        }
+        reportDropped();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: encodes a line saying how many events were dropped since the last
+     * such line, if any were
+     */
+    private void reportDropped() throws IOException {
+        long total = dropped.get();
+        if (total > reportedDropped) {
+            encode(new Event("Event log appender dropped " + (total - reportedDropped) + " events"));
+            reportedDropped = total;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: encodes event as one line into the buffer, writing the buffer to
+     * the file whenever it fills; rotates the file first if the line would take
+     * it past its maximum size, so lines are never split across files
+     */
+    private void encode(Event event) throws IOException {
+        if (event == WAKE_UP) {
+            return;
+        }
+        long nanos = event.getEpochNanos();
+        line.setLength(0);
+        line.append(Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L)));
+        line.append('\t');
+        String description = event.getDescription();
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (c == '\\') {
+                line.append("\\\\");
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else if (c == '\r') {
+                line.append("\\r");
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('\n');
+
+        long pending = fileBytes + buffer.position();
+        if (pending > 0 && pending + utf8Length(line) > maxFileBytes) {
+            writeBuffer();
+            rotate();
+        }
+        CharBuffer chars = CharBuffer.wrap(line);
+        encoder.reset();
+        CoderResult result = encoder.encode(chars, buffer, true);
+        while (result.isOverflow()) {
+            writeBuffer();
+            result = encoder.encode(chars, buffer, true);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        encoder.flush(buffer);
+    }
+
+    /*
+     * EFFECTS: returns the number of bytes chars takes in UTF-8, counting an
+     * unpaired surrogate as the one-byte replacement the encoder writes for it
+     */
+    static int utf8Length(CharSequence chars) {
+        int bytes = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars.length()
+                    && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the buffered bytes to the file; a full buffer is written
+     * at once, which is the size half of the flush policy
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileBytes += channel.write(buffer);
+        }
+        buffer.clear();
+        lastFlush = System.currentTimeMillis();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: closes the file, shifts the rotated files up by one (dropping the
+     * oldest), renames the file to file.1 and opens a new file
+     */
+    private void rotate() throws IOException {
+        channel.close();
+        if (maxBackups == 0) {
+            Files.delete(file);
+        } else {
+            Files.deleteIfExists(backup(maxBackups));
+            for (int i = maxBackups - 1; i >= 1; i--) {
+                if (Files.exists(backup(i))) {
+                    Files.move(backup(i), backup(i + 1));
+                }
+            }
+            Files.move(file, backup(1));
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileBytes = 0;
+    }
+
+    /*
+     * EFFECTS: returns the path of the index-th rotated file
+     */
+    private Path backup(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,544 @@
+package persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+import exception.*;
+import model.*;
+
+/*
+ * Represents a journaled save of a farm in a directory. A base snapshot (base-G.farm, see SnapshotFormat) holds the
+ * whole farm, and journal files (journal-G.log, journal-G+1.log, ...) hold the mutations made since, so that a save
+ * only appends the mutations made since the previous save. Loading reads the latest base snapshot and replays the
+ * journals after it.
+ *
+ * Once the journals after the base snapshot outgrow it, the journal is rolled over to a new generation and a
+ * background thread compacts the older ones: it replays them onto a private copy of the farm, writes that as the
+ * next base snapshot and only then deletes what it replaced, so a crash at any point leaves a loadable save.
+ *
+ * Each save appends one batch to the current journal: its length and CRC32 (ints), then its records, each an opcode
+ * byte followed by its fields. A batch that was cut short by a crash is dropped when the journal is loaded.
+ */
+public class FarmJournal implements FarmListener, Closeable {
+    private static final int MIN_COMPACTION_BYTES = 64 * 1024;
+    private static final String BASE_PREFIX = "base-";
+    private static final String BASE_SUFFIX = ".farm";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private static final byte PLANT = 1;
+    private static final byte ADVANCE = 2;
+    private static final byte HARVEST = 3;
+    private static final byte ADD_SEEDS = 4;
+    private static final byte ADD_PLANTABLE_CROP = 5;
+    private static final byte RESET = 6;
+    private static final byte SET_AREA = 7;
+
+    private Path directory; // the directory holding the snapshots and journals
+    private Farm farm; // the farm whose mutations are journaled, null until it is loaded or saved
+    private int generation; // the generation of the journal that saves append to
+    private volatile int baseGeneration; // the generation of the latest base snapshot
+    private volatile long baseBytes; // the size of the latest base snapshot
+    private long journalBytes; // the bytes appended to journals since the latest compaction started
+    private ByteArrayOutputStream pendingBytes; // the records of the mutations not saved yet
+    private DataOutputStream pending; // the stream writing into pendingBytes
+    private ExecutorService compactor; // the thread running the compactions
+    private Future<?> compaction; // the latest compaction, null if none was started
+
+    /*
+     * EFFECTS: constructs a journal that saves into directory
+     */
+    public FarmJournal(String directory) {
+        this.directory = Paths.get(directory);
+        this.pendingBytes = new ByteArrayOutputStream();
+        this.pending = new DataOutputStream(this.pendingBytes);
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "farm-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*
+     * EFFECTS: returns true if a farm was saved in the directory
+     */
+    public boolean exists() throws IOException {
+        return latestBase() >= 0;
+    }
+
+    /*
+     * EFFECTS: returns when the saved farm was last written to, in milliseconds
+     * since the epoch, or -1 if no farm was saved
+     */
+    public long lastModified() throws IOException {
+        long latest = -1;
+        for (int g : generations(BASE_PREFIX, BASE_SUFFIX)) {
+            latest = Math.max(latest, Files.getLastModifiedTime(basePath(g)).toMillis());
+        }
+        for (int g : generations(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+            latest = Math.max(latest, Files.getLastModifiedTime(journalPath(g)).toMillis());
+        }
+        return latest;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: reads the latest base snapshot, replays the journals after it and
+     * returns the farm, whose mutations are journaled from now on; throws
+     * IOException if no farm was saved or an error occurs reading the files
+     */
+    public Farm load() throws IOException {
+        return load(Farm.Storage.OBJECTS);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: as load(), with the farm kept in the given storage
+     */
+    public Farm load(Farm.Storage storage) throws IOException {
+        awaitCompaction();
+        int base = latestBase();
+        if (base < 0) {
+            throw new IOException("No saved farm in " + directory);
+        }
+        Farm loaded = new SnapshotReader(basePath(base).toString(), storage).read();
+        int last = base;
+        long bytes = 0;
+        EventLog.setMuted(true);
+        try {
+            for (int g : journalGenerations(base)) {
+                bytes += replay(loaded, journalPath(g), true);
+                last = g;
+            }
+        } finally {
+            EventLog.setMuted(false);
+        }
+
+        attach(loaded);
+        generation = last;
+        baseGeneration = base;
+        baseBytes = Files.size(basePath(base));
+        journalBytes = bytes;
+        return loaded;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: saves farm: if it is the farm this journal follows, appends the
+     * mutations made since the previous save (and starts a compaction in the
+     * background if the journals have outgrown the base snapshot), otherwise
+     * writes it as a new base snapshot and follows it from now on; throws
+     * IOException if an error occurs writing the files
+     */
+    public void save(Farm farm) throws IOException {
+        if (farm != this.farm) {
+            rebase(farm);
+            return;
+        }
+        if (pendingBytes.size() == 0) {
+            return;
+        }
+        byte[] records = pendingBytes.toByteArray();
+        CRC32 checksum = new CRC32();
+        checksum.update(records);
+        ByteBuffer batch = ByteBuffer.allocate(8 + records.length);
+        batch.putInt(records.length).putInt((int) checksum.getValue()).put(records).flip();
+
+        try (FileChannel channel = FileChannel.open(journalPath(generation), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+        }
+        pendingBytes.reset();
+        journalBytes += 8 + records.length;
+        compactIfOutgrown();
+    }
+
+    /*
+     * EFFECTS: waits for the running compaction, if any, to finish, throws
+     * IOException if it failed
+     */
+    public void awaitCompaction() throws IOException {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal compaction");
+        } catch (ExecutionException e) {
+            throw new IOException("Journal compaction failed", e.getCause());
+        } finally {
+            compaction = null;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: stops following the farm and waits for the running compaction, if
+     * any; unsaved mutations are dropped
+     */
+    @Override
+    public void close() throws IOException {
+        attach(null);
+        try {
+            awaitCompaction();
+        } finally {
+            compactor.shutdown();
+        }
+    }
+
+    @Override
+    public void planted(Crop crop, int seedsBefore, int plantArea) {
+        record(PLANT);
+        recordUtf(crop.getName());
+        recordInt(crop.getRevenue());
+        recordInt(crop.getTimeRequired());
+        recordInt(seedsBefore);
+        recordInt(plantArea);
+    }
+
+    @Override
+    public void timeAdvanced(int quarters) {
+        record(ADVANCE);
+        recordInt(quarters);
+    }
+
+    @Override
+    public void harvested() {
+        record(HARVEST);
+    }
+
+    @Override
+    public void seedsAdded(Crop crop, int amount) {
+        record(ADD_SEEDS);
+        recordUtf(crop.getName());
+        recordInt(amount);
+    }
+
+    @Override
+    public void plantableCropAdded(Crop crop) {
+        record(ADD_PLANTABLE_CROP);
+        recordUtf(crop.getName());
+        recordInt(crop.getRevenue());
+        recordInt(crop.getSeeds());
+        recordInt(crop.getTimeRequired());
+    }
+
+    @Override
+    public void farmReset() {
+        record(RESET);
+    }
+
+    @Override
+    public void areaSet(int area) {
+        record(SET_AREA);
+        recordInt(area);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes farm as the base snapshot of a new generation, deletes the
+     * older files and follows farm from now on
+     */
+    private void rebase(Farm farm) throws IOException {
+        awaitCompaction();
+        Files.createDirectories(directory);
+        int next = Math.max(generation, latestBase()) + 1;
+        for (int g : generations(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+            next = Math.max(next, g + 1);
+        }
+        writeBase(farm, next);
+        deleteBefore(next);
+        attach(farm);
+        generation = next;
+        baseGeneration = next;
+        baseBytes = Files.size(basePath(next));
+        journalBytes = 0;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: if no compaction is running and the journals written since the
+     * latest one started have outgrown the base snapshot, rolls the journal over
+     * to a new generation and compacts the older ones in the background
+     */
+    private void compactIfOutgrown() {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        if (journalBytes < Math.max(MIN_COMPACTION_BYTES, baseBytes)) {
+            return;
+        }
+        int base = baseGeneration;
+        int target = generation + 1;
+        generation = target;
+        journalBytes = 0;
+        compaction = compactor.submit(() -> {
+            compact(base, target);
+            return null;
+        });
+    }
+
+    /*
+     * EFFECTS: replays the journals from generation base up to (excluding)
+     * target onto the base snapshot of generation base, writes the result as the
+     * base snapshot of generation target and deletes the files it replaces; logs
+     * no events
+     */
+    private void compact(int base, int target) throws IOException {
+        EventLog.setMuted(true);
+        try {
+            Farm compacted = new SnapshotReader(basePath(base).toString()).read();
+            for (int g : journalGenerations(base)) {
+                if (g < target) {
+                    replay(compacted, journalPath(g), false);
+                }
+            }
+            writeBase(compacted, target);
+            baseBytes = Files.size(basePath(target));
+            baseGeneration = target;
+            deleteBefore(target);
+        } finally {
+            EventLog.setMuted(false);
+        }
+    }
+
+    /*
+     * EFFECTS: writes farm as the base snapshot of generation g, through a
+     * temporary file that is moved into place once complete
+     */
+    private void writeBase(Farm farm, int g) throws IOException {
+        Path temporary = directory.resolve(BASE_PREFIX + g + BASE_SUFFIX + ".tmp");
+        SnapshotWriter writer = new SnapshotWriter(temporary.toString());
+        writer.open();
+        try {
+            writer.write(farm);
+        } finally {
+            writer.close();
+        }
+        Files.move(temporary, basePath(g), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * MODIFIES: farm
+     * EFFECTS: applies the complete batches of the journal at path to farm and
+     * returns the number of bytes they take; a batch cut short or failing its
+     * checksum ends the journal, and is cut off the file if truncate
+     */
+    private long replay(Farm farm, Path path, boolean truncate) throws IOException {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] records;
+            while ((records = readBatch(in)) != null) {
+                DataInputStream recordsIn = new DataInputStream(new ByteArrayInputStream(records));
+                while (recordsIn.available() > 0) {
+                    apply(farm, recordsIn);
+                }
+                valid += 8 + records.length;
+            }
+        }
+        if (truncate && valid < Files.size(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return valid;
+    }
+
+    /*
+     * EFFECTS: reads the next batch of in and returns its records, or null if
+     * in has no complete batch with a matching checksum left
+     */
+    private static byte[] readBatch(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int expected = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] records = new byte[length];
+            in.readFully(records);
+            CRC32 checksum = new CRC32();
+            checksum.update(records);
+            return (int) checksum.getValue() == expected ? records : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /*
+     * MODIFIES: farm
+     * EFFECTS: reads the next record of in and applies it to farm, throws
+     * IOException if it cannot be applied
+     */
+    private static void apply(Farm farm, DataInputStream in) throws IOException {
+        byte opcode = in.readByte();
+        try {
+            if (opcode == PLANT) {
+                CropType type = CropType.of(in.readUTF(), in.readInt(), in.readInt());
+                int seedsBefore = in.readInt();
+                Crop crop = farm.getPlantableCrops().find(type.getName());
+                if (crop == null || crop.getType() != type || crop.getSeeds() != seedsBefore) {
+                    crop = new Crop(type, seedsBefore);
+                }
+                farm.plant(crop, in.readInt());
+            } else if (opcode == ADVANCE) {
+                int quarters = in.readInt();
+                if (quarters == 1) {
+                    farm.timeLapses();
+                } else {
+                    farm.advance(quarters);
+                }
+            } else if (opcode == HARVEST) {
+                farm.harvest();
+            } else if (opcode == ADD_SEEDS) {
+                Crop crop = farm.getPlantableCrops().find(in.readUTF());
+                if (crop == null) {
+                    throw new IOException("Journal adds seeds to an unknown crop");
+                }
+                farm.addSeeds(crop, in.readInt());
+            } else if (opcode == ADD_PLANTABLE_CROP) {
+                farm.addPlantableCrop(new Crop(in.readUTF(), in.readInt(), in.readInt(), in.readInt()));
+            } else if (opcode == RESET) {
+                farm.reset();
+            } else if (opcode == SET_AREA) {
+                farm.setArea(in.readInt());
+            } else {
+                throw new IOException("Unknown journal record: " + opcode);
+            }
+        } catch (NonPositiveAreaException | FilledFarmException | IllegalArgumentException e) {
+            throw new IOException("Journal does not match its base snapshot", e);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: stops following the current farm and follows farm instead (none
+     * if null), dropping the unsaved mutations of the current farm
+     */
+    private void attach(Farm farm) {
+        if (this.farm != null) {
+            this.farm.removeListener(this);
+        }
+        this.farm = farm;
+        pendingBytes.reset();
+        if (farm != null) {
+            farm.addListener(this);
+        }
+    }
+
+    /*
+     * EFFECTS: returns the generation of the latest base snapshot in the
+     * directory, or -1 if there is none
+     */
+    private int latestBase() throws IOException {
+        int latest = -1;
+        for (int g : generations(BASE_PREFIX, BASE_SUFFIX)) {
+            latest = Math.max(latest, g);
+        }
+        return latest;
+    }
+
+    /*
+     * EFFECTS: returns the generations of the journals from generation base on,
+     * in ascending order
+     */
+    private List<Integer> journalGenerations(int base) throws IOException {
+        List<Integer> journals = new ArrayList<Integer>();
+        for (int g : generations(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+            if (g >= base) {
+                journals.add(g);
+            }
+        }
+        Collections.sort(journals);
+        return journals;
+    }
+
+    /*
+     * EFFECTS: returns the generations of the files in the directory named
+     * prefix + generation + suffix
+     */
+    private List<Integer> generations(String prefix, String suffix) throws IOException {
+        List<Integer> found = new ArrayList<Integer>();
+        if (!Files.isDirectory(directory)) {
+            return found;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    found.add(Integer.parseInt(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return found;
+    }
+
+    /*
+     * EFFECTS: deletes the base snapshots and journals of the generations before
+     * g
+     */
+    private void deleteBefore(int g) throws IOException {
+        for (int old : generations(BASE_PREFIX, BASE_SUFFIX)) {
+            if (old < g) {
+                Files.deleteIfExists(basePath(old));
+            }
+        }
+        for (int old : generations(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+            if (old < g) {
+                Files.deleteIfExists(journalPath(old));
+            }
+        }
+    }
+
+    private Path basePath(int g) {
+        return directory.resolve(BASE_PREFIX + g + BASE_SUFFIX);
+    }
+
+    private Path journalPath(int g) {
+        return directory.resolve(JOURNAL_PREFIX + g + JOURNAL_SUFFIX);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: starts a pending record with opcode
+     */
+    private void record(byte opcode) {
+        pendingBytes.write(opcode);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds value to the pending record
+     */
+    private void recordInt(int value) {
+        try {
+            pending.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a ByteArrayOutputStream never fails
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds value to the pending record
+     */
+    private void recordUtf(String value) {
+        try {
+            pending.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a ByteArrayOutputStream never fails
+        }
+    }
+}
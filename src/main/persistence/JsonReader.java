@@ -3,113 +3,243 @@ package persistence;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.util.stream.Stream;
-import org.json.*;
+import org.json.JSONException;
 import model.*;
 
 /*
- * Represents a reader that reads farm from JSON data stored in file
+ * Represents a reader that reads farm from JSON data stored in file. The file is streamed token by token and crops
+ * are bulk-loaded into the farm as they are read, so a save of any size is read in constant extra memory and logs a
+ * single event.
  * Citation: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo.git
  */
 public class JsonReader {
+    // bits recording which keys of an object have been read
+    private static final int AREA = 1;
+    private static final int TIME = 1 << 1;
+    private static final int REVENUE = 1 << 2;
+    private static final int CROPS = 1 << 3;
+    private static final int PLANTABLE_CROPS = 1 << 4;
+    private static final int NAME = 1 << 5;
+    private static final int SEEDS = 1 << 6;
+    private static final int TIME_REQUIRED = 1 << 7;
+    private static final int PLANTED_AREA = 1 << 8;
+    private static final int TIME_GROWN = 1 << 9;
+    private static final int CROP_FIELDS = NAME | REVENUE | SEEDS | TIME_REQUIRED;
+    private static final int PLANTED_CROP_FIELDS = CROP_FIELDS | PLANTED_AREA | TIME_GROWN;
+
     private String source;
+    private Farm.Storage storage; // the storage of the farms read
 
     /*
      * EFFECTS: constructs reader to read from source file
      */
     public JsonReader(String source) {
+        this(source, Farm.Storage.OBJECTS);
+    }
+
+    /*
+     * EFFECTS: constructs reader to read farms kept in the given storage from
+     * source file
+     */
+    public JsonReader(String source, Farm.Storage storage) {
         this.source = source;
+        this.storage = storage;
     }
 
     /*
      * EFFECTS: reads farm from file and returns it, throws IOException if an error
-     * occurs reading data from file
+     * occurs reading data from file, throws JSONException if the file is not a
+     * valid farm
      * 
      */
     public Farm read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseFarm(jsonObject);
+        try (JsonTokenizer json = new JsonTokenizer(
+                Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8))) {
+            Farm farm = parseFarm(json);
+            json.endDocument();
+            return farm;
+        }
     }
 
     /*
-     * EFFECTS: reads source file as string and returns it
+     * EFFECTS: parses farm from the JSON object read by json and returns it; the
+     * farm is bulk-loaded as soon as its crops are reached so they can be added
+     * while they are read, and the keys may come in any order
      */
-    private String readFile(String source) throws IOException {
-        StringBuilder contentBuilder = new StringBuilder();
+    private Farm parseFarm(JsonTokenizer json) throws IOException {
+        FarmLoader loader = null;
+        int area = 0;
+        int time = 0;
+        int revenue = 0;
+        int seen = 0;
 
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(s -> contentBuilder.append(s));
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            if (key.equals("area")) {
+                area = json.nextInt();
+                seen |= AREA;
+                if (loader != null) {
+                    loader.setArea(area);
+                }
+            } else if (key.equals("time")) {
+                time = json.nextInt();
+                seen |= TIME;
+            } else if (key.equals("revenue")) {
+                revenue = json.nextInt();
+                seen |= REVENUE;
+            } else if (key.equals("crops")) {
+                loader = createLoader(loader, area);
+                addPlantedCrops(loader, json);
+                seen |= CROPS;
+            } else if (key.equals("plantableCrops")) {
+                loader = createLoader(loader, area);
+                addPlantableCrops(loader, json);
+                seen |= PLANTABLE_CROPS;
+            } else {
+                json.skipValue();
+            }
         }
+        json.endObject();
 
-        return contentBuilder.toString();
+        require((seen & AREA) != 0, "area");
+        require((seen & TIME) != 0, "time");
+        require((seen & REVENUE) != 0, "revenue");
+        require((seen & CROPS) != 0, "crops");
+        require((seen & PLANTABLE_CROPS) != 0, "plantableCrops");
+        loader.setTime(time);
+        loader.setRevenue(revenue);
+        return loader.finish();
     }
 
     /*
-     * EFFECTS: parses farm from JSON object and returns it
+     * EFFECTS: returns loader if it was already created, otherwise starts loading
+     * a farm with the given area, which is 0 if it has not been read yet
      */
-    private Farm parseFarm(JSONObject jsonObject) {
-        int area = jsonObject.getInt("area");
-        int time = jsonObject.getInt("time");
-        int revenue = jsonObject.getInt("revenue");
-        Farm farm = new Farm(area);
-        addPlantedCrops(farm, jsonObject);
-        addPlantableCrops(farm, jsonObject);
-        farm.setTime(time);
-        farm.setRevenue(revenue);
-        return farm;
+    private FarmLoader createLoader(FarmLoader loader, int area) {
+        if (loader != null) {
+            return loader;
+        }
+        return new FarmLoader(area, storage);
     }
 
     /*
-     * MODIFIES: farm
-     * EFFECTS: parses plantedCrops from JSON object and adds them to farm
+     * MODIFIES: loader
+     * EFFECTS: parses plantedCrops from the JSON array read by json and adds them
+     * to loader
      */
-    private void addPlantedCrops(Farm farm, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("crops");
-        for (Object json : jsonArray) {
-            JSONObject nextPlantedCrop = (JSONObject) json;
-            addPlantedCrop(farm, nextPlantedCrop);
+    private void addPlantedCrops(FarmLoader loader, JsonTokenizer json) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            addPlantedCrop(loader, json);
         }
+        json.endArray();
     }
 
     /*
-     * MODIFIES: farm
-     * EFFECTS: parses crop from JSON object and adds it to farm
+     * MODIFIES: loader
+     * EFFECTS: parses crop from the JSON object read by json and adds it to loader
      */
-    private void addPlantedCrop(Farm farm, JSONObject jsonObject) {
-        String name = jsonObject.getString("name");
-        int revenue = jsonObject.getInt("revenue");
-        int seeds = jsonObject.getInt("seeds");
-        int timeRequired = jsonObject.getInt("timeRequired");
-        int plantArea = jsonObject.getInt("plantedArea");
-        int timeGrown = jsonObject.getInt("timeGrown");
-        PlantedCrop plantedCrop = new PlantedCrop(new Crop(name, revenue, seeds, timeRequired), plantArea);
-        plantedCrop.setTimeGrown(timeGrown);
-        farm.addPlantedCrop(plantedCrop);
+    private void addPlantedCrop(FarmLoader loader, JsonTokenizer json) throws IOException {
+        String name = null;
+        int revenue = 0;
+        int seeds = 0;
+        int timeRequired = 0;
+        int plantArea = 0;
+        int timeGrown = 0;
+        int seen = 0;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            if (key.equals("name")) {
+                name = json.nextString();
+                seen |= NAME;
+            } else if (key.equals("revenue")) {
+                revenue = json.nextInt();
+                seen |= REVENUE;
+            } else if (key.equals("seeds")) {
+                seeds = json.nextInt();
+                seen |= SEEDS;
+            } else if (key.equals("timeRequired")) {
+                timeRequired = json.nextInt();
+                seen |= TIME_REQUIRED;
+            } else if (key.equals("plantedArea")) {
+                plantArea = json.nextInt();
+                seen |= PLANTED_AREA;
+            } else if (key.equals("timeGrown")) {
+                timeGrown = json.nextInt();
+                seen |= TIME_GROWN;
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+
+        require(seen == PLANTED_CROP_FIELDS, "planted crop fields");
+        try {
+            loader.addPlantedCrop(CropType.of(name, revenue, timeRequired), seeds, plantArea, timeGrown);
+        } catch (IllegalArgumentException e) {
+            throw new JSONException("Invalid planted crop " + name + ": " + e.getMessage());
+        }
     }
 
     /*
-     * MODIFIES: farm
-     * EFFECTS: parses plantableCrops from JSON object and adds them to farm
+     * MODIFIES: loader
+     * EFFECTS: parses plantableCrops from the JSON array read by json and adds
+     * them to loader
      */
-    private void addPlantableCrops(Farm farm, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("plantableCrops");
-        for (Object json : jsonArray) {
-            JSONObject nextPlantableCrop = (JSONObject) json;
-            addPlantableCrop(farm, nextPlantableCrop);
+    private void addPlantableCrops(FarmLoader loader, JsonTokenizer json) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            addPlantableCrop(loader, json);
         }
+        json.endArray();
     }
 
     /*
-     * MODIFIES: farm
-     * EFFECTS: parses plantableCrop from JSON object and adds it to farm
+     * MODIFIES: loader
+     * EFFECTS: parses plantableCrop from the JSON object read by json and adds it
+     * to loader
      */
-    private void addPlantableCrop(Farm farm, JSONObject jsonObject) {
-        String name = jsonObject.getString("name");
-        int revenue = jsonObject.getInt("revenue");
-        int seeds = jsonObject.getInt("seeds");
-        int timeRequired = jsonObject.getInt("timeRequired");
-        Crop crop = new Crop(name, revenue, seeds, timeRequired);
-        farm.addPlantableCrop(crop);
+    private void addPlantableCrop(FarmLoader loader, JsonTokenizer json) throws IOException {
+        String name = null;
+        int revenue = 0;
+        int seeds = 0;
+        int timeRequired = 0;
+        int seen = 0;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            if (key.equals("name")) {
+                name = json.nextString();
+                seen |= NAME;
+            } else if (key.equals("revenue")) {
+                revenue = json.nextInt();
+                seen |= REVENUE;
+            } else if (key.equals("seeds")) {
+                seeds = json.nextInt();
+                seen |= SEEDS;
+            } else if (key.equals("timeRequired")) {
+                timeRequired = json.nextInt();
+                seen |= TIME_REQUIRED;
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+
+        require(seen == CROP_FIELDS, "crop fields");
+        loader.addPlantableCrop(new Crop(name, revenue, seeds, timeRequired));
+    }
+
+    /*
+     * EFFECTS: throws JSONException naming what is missing if present is false
+     */
+    private void require(boolean present, String what) {
+        if (!present) {
+            throw new JSONException("Missing " + what);
+        }
     }
-}
\ No newline at end of file
+}
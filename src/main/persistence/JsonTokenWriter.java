@@ -0,0 +1,294 @@
+package persistence;
+
+import java.io.*;
+import java.util.Arrays;
+
+/*
+ * Represents a writer that emits JSON one token at a time into a fixed-size buffer that is flushed to a character
+ * stream whenever it fills, so that documents of any size are written without building them in memory first. In
+ * pretty mode every member and element goes on its own line, indented by 4 spaces per level; in compact mode no
+ * whitespace is written at all.
+ */
+public class JsonTokenWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INDENT = 4;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private Writer writer; // the stream the JSON is written to
+    private boolean pretty; // whether the output is indented
+    private char[] buffer; // the characters written but not flushed yet
+    private int position; // the number of characters in buffer
+    private boolean[] hasElements; // whether each open container has a member or element yet
+    private int depth; // the number of open containers
+    private boolean afterName; // whether a name was written and its value is expected next
+
+    /*
+     * EFFECTS: constructs a token writer writing to writer, indented if pretty
+     */
+    public JsonTokenWriter(Writer writer, boolean pretty) {
+        this.writer = writer;
+        this.pretty = pretty;
+        this.buffer = new char[BUFFER_SIZE];
+        this.position = 0;
+        this.hasElements = new boolean[16];
+        this.depth = 0;
+        this.afterName = false;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the start of an object
+     */
+    public JsonTokenWriter beginObject() throws IOException {
+        return this.openContainer('{');
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the end of the current object
+     */
+    public JsonTokenWriter endObject() throws IOException {
+        return this.closeContainer('}');
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the start of an array
+     */
+    public JsonTokenWriter beginArray() throws IOException {
+        return this.openContainer('[');
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the end of the current array
+     */
+    public JsonTokenWriter endArray() throws IOException {
+        return this.closeContainer(']');
+    }
+
+    /*
+     * REQUIRES: an object is open and its previous member has a value
+     * MODIFIES: this
+     * EFFECTS: writes the name of the next member of the current object
+     */
+    public JsonTokenWriter name(String name) throws IOException {
+        this.beforeElement();
+        this.writeString(name);
+        this.write(':');
+        if (this.pretty) {
+            this.write(' ');
+        }
+        this.afterName = true;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes value as a string
+     */
+    public JsonTokenWriter value(String value) throws IOException {
+        this.beforeValue();
+        this.writeString(value);
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes value as a number
+     */
+    public JsonTokenWriter value(long value) throws IOException {
+        this.beforeValue();
+        if (value == Long.MIN_VALUE) {
+            this.write(Long.toString(value));
+            return this;
+        }
+        if (value < 0) {
+            this.write('-');
+            value = -value;
+        }
+        this.reserve(19);
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = this.position + digits - 1; i >= this.position; i--) {
+            this.buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        this.position += digits;
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes value as a boolean
+     */
+    public JsonTokenWriter value(boolean value) throws IOException {
+        this.beforeValue();
+        this.write(value ? "true" : "false");
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the buffered characters to the underlying stream and flushes
+     * it
+     */
+    @Override
+    public void flush() throws IOException {
+        this.drain();
+        this.writer.flush();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: flushes and closes the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.drain();
+        } finally {
+            this.writer.close();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the opening bracket c and opens a container
+     */
+    private JsonTokenWriter openContainer(char c) throws IOException {
+        this.beforeValue();
+        this.write(c);
+        if (this.depth == this.hasElements.length) {
+            this.hasElements = Arrays.copyOf(this.hasElements, this.depth * 2);
+        }
+        this.hasElements[this.depth] = false;
+        this.depth++;
+        return this;
+    }
+
+    /*
+     * REQUIRES: a container is open
+     * MODIFIES: this
+     * EFFECTS: closes the current container with the closing bracket c
+     */
+    private JsonTokenWriter closeContainer(char c) throws IOException {
+        this.depth--;
+        if (this.hasElements[this.depth]) {
+            this.newLine();
+        }
+        this.write(c);
+        return this;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes what comes before a value: nothing after a name, otherwise
+     * the separator from the previous element
+     */
+    private void beforeValue() throws IOException {
+        if (this.afterName) {
+            this.afterName = false;
+        } else if (this.depth > 0) {
+            this.beforeElement();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the separator from the previous element of the current
+     * container, and the line break and indent in pretty mode
+     */
+    private void beforeElement() throws IOException {
+        if (this.hasElements[this.depth - 1]) {
+            this.write(',');
+        }
+        this.hasElements[this.depth - 1] = true;
+        this.newLine();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: in pretty mode, writes a line break and the indent of the current
+     * depth
+     */
+    private void newLine() throws IOException {
+        if (this.pretty) {
+            this.write('\n');
+            for (int i = 0; i < this.depth * INDENT; i++) {
+                this.write(' ');
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes value as a quoted string, escaping quotes, backslashes and
+     * control characters
+     */
+    private void writeString(String value) throws IOException {
+        this.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                this.write('\\');
+                this.write(c);
+            } else if (c == '\n') {
+                this.write("\\n");
+            } else if (c == '\r') {
+                this.write("\\r");
+            } else if (c == '\t') {
+                this.write("\\t");
+            } else if (c < 0x20) {
+                this.write("\\u00");
+                this.write(HEX_DIGITS[c >> 4]);
+                this.write(HEX_DIGITS[c & 0xF]);
+            } else {
+                this.write(c);
+            }
+        }
+        this.write('"');
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the characters of s to the buffer
+     */
+    private void write(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            this.write(s.charAt(i));
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes c to the buffer, draining it first if it is full
+     */
+    private void write(char c) throws IOException {
+        if (this.position == this.buffer.length) {
+            this.drain();
+        }
+        this.buffer[this.position++] = c;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: drains the buffer if fewer than count characters are free
+     */
+    private void reserve(int count) throws IOException {
+        if (this.buffer.length - this.position < count) {
+            this.drain();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the buffered characters to the underlying stream
+     */
+    private void drain() throws IOException {
+        this.writer.write(this.buffer, 0, this.position);
+        this.position = 0;
+    }
+}
@@ -0,0 +1,523 @@
+package persistence;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import org.json.JSONException;
+
+/*
+ * Represents a pull tokenizer that reads JSON from a character stream one token at a time, holding only a fixed-size
+ * buffer and the current nesting, so that documents of any size are read in constant memory. The separators between
+ * tokens (',' and ':') are consumed as the next token is peeked, and a document holds a single value: anything after
+ * it is a syntax error.
+ */
+public class JsonTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FAST_DIGITS = 18; // the most digits an integer may have to be parsed as a long as is
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+    /*
+     * The kinds of token the tokenizer can read next
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private Reader reader; // the stream the JSON is read from
+    private char[] buffer; // the characters read from reader but not consumed yet
+    private int position; // the index of the next unconsumed character in buffer
+    private int limit; // the number of valid characters in buffer
+    private long consumed; // the number of characters consumed before buffer, for error messages
+    private boolean[] inObject; // whether each open container is an object (true) or an array (false)
+    private boolean[] expectingName; // whether each open object expects a name next
+    private boolean[] separatorDue; // whether the next element of each open container must follow a ','
+    private int depth; // the number of open containers
+    private boolean colonDue; // whether a ':' must come before the next value, after a name
+    private boolean elementDue; // whether a ',' or ':' was consumed, so that an element must come next
+    private boolean documentRead; // whether the value of the document was read
+    private StringBuilder scratch; // the reused builder for strings and numbers
+
+    /*
+     * EFFECTS: constructs a tokenizer reading JSON from reader
+     */
+    public JsonTokenizer(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.consumed = 0;
+        this.inObject = new boolean[16];
+        this.expectingName = new boolean[16];
+        this.separatorDue = new boolean[16];
+        this.depth = 0;
+        this.colonDue = false;
+        this.elementDue = false;
+        this.documentRead = false;
+        this.scratch = new StringBuilder();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns the kind of the next token without consuming it
+     */
+    public Token peek() throws IOException {
+        int c = this.peekSeparated();
+        if (c == -1) {
+            return Token.END_DOCUMENT;
+        } else if (c == '{') {
+            return Token.BEGIN_OBJECT;
+        } else if (c == '}') {
+            return Token.END_OBJECT;
+        } else if (c == '[') {
+            return Token.BEGIN_ARRAY;
+        } else if (c == ']') {
+            return Token.END_ARRAY;
+        } else if (c == '"') {
+            return this.depth > 0 && this.expectingName[this.depth - 1] ? Token.NAME : Token.STRING;
+        } else if (c == 't' || c == 'f') {
+            return Token.BOOLEAN;
+        } else if (c == 'n') {
+            return Token.NULL;
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            return Token.NUMBER;
+        }
+        throw this.syntaxError("Unexpected character '" + (char) c + "'");
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns true if the current object or array has another element
+     */
+    public boolean hasNext() throws IOException {
+        Token next = this.peek();
+        return next != Token.END_OBJECT && next != Token.END_ARRAY && next != Token.END_DOCUMENT;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: checks that the document has ended, throws JSONException if
+     * anything follows its value
+     */
+    public void endDocument() throws IOException {
+        this.expect(Token.END_DOCUMENT);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the start of an object, throws JSONException if the next
+     * token is not one
+     */
+    public void beginObject() throws IOException {
+        this.expect(Token.BEGIN_OBJECT);
+        this.position++;
+        this.push(true);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the end of the current object, throws JSONException if
+     * the next token is not one
+     */
+    public void endObject() throws IOException {
+        this.expect(Token.END_OBJECT);
+        this.position++;
+        this.pop();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the start of an array, throws JSONException if the next
+     * token is not one
+     */
+    public void beginArray() throws IOException {
+        this.expect(Token.BEGIN_ARRAY);
+        this.position++;
+        this.push(false);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the end of the current array, throws JSONException if the
+     * next token is not one
+     */
+    public void endArray() throws IOException {
+        this.expect(Token.END_ARRAY);
+        this.position++;
+        this.pop();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes and returns the next name, throws JSONException if the
+     * next token is not a name
+     */
+    public String nextName() throws IOException {
+        this.expect(Token.NAME);
+        String name = this.readString();
+        this.expectingName[this.depth - 1] = false;
+        this.colonDue = true;
+        return name;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes and returns the next string, throws JSONException if the
+     * next token is not a string
+     */
+    public String nextString() throws IOException {
+        this.expect(Token.STRING);
+        String value = this.readString();
+        this.valueRead();
+        return value;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the next number and returns it as an int (truncating any
+     * fraction), throws JSONException if the next token is not a number
+     */
+    public int nextInt() throws IOException {
+        return (int) this.nextLong();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the next number and returns it as a long (truncating any
+     * fraction), throws JSONException if the next token is not a number or is
+     * not a valid one
+     */
+    public long nextLong() throws IOException {
+        this.expect(Token.NUMBER);
+        this.scratch.setLength(0);
+        boolean integral = true;
+        int digits = 0;
+        long value = 0;
+        boolean negative = this.peekRawChar() == '-';
+        if (negative) {
+            this.scratch.append('-');
+            this.position++;
+        }
+
+        for (int c = this.peekRawChar(); c != -1 && isNumberChar(c); c = this.peekRawChar()) {
+            this.scratch.append((char) c);
+            this.position++;
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else {
+                integral = false;
+            }
+        }
+
+        this.valueRead();
+        int first = negative ? 1 : 0;
+        if (integral && digits > 0 && digits <= MAX_FAST_DIGITS && (digits == 1 || this.scratch.charAt(first) != '0')) {
+            return negative ? -value : value;
+        }
+        return this.parseNumber(this.scratch.toString());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes and returns the next boolean, throws JSONException if the
+     * next token is not a boolean
+     */
+    public boolean nextBoolean() throws IOException {
+        this.expect(Token.BOOLEAN);
+        boolean value = this.peekChar() == 't';
+        this.consumeLiteral(value ? "true" : "false");
+        this.valueRead();
+        return value;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the next value whatever its kind, including everything
+     * nested in it
+     */
+    public void skipValue() throws IOException {
+        int startDepth = this.depth;
+
+        do {
+            Token next = this.peek();
+            if (next == Token.BEGIN_OBJECT) {
+                this.beginObject();
+            } else if (next == Token.BEGIN_ARRAY) {
+                this.beginArray();
+            } else if (next == Token.END_OBJECT) {
+                this.endObject();
+            } else if (next == Token.END_ARRAY) {
+                this.endArray();
+            } else if (next == Token.NAME) {
+                this.nextName();
+            } else if (next == Token.STRING) {
+                this.nextString();
+            } else if (next == Token.NUMBER) {
+                this.nextLong();
+            } else if (next == Token.BOOLEAN) {
+                this.nextBoolean();
+            } else if (next == Token.NULL) {
+                this.consumeLiteral("null");
+                this.valueRead();
+            } else {
+                throw this.syntaxError("Unexpected end of document");
+            }
+        } while (this.depth > startDepth);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: closes the underlying reader
+     */
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /*
+     * EFFECTS: throws JSONException if the next token is not of the expected kind
+     */
+    private void expect(Token expected) throws IOException {
+        Token next = this.peek();
+        if (next != expected) {
+            throw this.syntaxError("Expected " + expected + " but was " + next);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: opens a container, growing the nesting stacks as needed
+     */
+    private void push(boolean object) {
+        if (this.depth == this.inObject.length) {
+            this.inObject = Arrays.copyOf(this.inObject, this.depth * 2);
+            this.expectingName = Arrays.copyOf(this.expectingName, this.depth * 2);
+            this.separatorDue = Arrays.copyOf(this.separatorDue, this.depth * 2);
+        }
+        this.inObject[this.depth] = object;
+        this.expectingName[this.depth] = object;
+        this.separatorDue[this.depth] = false;
+        this.elementDue = false;
+        this.depth++;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: closes the current container, which completes a value of the
+     * enclosing one
+     */
+    private void pop() {
+        this.depth--;
+        this.valueRead();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: records that a value was read, so that the enclosing container
+     * (if any) expects a ',' before its next element and, if it is an object,
+     * a name after it; a value read outside any container ends the document
+     */
+    private void valueRead() {
+        this.elementDue = false;
+        if (this.depth == 0) {
+            this.documentRead = true;
+            return;
+        }
+        this.separatorDue[this.depth - 1] = true;
+        if (this.inObject[this.depth - 1]) {
+            this.expectingName[this.depth - 1] = true;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the whitespace and the separator due before the next
+     * token and returns its first character without consuming it, or -1 at
+     * the end of the input; throws JSONException if the separator is missing,
+     * a container ends right after a separator or with the wrong bracket, an
+     * object member does not start with a name or anything follows the value of
+     * the document
+     */
+    private int peekSeparated() throws IOException {
+        int c = this.peekChar();
+        if (this.depth == 0) {
+            if (this.documentRead && c != -1) {
+                throw this.syntaxError("Unexpected content after the document");
+            }
+            return c;
+        }
+
+        if (this.colonDue) {
+            if (c != ':') {
+                throw this.syntaxError("Expected ':'");
+            }
+            this.position++;
+            this.colonDue = false;
+            this.elementDue = true;
+            c = this.peekChar();
+        } else if (this.separatorDue[this.depth - 1] && c != '}' && c != ']' && c != -1) {
+            if (c != ',') {
+                throw this.syntaxError("Expected ','");
+            }
+            this.position++;
+            this.separatorDue[this.depth - 1] = false;
+            this.elementDue = true;
+            c = this.peekChar();
+        }
+
+        if (c == '}' || c == ']') {
+            if (this.elementDue || this.inObject[this.depth - 1] != (c == '}')) {
+                throw this.syntaxError("Unexpected character '" + (char) c + "'");
+            }
+        } else if (this.expectingName[this.depth - 1] && c != '"' && c != -1) {
+            throw this.syntaxError("Expected a name");
+        }
+        return c;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes a quoted string and returns its unescaped contents
+     */
+    private String readString() throws IOException {
+        this.position++;
+        this.scratch.setLength(0);
+
+        while (true) {
+            int c = this.readRawChar();
+            if (c == -1) {
+                throw this.syntaxError("Unterminated string");
+            } else if (c == '"') {
+                return this.scratch.toString();
+            } else if (c == '\\') {
+                this.scratch.append(this.readEscape());
+            } else {
+                this.scratch.append((char) c);
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the escape sequence after a backslash and returns the
+     * character it stands for
+     */
+    private char readEscape() throws IOException {
+        int c = this.readRawChar();
+        if (c == 'u') {
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(this.readRawChar(), 16);
+                if (digit < 0) {
+                    throw this.syntaxError("Invalid unicode escape");
+                }
+                code = code * 16 + digit;
+            }
+            return (char) code;
+        } else if (c == 'b') {
+            return '\b';
+        } else if (c == 'f') {
+            return '\f';
+        } else if (c == 'n') {
+            return '\n';
+        } else if (c == 'r') {
+            return '\r';
+        } else if (c == 't') {
+            return '\t';
+        } else if (c == '"' || c == '\\' || c == '/') {
+            return (char) c;
+        }
+        throw this.syntaxError("Invalid escape sequence");
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes literal, throws JSONException if the input does not match
+     */
+    private void consumeLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (this.readRawChar() != literal.charAt(i)) {
+                throw this.syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: skips whitespace, returns the next character without consuming
+     * it, or -1 at the end of the input
+     */
+    private int peekChar() throws IOException {
+        while (true) {
+            int c = this.peekRawChar();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                this.position++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns the next character without consuming it, or -1 at the end
+     * of the input, refilling the buffer as needed
+     */
+    private int peekRawChar() throws IOException {
+        if (this.position == this.limit) {
+            this.consumed += this.limit;
+            this.position = 0;
+            this.limit = Math.max(0, this.reader.read(this.buffer));
+            if (this.limit == 0) {
+                return -1;
+            }
+        }
+        return this.buffer[this.position];
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes and returns the next character, or -1 at the end of the
+     * input
+     */
+    private int readRawChar() throws IOException {
+        int c = this.peekRawChar();
+        if (c != -1) {
+            this.position++;
+        }
+        return c;
+    }
+
+    /*
+     * EFFECTS: returns the number written as text as a long (truncating any
+     * fraction), throws JSONException if it is not a valid JSON number or it is
+     * an integer out of the range of a long
+     */
+    private long parseNumber(String text) {
+        if (!NUMBER.matcher(text).matches()) {
+            throw this.syntaxError("Invalid number '" + text + "'");
+        }
+        try {
+            if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                return Long.parseLong(text);
+            }
+            return (long) Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw this.syntaxError("Number out of range '" + text + "'");
+        }
+    }
+
+    /*
+     * EFFECTS: returns true if c can be part of a number after its sign
+     */
+    private static boolean isNumberChar(int c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-';
+    }
+
+    /*
+     * EFFECTS: returns a JSONException with message and the current position
+     */
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + (this.consumed + this.position));
+    }
+}
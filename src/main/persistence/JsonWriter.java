@@ -1,24 +1,37 @@
 package persistence;
 
 import java.io.*;
-import org.json.JSONObject;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 
 import model.Farm;
 
 /*
- * Represents a writer that writes JSON representation of farm to file
+ * Represents a writer that writes JSON representation of farm to file. The farm is streamed token by token into a
+ * buffered file channel, so no JSON tree or String of the whole farm is built in memory.
  * Citation: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo.git
  */
 public class JsonWriter {
-    private static final int TAB = 4;
-    private PrintWriter writer;
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+    private JsonTokenWriter writer;
     private String destination;
+    private boolean pretty;
 
     /*
-     * EFFECTS: constructs writer to write to destination file
+     * EFFECTS: constructs writer to write indented JSON to destination file
      */
     public JsonWriter(String destination) {
+        this(destination, true);
+    }
+
+    /*
+     * EFFECTS: constructs writer to write JSON to destination file, indented if
+     * pretty and without any whitespace otherwise
+     */
+    public JsonWriter(String destination, boolean pretty) {
         this.destination = destination;
+        this.pretty = pretty;
     }
 
     /*
@@ -27,27 +40,24 @@ public class JsonWriter {
      * cannot be opened for writing
      */
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+        FileChannel channel = new FileOutputStream(destination).getChannel();
+        Writer out = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), CHANNEL_BUFFER_SIZE);
+        writer = new JsonTokenWriter(out, pretty);
     }
 
     /*
      * MODIFIES: this
-     * EFFECTS: writes JSON representation of farm to file
+     * EFFECTS: writes JSON representation of farm to file, throws IOException if
+     * an error occurs writing to the file
      */
-    public void write(Farm farm) {
-        JSONObject json = farm.toJson();
-        saveToFile(json.toString(TAB));
+    public void write(Farm farm) throws IOException {
+        farm.writeJson(writer);
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
-    public void close() {
+    // EFFECTS: flushes and closes writer, throws IOException if an error occurs
+    // writing to the file
+    public void close() throws IOException {
         writer.close();
     }
-
-    // MODIFIES: this
-    // EFFECTS: writes string to file
-    private void saveToFile(String json) {
-        writer.print(json);
-    }
-}
\ No newline at end of file
+}
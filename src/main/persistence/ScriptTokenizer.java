@@ -0,0 +1,229 @@
+package persistence;
+
+import java.io.*;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/*
+ * Represents a tokenizer that reads a command script from a character stream through a fixed-size buffer. Tokens are
+ * separated by whitespace and a '#' at the start of a token comments out the rest of its line; integers are parsed
+ * straight from the buffer without building a String. Like Scanner, it throws InputMismatchException when the next
+ * token is not what was asked for, and NoSuchElementException when there are no tokens left, but it tells the line
+ * each token came from.
+ */
+public class ScriptTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_INT_DIGITS = 10;
+
+    private Reader reader; // the stream the script is read from
+    private char[] buffer; // the characters read from reader but not consumed yet
+    private int position; // the index of the next unconsumed character in buffer
+    private int limit; // the number of valid characters in buffer
+    private int line; // the line of the next unconsumed character
+    private int tokenLine; // the line of the last token read
+    private StringBuilder scratch; // the reused builder for tokens that cross the end of the buffer
+
+    /*
+     * EFFECTS: constructs a tokenizer reading a script from reader
+     */
+    public ScriptTokenizer(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.line = 1;
+        this.tokenLine = 0;
+        this.scratch = new StringBuilder();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns true if there is another token
+     */
+    public boolean hasNext() throws IOException {
+        return this.skipBlanks();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the blanks before the next token of the current line,
+     * returns true if there is one and false at the end of the line, at a
+     * comment or at the end of the script, leaving the line break unconsumed
+     */
+    public boolean hasNextOnLine() throws IOException {
+        while (this.position < this.limit || this.fill()) {
+            char c = this.buffer[this.position];
+            if (c == '\n' || c == '#') {
+                return false;
+            } else if (!isBlank(c)) {
+                return true;
+            }
+            this.position++;
+        }
+        return false;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes and returns the next token, throws
+     * NoSuchElementException if there is none
+     */
+    public String next() throws IOException {
+        this.start();
+        int begin = this.position;
+        while (this.position < this.limit && !isBlank(this.buffer[this.position])) {
+            this.position++;
+        }
+        if (this.position < this.limit) {
+            return new String(this.buffer, begin, this.position - begin);
+        }
+        this.scratch.setLength(0);
+        this.scratch.append(this.buffer, begin, this.position - begin);
+        while (this.fill()) {
+            while (this.position < this.limit && !isBlank(this.buffer[this.position])) {
+                this.scratch.append(this.buffer[this.position++]);
+            }
+            if (this.position < this.limit) {
+                break;
+            }
+        }
+        return this.scratch.toString();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the next token and returns it as an int, throws
+     * InputMismatchException (consuming the token anyway) if it is not one and
+     * NoSuchElementException if there is no token
+     */
+    public int nextInt() throws IOException {
+        this.start();
+        int begin = this.position;
+        int end = begin;
+        while (end < this.limit && !isBlank(this.buffer[end])) {
+            end++;
+        }
+        if (end == this.limit) {
+            return this.toInt(this.next()); // the token may go on past the buffer
+        }
+        this.position = end;
+        int i = begin;
+        boolean negative = this.buffer[i] == '-';
+        if (negative || this.buffer[i] == '+') {
+            i++;
+        }
+        int firstDigit = i;
+        long value = 0;
+        while (i < end && i - firstDigit < MAX_INT_DIGITS && this.buffer[i] >= '0' && this.buffer[i] <= '9') {
+            value = value * 10 + (this.buffer[i++] - '0');
+        }
+        if (i - firstDigit == MAX_INT_DIGITS && i < end) {
+            return this.toInt(new String(this.buffer, begin, end - begin)); // leading zeros, or out of range
+        }
+        value = negative ? -value : value;
+        if (i < end || i == firstDigit || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw this.mismatch(new String(this.buffer, begin, end - begin));
+        }
+        return (int) value;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes the rest of the current line, so that reading goes on
+     * from the start of the next one
+     */
+    public void skipLine() throws IOException {
+        while (this.position < this.limit || this.fill()) {
+            if (this.buffer[this.position++] == '\n') {
+                this.line++;
+                return;
+            }
+        }
+    }
+
+    /*
+     * EFFECTS: returns the line of the last token read, 0 if none was read
+     */
+    public int getLine() {
+        return this.tokenLine;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: closes the underlying reader
+     */
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: moves to the start of the next token and notes its line, throws
+     * NoSuchElementException if there is none
+     */
+    private void start() throws IOException {
+        if (!this.skipBlanks()) {
+            throw new NoSuchElementException("Unexpected end of script after line " + this.line);
+        }
+        this.tokenLine = this.line;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: consumes whitespace and comments, returns true if a token
+     * follows and false at the end of the script
+     */
+    private boolean skipBlanks() throws IOException {
+        while (this.position < this.limit || this.fill()) {
+            char c = this.buffer[this.position];
+            if (c == '#') {
+                this.skipLine();
+            } else if (isBlank(c)) {
+                if (c == '\n') {
+                    this.line++;
+                }
+                this.position++;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: refills the buffer once everything in it was consumed, returns
+     * false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        if (this.position < this.limit) {
+            return true;
+        }
+        int read = this.reader.read(this.buffer, 0, this.buffer.length);
+        this.position = 0;
+        this.limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    /*
+     * EFFECTS: returns token as an int, throws InputMismatchException if it is
+     * not one
+     */
+    private int toInt(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw this.mismatch(token);
+        }
+    }
+
+    private InputMismatchException mismatch(String token) {
+        return new InputMismatchException("Expected an integer on line " + this.tokenLine + " but found '" + token
+                + "'");
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+    }
+}
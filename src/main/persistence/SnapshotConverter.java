@@ -0,0 +1,47 @@
+package persistence;
+
+import java.io.IOException;
+
+import model.Farm;
+
+/*
+ * Represents a converter between the JSON and binary snapshot formats of a saved farm
+ */
+public class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    /*
+     * EFFECTS: reads the farm saved as JSON in jsonSource and writes it as a
+     * snapshot to snapshotDestination, throws IOException if either file cannot
+     * be read or written
+     */
+    public static void jsonToSnapshot(String jsonSource, String snapshotDestination) throws IOException {
+        Farm farm = new JsonReader(jsonSource).read();
+        SnapshotWriter writer = new SnapshotWriter(snapshotDestination);
+        writer.open();
+        try {
+            writer.write(farm);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /*
+     * EFFECTS: reads the farm saved as a snapshot in snapshotSource and writes it
+     * as JSON to jsonDestination, indented if pretty, throws IOException if
+     * either file cannot be read or written
+     */
+    public static void snapshotToJson(String snapshotSource, String jsonDestination, boolean pretty)
+            throws IOException {
+        Farm farm = new SnapshotReader(snapshotSource).read();
+        JsonWriter writer = new JsonWriter(jsonDestination, pretty);
+        writer.open();
+        try {
+            writer.write(farm);
+        } finally {
+            writer.close();
+        }
+    }
+}
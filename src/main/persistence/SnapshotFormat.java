@@ -0,0 +1,23 @@
+package persistence;
+
+/*
+ * Represents the layout of a binary farm snapshot. All values are big-endian.
+ *
+ * header (32 bytes): magic, version (short), reserved (short), area, time, revenue, crop count, plantable crop
+ * count and planting count (ints)
+ * crop table: for each crop, the length of its UTF-8 name (short), the name, then its revenue, seeds and
+ * timeRequired (ints)
+ * plantable crops: the crop table index of each plantable crop (int)
+ * plantings (12 bytes each): the crop table index, plantedArea and timeGrown (ints)
+ * trailer: the CRC32 checksum of every byte before it (int)
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x46524D53; // "FRMS"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int PLANTING_SIZE = 12;
+    static final int TRAILER_SIZE = 4;
+
+    private SnapshotFormat() {
+    }
+}
@@ -0,0 +1,147 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+import model.*;
+
+/*
+ * Represents a reader that reads a farm from a binary snapshot file (see SnapshotFormat). The file is memory-mapped
+ * and checked against its checksum before any of it is used, so snapshots must be smaller than 2 GB. Farms are read
+ * into the array storage by default, which copies the planting records straight into its columns.
+ */
+public class SnapshotReader {
+    private String source;
+    private Farm.Storage storage; // the storage of the farms read
+
+    /*
+     * EFFECTS: constructs reader to read farms kept in the array storage from
+     * source file
+     */
+    public SnapshotReader(String source) {
+        this(source, Farm.Storage.ARRAYS);
+    }
+
+    /*
+     * EFFECTS: constructs reader to read farms kept in the given storage from
+     * source file
+     */
+    public SnapshotReader(String source, Farm.Storage storage) {
+        this.source = source;
+        this.storage = storage;
+    }
+
+    /*
+     * EFFECTS: reads farm from file and returns it, throws IOException if an error
+     * occurs reading data from file or the file is not a valid snapshot
+     */
+    public Farm read() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + size + " bytes");
+            } else if (size < SnapshotFormat.HEADER_SIZE + SnapshotFormat.TRAILER_SIZE) {
+                throw new IOException("Snapshot truncated: " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            verifyChecksum(buffer);
+            return parseFarm(buffer);
+        }
+    }
+
+    /*
+     * EFFECTS: throws IOException if the checksum in the trailer of buffer does
+     * not match the bytes before it
+     */
+    private void verifyChecksum(ByteBuffer buffer) throws IOException {
+        int end = buffer.limit() - SnapshotFormat.TRAILER_SIZE;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().limit(end));
+        if ((int) checksum.getValue() != buffer.getInt(end)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+    }
+
+    /*
+     * MODIFIES: buffer
+     * EFFECTS: parses farm from buffer and returns it
+     */
+    private Farm parseFarm(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != SnapshotFormat.MAGIC) {
+            throw new IOException("Not a farm snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != SnapshotFormat.VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        buffer.getShort();
+        int area = buffer.getInt();
+        int time = buffer.getInt();
+        int revenue = buffer.getInt();
+        int cropCount = buffer.getInt();
+        int plantableCount = buffer.getInt();
+        int plantingCount = buffer.getInt();
+
+        Crop[] cropTable = new Crop[cropCount];
+        for (int i = 0; i < cropCount; i++) {
+            cropTable[i] = parseCrop(buffer);
+        }
+
+        FarmLoader loader = new FarmLoader(area, storage);
+        for (int i = 0; i < plantableCount; i++) {
+            loader.addPlantableCrop(cropAt(cropTable, buffer.getInt()));
+        }
+        addPlantedCrops(loader, buffer, cropTable, plantingCount);
+        loader.setTime(time);
+        loader.setRevenue(revenue);
+        return loader.finish();
+    }
+
+    /*
+     * MODIFIES: buffer
+     * EFFECTS: parses a crop table entry from buffer and returns it
+     */
+    private Crop parseCrop(ByteBuffer buffer) {
+        byte[] name = new byte[buffer.getShort()];
+        buffer.get(name);
+        int revenue = buffer.getInt();
+        int seeds = buffer.getInt();
+        int timeRequired = buffer.getInt();
+        return new Crop(new String(name, StandardCharsets.UTF_8), revenue, seeds, timeRequired);
+    }
+
+    /*
+     * MODIFIES: loader
+     * EFFECTS: adds the plantingCount planting records at the position of buffer
+     * to loader in one bulk load, throws IOException if the records do not fill
+     * the rest of the file or one of them is not valid
+     */
+    private void addPlantedCrops(FarmLoader loader, ByteBuffer buffer, Crop[] cropTable, int plantingCount)
+            throws IOException {
+        long expected = (long) plantingCount * SnapshotFormat.PLANTING_SIZE + SnapshotFormat.TRAILER_SIZE;
+        if (buffer.remaining() != expected) {
+            throw new IOException("Snapshot planting records do not match their count");
+        }
+        try {
+            loader.addPlantedCrops(cropTable, buffer.asIntBuffer(), plantingCount);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Snapshot planting not valid: " + e.getMessage());
+        }
+    }
+
+    /*
+     * EFFECTS: returns the crop at index in cropTable, throws IOException if
+     * there is none
+     */
+    private Crop cropAt(Crop[] cropTable, int index) throws IOException {
+        if (index < 0 || index >= cropTable.length) {
+            throw new IOException("Snapshot crop index out of range: " + index);
+        }
+        return cropTable[index];
+    }
+}
@@ -0,0 +1,168 @@
+package persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import model.*;
+
+/*
+ * Represents a writer that writes a farm to a binary snapshot file (see SnapshotFormat). The crops of the farm are
+ * dictionary-encoded: each distinct crop is written once in the crop table, and every planting is a fixed-width
+ * record that refers to it by index. The farm is visited twice, once to build the crop table and once to write the
+ * plantings, so no copy of the plantings is kept in memory.
+ */
+public class SnapshotWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private CRC32 checksum;
+    private String destination;
+
+    /*
+     * EFFECTS: constructs writer to write to destination file
+     */
+    public SnapshotWriter(String destination) {
+        this.destination = destination;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: opens writer, throws FileNotFoundException if destination file
+     * cannot be opened for writing
+     */
+    public void open() throws FileNotFoundException {
+        channel = new FileOutputStream(destination).getChannel();
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        checksum = new CRC32();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes a snapshot of farm to file, throws IOException if an error
+     * occurs writing to the file
+     */
+    public void write(Farm farm) throws IOException {
+        List<Crop> cropTable = new ArrayList<Crop>();
+        Map<Long, Integer> cropIndexes = new HashMap<Long, Integer>();
+        for (Crop crop : farm.getPlantableCrops()) {
+            indexOf(crop, cropTable, cropIndexes);
+        }
+        farm.forEachPlanting((crop, timeGrown, plantedArea) -> indexOf(crop, cropTable, cropIndexes));
+
+        writeHeader(farm, cropTable.size());
+        for (Crop crop : cropTable) {
+            writeCrop(crop);
+        }
+        for (Crop crop : farm.getPlantableCrops()) {
+            putInt(indexOf(crop, cropTable, cropIndexes));
+        }
+        farm.forEachPlanting((crop, timeGrown, plantedArea) -> {
+            reserve(SnapshotFormat.PLANTING_SIZE);
+            buffer.putInt(indexOf(crop, cropTable, cropIndexes));
+            buffer.putInt(plantedArea);
+            buffer.putInt(timeGrown);
+        });
+
+        drain();
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes writer, throws IOException if an error occurs closing the
+    // file
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /*
+     * MODIFIES: cropTable, cropIndexes
+     * EFFECTS: returns the index of crop in cropTable, adding it if it is not
+     * there yet; crops are the same entry if they share their type and seeds
+     */
+    private static int indexOf(Crop crop, List<Crop> cropTable, Map<Long, Integer> cropIndexes) {
+        long key = ((long) crop.getType().getId() << 32) | (crop.getSeeds() & 0xFFFFFFFFL);
+        Integer index = cropIndexes.get(key);
+        if (index == null) {
+            index = cropTable.size();
+            cropTable.add(new Crop(crop.getType(), crop.getSeeds()));
+            cropIndexes.put(key, index);
+        }
+        return index;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the snapshot header of farm
+     */
+    private void writeHeader(Farm farm, int cropCount) throws IOException {
+        reserve(SnapshotFormat.HEADER_SIZE);
+        buffer.putInt(SnapshotFormat.MAGIC);
+        buffer.putShort(SnapshotFormat.VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(farm.getArea());
+        buffer.putInt(farm.getTime());
+        buffer.putInt(farm.getRevenue());
+        buffer.putInt(cropCount);
+        buffer.putInt(farm.getPlantableCrops().size());
+        buffer.putInt(farm.getPlantedCropCount());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes crop as a crop table entry
+     */
+    private void writeCrop(Crop crop) throws IOException {
+        byte[] name = crop.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > Short.MAX_VALUE) {
+            throw new IOException("Crop name too long for a snapshot: " + crop.getName());
+        }
+        reserve(2 + name.length + 12);
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        buffer.putInt(crop.getRevenue());
+        buffer.putInt(crop.getSeeds());
+        buffer.putInt(crop.getTimeRequired());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes value
+     */
+    private void putInt(int value) throws IOException {
+        reserve(4);
+        buffer.putInt(value);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: drains the buffer if fewer than count bytes are free in it
+     */
+    private void reserve(int count) throws IOException {
+        if (buffer.remaining() < count) {
+            drain();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: adds the buffered bytes to the checksum and writes them to the
+     * file
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
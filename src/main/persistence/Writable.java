@@ -1,5 +1,6 @@
 package persistence;
 
+import java.io.IOException;
 import org.json.JSONObject;
 
 /*
@@ -8,4 +9,8 @@ import org.json.JSONObject;
 public interface Writable {
     // EFFECTS: returns this as JSON object
     JSONObject toJson();
+
+    // MODIFIES: json
+    // EFFECTS: writes this as a JSON object to json
+    void writeJson(JsonTokenWriter json) throws IOException;
 }
\ No newline at end of file
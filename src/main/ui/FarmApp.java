@@ -10,9 +10,11 @@ import exception.*;
 @ExcludeFromJacocoGeneratedReport
 public class FarmApp {
     private static final String JSON_STORE = "./data/farm.json";
+    private static final String JOURNAL_STORE = "./data/journal";
     private Farm farm;
     private Scanner input;
     private JsonReader jsonReader;
+    private FarmJournal farmJournal;
 
     /*
      * EFFECTS: runs farm application
@@ -41,6 +43,7 @@ public class FarmApp {
             }
         }
 
+        closeJournal();
         System.out.println("\nGoodbye!");
     }
 
@@ -52,6 +55,7 @@ public class FarmApp {
         farm = new Farm(0);
         input = new Scanner(System.in);
         jsonReader = new JsonReader(JSON_STORE);
+        farmJournal = new FarmJournal(JOURNAL_STORE);
     }
 
     /*
@@ -130,8 +134,13 @@ public class FarmApp {
 
         try {
             Crop crop = new Crop(name, revenue, seeds, timeRequired);
-            farm.addPlantableCrop(crop);
-            System.out.println("Crop '" + name + "' created successfully!");
+            Crop replaced = farm.addPlantableCrop(crop);
+            if (replaced == null) {
+                System.out.println("Crop '" + name + "' created successfully!");
+            } else {
+                System.out.println("Crop '" + name + "' replaced the existing crop '" + replaced.getName()
+                        + "', dropping its " + replaced.getSeeds() + " square kilometers of seeds.");
+            }
             System.out.println("Revenue: " + revenue + " dollars per square kilometer");
             System.out.println("Available seeds: " + seeds + " square kilometers");
             System.out.println("Time to mature: " + timeRequired + " quarters");
@@ -156,7 +165,7 @@ public class FarmApp {
             System.out.println("Enter amount of seeds to add (square kilometers):");
             int amount = input.nextInt();
             try {
-                crop.addSeeds(amount);
+                farm.addSeeds(crop, amount);
                 System.out.println("Added " + amount + " square kilometers of seeds to " + crop.getName() + ".");
                 System.out.println("Total seeds now: " + crop.getSeeds() + " square kilometers");
             } catch (NonPositiveAreaException e) {
@@ -217,22 +226,7 @@ public class FarmApp {
      * EFFECTS: returns a list of crops that will mature in the next quarter
      */
     private ArrayList<PlantedCrop> getCropsThatWillMatureNextQuarter() {
-        ArrayList<PlantedCrop> cropsToHarvest = new ArrayList<>();
-
-        for (PlantedCrop crop : farm.getPlantedCrops()) {
-            if (willCropMatureNextQuarter(crop)) {
-                cropsToHarvest.add(crop);
-            }
-        }
-
-        return cropsToHarvest;
-    }
-
-    /*
-     * EFFECTS: returns true if the crop will mature in the next quarter
-     */
-    private boolean willCropMatureNextQuarter(PlantedCrop crop) {
-        return crop.getTimeGrown() + 1 == crop.getTimeRequired();
+        return new ArrayList<>(farm.getCropsRipeningNextQuarter());
     }
 
     /*
@@ -312,7 +306,7 @@ public class FarmApp {
      * EFFECTS: prints the list of planted crops with their growth progress.
      */
     private void printPlantedCrops() {
-        ArrayList<PlantedCrop> plantedCrops = farm.getPlantedCrops();
+        List<PlantedCrop> plantedCrops = farm.getPlantedCrops();
         if (plantedCrops.isEmpty()) {
             System.out.println("No crops currently planted.");
         } else {
@@ -353,30 +347,47 @@ public class FarmApp {
 
     /*
      * MODIFIES: this
-     * EFFECTS: saves farm to file
+     * EFFECTS: saves farm to the journal, appending only the changes made since
+     * the previous save of the same farm
      */
     public void doSaveFarm() {
-        JsonWriter jsonWriter = new JsonWriter("./data/farm.json");
         try {
-            jsonWriter.open();
-            jsonWriter.write(farm);
-            jsonWriter.close();
-            System.out.println("Farm saved successfully to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
-            System.out.println("Unable to write to file: " + JSON_STORE);
+            farmJournal.save(farm);
+            System.out.println("Farm saved successfully to " + JOURNAL_STORE);
+        } catch (IOException e) {
+            System.out.println("Unable to write to: " + JOURNAL_STORE);
         }
     }
 
     /*
      * MODIFIES: this
-     * EFFECTS: loads farm from file
+     * EFFECTS: loads farm from the journal, or from the JSON file if nothing was
+     * saved to the journal yet
      */
     private void doLoadFarm() {
+        String source = JSON_STORE;
+        try {
+            if (farmJournal.exists()) {
+                source = JOURNAL_STORE;
+                farm = farmJournal.load();
+            } else {
+                farm = jsonReader.read();
+            }
+            System.out.println("Farm loaded successfully from " + source);
+        } catch (IOException e) {
+            System.out.println("Unable to read from: " + source);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: waits for the journal to finish compacting and closes it
+     */
+    private void closeJournal() {
         try {
-            farm = jsonReader.read();
-            System.out.println("Farm loaded successfully from " + JSON_STORE);
+            farmJournal.close();
         } catch (IOException e) {
-            System.out.println("Unable to read from file: " + JSON_STORE);
+            System.out.println("Unable to finish compacting: " + JOURNAL_STORE);
         }
     }
 }
\ No newline at end of file
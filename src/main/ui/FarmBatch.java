@@ -0,0 +1,360 @@
+package ui;
+
+import model.*;
+import persistence.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.json.JSONException;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import exception.*;
+
+/*
+ * Represents a batch run of FarmApp: executes a command script against a farm without menus or prompts and writes
+ * one tab-separated result line per command (see the README for the commands and their results).
+ */
+@ExcludeFromJacocoGeneratedReport
+public class FarmBatch {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int LOG_CAPACITY = 64 * 1024;
+
+    private Farm farm;
+    private ScriptTokenizer script;
+    private Writer out;
+    private StringBuilder result; // the reused builder for each result line
+    private long commands;
+    private long errors;
+
+    /*
+     * EFFECTS: constructs a batch run of the script read from in that writes its
+     * results to out, starting from an empty farm as FarmApp does
+     */
+    public FarmBatch(Reader in, Writer out) {
+        this.farm = new Farm(0);
+        this.script = new ScriptTokenizer(in);
+        this.out = out;
+        this.result = new StringBuilder();
+    }
+
+    /*
+     * EFFECTS: runs the script in the file given as the first argument, or on
+     * standard input if there is none or it is "-", writing the results to
+     * standard output; exits with status 1 if any command failed
+     */
+    public static void main(String[] args) throws IOException {
+        Reader in = args.length == 0 || args[0].equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                OUTPUT_BUFFER_SIZE);
+        if (EventLog.getInstance().getCapacity() == 0) {
+            EventLog.getInstance().setCapacity(LOG_CAPACITY);
+        }
+        long errors = new FarmBatch(in, out).run();
+        System.exit(errors > 0 ? 1 : 0);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: runs every command of the script until its end or a quit
+     * command, writes the results followed by "done <commands> <errors>
+     * <milliseconds>" and returns the number of failed commands
+     */
+    public long run() throws IOException {
+        long start = System.nanoTime();
+        try {
+            while (script.hasNext()) {
+                String command = script.next();
+                if (command.equals("q") || command.equals("quit")) {
+                    break;
+                }
+                commands++;
+                runCommand(command);
+            }
+            result.setLength(0);
+            result.append("done\t").append(commands).append('\t').append(errors).append('\t')
+                    .append((System.nanoTime() - start) / 1_000_000);
+            writeResult();
+        } finally {
+            try {
+                script.close();
+            } finally {
+                out.flush();
+            }
+        }
+        return errors;
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: runs one command, writing its result or "error <line> <command>
+     * <message>" if it failed; a command missing an argument or followed by
+     * more than it takes is not run, and if its arguments could not be read the
+     * rest of its line is skipped. Unlike FarmApp, a command always reads all of
+     * its arguments, even when the first one already makes it fail
+     */
+    private void runCommand(String command) throws IOException {
+        int line = script.getLine();
+        result.setLength(0);
+        try {
+            dispatch(command);
+        } catch (NoSuchElementException e) { // or the InputMismatchException that extends it
+            script.skipLine();
+            fail(line, command, e.getMessage());
+            return;
+        } catch (BatchException e) {
+            fail(line, command, e.getMessage());
+            return;
+        }
+        writeResult();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: runs the named command, appending its result to this.result;
+     * throws BatchException if it fails
+     */
+    private void dispatch(String command) throws IOException, BatchException {
+        switch (command) {
+            case "1":
+            case "area":
+                setArea(lastIntArgument());
+                break;
+            case "2":
+            case "crop":
+                createCrop(argument(), intArgument(), intArgument(), lastIntArgument());
+                break;
+            case "3":
+            case "seeds":
+                addSeeds(argument(), lastIntArgument());
+                break;
+            case "4":
+            case "plant":
+                plant(argument(), lastIntArgument());
+                break;
+            case "5":
+            case "tick":
+                endOfCommand();
+                tick();
+                break;
+            case "advance":
+                advance(lastIntArgument());
+                break;
+            case "6":
+            case "status":
+                endOfCommand();
+                status();
+                break;
+            case "7":
+            case "reset":
+                endOfCommand();
+                farm.reset();
+                result.append("ok\treset");
+                break;
+            case "s":
+            case "save":
+                save(lastArgument());
+                break;
+            case "l":
+            case "load":
+                load(lastArgument());
+                break;
+            default:
+                script.skipLine();
+                throw new BatchException("Unknown command");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next argument on the line of the command, throws NoSuchElementException if
+    // there is none
+    private String argument() throws IOException {
+        requireArgument();
+        return script.next();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next argument on the line of the command and returns it as an int, throws
+    // NoSuchElementException if there is none or it is not an int
+    private int intArgument() throws IOException {
+        requireArgument();
+        return script.nextInt();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the last argument of the command, throws NoSuchElementException if there is
+    // none or more follow it on its line
+    private String lastArgument() throws IOException {
+        String argument = argument();
+        endOfCommand();
+        return argument;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the last argument of the command and returns it as an int, throws NoSuchElementException
+    // if there is none, it is not an int or more follow it on its line
+    private int lastIntArgument() throws IOException {
+        int argument = intArgument();
+        endOfCommand();
+        return argument;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: throws NoSuchElementException if the line of the command has no more tokens
+    private void requireArgument() throws IOException {
+        if (!script.hasNextOnLine()) {
+            throw new NoSuchElementException("Missing argument");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: throws NoSuchElementException, consuming the token, if the line of the command has more tokens
+    private void endOfCommand() throws IOException {
+        if (script.hasNextOnLine()) {
+            throw new NoSuchElementException("Unexpected argument '" + script.next() + "'");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the farm with an empty one of the given area, as FarmApp does
+    private void setArea(int area) throws BatchException {
+        if (area <= 0) {
+            throw new BatchException("Area must be a positive number");
+        }
+        farm = new Farm(area);
+        result.append("ok\tarea\t").append(area);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a new plantable crop to the farm, reporting the seeds dropped
+    // with the crop of the same name it replaces, if any
+    private void createCrop(String name, int revenue, int seeds, int timeRequired) throws BatchException {
+        Crop replaced;
+        try {
+            replaced = farm.addPlantableCrop(new Crop(name, revenue, seeds, timeRequired));
+        } catch (IllegalArgumentException e) {
+            throw new BatchException(e.getMessage());
+        }
+        result.append("ok\tcrop\t").append(name);
+        if (replaced != null) {
+            result.append("\treplaced\t").append(replaced.getSeeds());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds seeds to a plantable crop of the farm
+    private void addSeeds(String name, int amount) throws BatchException {
+        Crop crop = findCrop(name);
+        try {
+            farm.addSeeds(crop, amount);
+        } catch (NonPositiveAreaException e) {
+            throw new BatchException("Amount must be positive");
+        }
+        result.append("ok\tseeds\t").append(name).append('\t').append(crop.getSeeds());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: plants a plantable crop, with the checks FarmApp makes
+    private void plant(String name, int area) throws BatchException {
+        Crop crop = findCrop(name);
+        if (area > farm.getArea()) {
+            throw new BatchException("Not enough farm area available");
+        } else if (area > crop.getSeeds()) {
+            throw new BatchException("Not enough seeds available");
+        }
+        try {
+            farm.plant(crop, area);
+        } catch (NonPositiveAreaException e) {
+            throw new BatchException("Area must be positive");
+        } catch (FilledFarmException e) {
+            throw new BatchException("Farm is already filled");
+        }
+        result.append("ok\tplant\t").append(name).append('\t').append(area).append('\t')
+                .append(farm.remainingArea());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: advances the farm by one quarter
+    private void tick() {
+        int revenueBefore = farm.getRevenue();
+        farm.timeLapses();
+        result.append("ok\ttick\t").append(farm.getTime()).append('\t').append(farm.getRevenue() - revenueBefore);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: advances the farm by the given number of quarters at once
+    private void advance(int quarters) throws BatchException {
+        if (quarters < 0) {
+            throw new BatchException("Cannot advance a negative number of quarters");
+        }
+        Harvest harvest = farm.advance(quarters);
+        result.append("ok\tadvance\t").append(farm.getTime()).append('\t').append(harvest.getCrops()).append('\t')
+                .append(harvest.getRevenue());
+    }
+
+    // EFFECTS: reports the state of the farm
+    private void status() {
+        result.append("ok\tstatus\t").append(farm.getTime()).append('\t').append(farm.getRevenue()).append('\t')
+                .append(farm.getArea()).append('\t').append(farm.remainingArea()).append('\t')
+                .append(farm.getPlantedCropCount());
+    }
+
+    // EFFECTS: writes the farm to file as JSON
+    private void save(String file) throws BatchException {
+        try {
+            JsonWriter writer = new JsonWriter(file);
+            writer.open();
+            writer.write(farm);
+            writer.close();
+        } catch (IOException e) {
+            throw new BatchException("Unable to write to " + file);
+        }
+        result.append("ok\tsave\t").append(file);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the farm with the one read from file, keeping the current one if file is not a valid farm
+    private void load(String file) throws BatchException {
+        try {
+            farm = new JsonReader(file).read();
+        } catch (IOException e) {
+            throw new BatchException("Unable to read from " + file);
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new BatchException("Invalid farm in " + file + ": " + e.getMessage());
+        }
+        result.append("ok\tload\t").append(file);
+    }
+
+    // EFFECTS: returns the plantable crop with the given name, throws BatchException if there is none
+    private Crop findCrop(String name) throws BatchException {
+        Crop crop = farm.getPlantableCrops().find(name);
+        if (crop == null) {
+            throw new BatchException("Crop not found: " + name);
+        }
+        return crop;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes an error result for the command read on line
+    private void fail(int line, String command, String message) throws IOException {
+        errors++;
+        result.setLength(0);
+        result.append("error\t").append(line).append('\t').append(command).append('\t').append(message);
+        writeResult();
+    }
+
+    // EFFECTS: writes this.result as one line
+    private void writeResult() throws IOException {
+        result.append('\n');
+        out.append(result);
+    }
+
+    /*
+     * Represents a command that could not be run, with the reason
+     */
+    private static class BatchException extends Exception {
+        BatchException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package ui;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.*;
+import persistence.*;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+import org.json.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import exception.*;
+
+/*
+ * Represents a headless server that runs many named farms and drives them through a JSON API on the loopback
+ * interface (see the README for its requests).
+ */
+@ExcludeFromJacocoGeneratedReport
+public class FarmServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final String DEFAULT_DATA_DIR = "./data/farms";
+    private static final int BACKLOG = 4096;
+    private static final int LOG_CAPACITY = 1024;
+    private static final Pattern FARM_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String dataDir;
+    private ConcurrentMap<String, FarmEntry> farms;
+
+    /*
+     * Represents a named farm: the farm itself, changed only while holding this
+     * entry's lock, and the latest snapshot of it, which anyone may read
+     */
+    private static class FarmEntry {
+        private Farm farm;
+        private volatile Farm published;
+
+        FarmEntry(Farm farm) {
+            this.farm = farm;
+            publish();
+        }
+
+        // REQUIRES: the caller holds this entry's lock
+        // MODIFIES: this
+        // EFFECTS: makes a snapshot of the farm as it is now the one readers see
+        void publish() {
+            published = farm.snapshot();
+        }
+    }
+
+    /*
+     * Represents a request that cannot be served, with the HTTP status to
+     * answer it with
+     */
+    private static class RequestException extends Exception {
+        private int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /*
+     * EFFECTS: constructs a server that listens on the given port of the
+     * loopback interface and saves farms in dataDir; call start to begin
+     */
+    public FarmServer(int port, String dataDir) throws IOException {
+        this.dataDir = dataDir;
+        farms = new ConcurrentHashMap<String, FarmEntry>();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.createContext("/farms", this::handle);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+    }
+
+    /*
+     * EFFECTS: runs a server on the port given as the first argument (8080 if
+     * none) until the process is stopped
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        FarmServer farmServer = new FarmServer(port, DEFAULT_DATA_DIR);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> farmServer.stop(1)));
+        farmServer.start();
+        System.out.println("Farm server listening on http://127.0.0.1:" + farmServer.getPort() + "/farms");
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: stops accepting requests, waits up to delaySeconds for the ones
+     * in progress and stops the request threads
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /*
+     * EFFECTS: returns an executor that runs each task on a new virtual thread
+     * if the runtime has them (Java 21 and later), and otherwise a pool of
+     * platform threads sized to the processors, as requests are short and never
+     * wait on anything but the farm they change
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(4 * Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: serves one request, answering with a JSON body; failures,
+     * including unexpected ones, are answered with {"error": message}
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            body = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), exchange);
+        } catch (RequestException e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (JSONException | NonPositiveAreaException | IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (FilledFarmException e) {
+            status = 409;
+            body = error("Not enough farm area available");
+        } catch (InsufficientSeedsException e) {
+            status = 409;
+            body = error("Not enough seeds available");
+        } catch (IOException e) {
+            status = 500;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error("Internal error: " + e);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: runs the request for method and path, one of GET /farms and
+     * POST or GET /farms/{name}, GET or POST /farms/{name}/catalog and POST
+     * /farms/{name}/plant, advance, save or load, and returns the JSON to
+     * answer it with, throws RequestException if there is no such request
+     */
+    private String route(String method, String path, HttpExchange exchange) throws RequestException, IOException,
+            NonPositiveAreaException, FilledFarmException, InsufficientSeedsException {
+        String[] parts = path.replaceAll("^/+|/+$", "").split("/+");
+        if (!parts[0].equals("farms") || parts.length > 3) {
+            throw new RequestException(404, "No such resource: " + path);
+        }
+        if (parts.length == 1) {
+            expect(method, "GET");
+            return listFarms();
+        }
+        String name = parts[1];
+        if (!FARM_NAME.matcher(name).matches()) {
+            throw new RequestException(400, "Invalid farm name: " + name);
+        }
+        String action = parts.length > 2 ? parts[2] : "";
+        switch (action) {
+            case "":
+                if (method.equals("POST")) {
+                    return createFarm(name, readBody(exchange));
+                }
+                expect(method, "GET");
+                return status(name, find(name).published);
+            case "catalog":
+                if (method.equals("POST")) {
+                    return addCrop(find(name), readBody(exchange));
+                }
+                expect(method, "GET");
+                return catalog(find(name).published);
+            case "plant":
+                expect(method, "POST");
+                return plant(name, find(name), readBody(exchange));
+            case "advance":
+                expect(method, "POST");
+                return advance(name, find(name), readBody(exchange));
+            case "save":
+                expect(method, "POST");
+                return save(name, find(name));
+            case "load":
+                expect(method, "POST");
+                return load(name);
+            default:
+                throw new RequestException(404, "No such resource: " + path);
+        }
+    }
+
+    /*
+     * EFFECTS: returns the names of the farms, in order
+     */
+    private String listFarms() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        json.beginObject().name("farms").beginArray();
+        for (String name : new TreeSet<String>(farms.keySet())) {
+            json.value(name);
+        }
+        json.endArray().endObject().close();
+        return out.toString();
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: creates an empty farm of the area given in body, throws
+     * RequestException if there already is a farm with that name
+     */
+    private String createFarm(String name, JSONObject body) throws RequestException, IOException {
+        int area = body.getInt("area");
+        if (area < 0) {
+            throw new IllegalArgumentException("Area cannot be negative");
+        }
+        Farm farm = new Farm(area, Farm.Storage.ARRAYS);
+        farm.setEventLog(EventLog.createScoped(LOG_CAPACITY));
+        FarmEntry entry = new FarmEntry(farm);
+        if (farms.putIfAbsent(name, entry) != null) {
+            throw new RequestException(409, "Farm already exists: " + name);
+        }
+        return status(name, entry.published);
+    }
+
+    /*
+     * MODIFIES: entry
+     * EFFECTS: adds the crop described by body to the plantable crops of the
+     * farm and returns its catalog
+     */
+    private String addCrop(FarmEntry entry, JSONObject body) throws IOException {
+        Crop crop = new Crop(body.getString("name"), body.getInt("revenue"), body.getInt("seeds"),
+                body.getInt("timeRequired"));
+        Farm snapshot;
+        synchronized (entry) {
+            entry.farm.addPlantableCrop(crop);
+            entry.publish();
+            snapshot = entry.published;
+        }
+        return catalog(snapshot);
+    }
+
+    /*
+     * MODIFIES: entry
+     * EFFECTS: plants the area given in body of the plantable crop named in
+     * body and returns the status of the farm, throws RequestException if the
+     * farm has no such crop, InsufficientSeedsException if the crop has fewer
+     * seeds than the area and FilledFarmException if the farm has less room
+     */
+    private String plant(String name, FarmEntry entry, JSONObject body) throws RequestException, IOException,
+            NonPositiveAreaException, FilledFarmException, InsufficientSeedsException {
+        String cropName = body.getString("crop");
+        int area = body.getInt("area");
+        Farm snapshot;
+        synchronized (entry) {
+            Crop crop = entry.farm.getPlantableCrops().find(cropName);
+            if (crop == null) {
+                throw new RequestException(404, "No such crop: " + cropName);
+            }
+            if (crop.getSeeds() < area) {
+                throw new InsufficientSeedsException();
+            }
+            if (area > entry.farm.remainingArea()) {
+                throw new FilledFarmException();
+            }
+            entry.farm.plant(crop, area);
+            entry.publish();
+            snapshot = entry.published;
+        }
+        return status(name, snapshot);
+    }
+
+    /*
+     * MODIFIES: entry
+     * EFFECTS: advances the farm by the quarters given in body and returns its
+     * status along with what was harvested
+     */
+    private String advance(String name, FarmEntry entry, JSONObject body) throws IOException {
+        int quarters = body.getInt("quarters");
+        Harvest harvest;
+        Farm snapshot;
+        synchronized (entry) {
+            harvest = entry.farm.advance(quarters);
+            entry.publish();
+            snapshot = entry.published;
+        }
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        json.beginObject();
+        json.name("harvestedCrops").value(harvest.getCrops());
+        json.name("harvestRevenue").value(harvest.getRevenue());
+        writeStatus(json.name("farm"), name, snapshot);
+        json.endObject().close();
+        return out.toString();
+    }
+
+    /*
+     * EFFECTS: writes the latest snapshot of the farm to a temporary file of
+     * its own, moves it over the farm's file in one step, so concurrent saves
+     * never mix and a load never reads a partly written file, and returns
+     * where it was written
+     */
+    private String save(String name, FarmEntry entry) throws IOException {
+        Path directory = Files.createDirectories(Paths.get(dataDir));
+        String file = fileOf(name);
+        Path temporary = Files.createTempFile(directory, name + ".", ".tmp");
+        try {
+            JsonWriter writer = new JsonWriter(temporary.toString());
+            writer.open();
+            try {
+                writer.write(entry.published);
+            } finally {
+                writer.close();
+            }
+            Files.move(temporary, Paths.get(file), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return saved(name, file);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: replaces the farm with the one saved in its file, creating the
+     * farm if there is none, and returns where it was read from; throws
+     * RequestException if the farm was never saved
+     */
+    private String load(String name) throws RequestException, IOException {
+        String file = fileOf(name);
+        if (!new File(file).isFile()) {
+            throw new RequestException(404, "No saved farm: " + name);
+        }
+        Farm loaded = new JsonReader(file, Farm.Storage.ARRAYS).read();
+        loaded.setEventLog(EventLog.createScoped(LOG_CAPACITY));
+        FarmEntry entry = farms.computeIfAbsent(name, n -> new FarmEntry(loaded));
+        synchronized (entry) {
+            if (entry.farm != loaded) {
+                entry.farm = loaded;
+                entry.publish();
+            }
+        }
+        return saved(name, file);
+    }
+
+    /*
+     * EFFECTS: returns the farm with the given name, throws RequestException if
+     * there is none
+     */
+    private FarmEntry find(String name) throws RequestException {
+        FarmEntry entry = farms.get(name);
+        if (entry == null) {
+            throw new RequestException(404, "No such farm: " + name);
+        }
+        return entry;
+    }
+
+    /*
+     * EFFECTS: throws RequestException if method is not the expected one
+     */
+    private static void expect(String method, String expected) throws RequestException {
+        if (!method.equals(expected)) {
+            throw new RequestException(405, "Method not allowed: " + method);
+        }
+    }
+
+    /*
+     * EFFECTS: returns the body of the request as a JSON object, an empty one if
+     * there is no body
+     */
+    private static JSONObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return text.isBlank() ? new JSONObject() : new JSONObject(text);
+        }
+    }
+
+    private String fileOf(String name) {
+        return dataDir + "/" + name + ".json";
+    }
+
+    /*
+     * EFFECTS: returns the status of the farm with the given name
+     */
+    private static String status(String name, Farm farm) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        writeStatus(json, name, farm);
+        json.close();
+        return out.toString();
+    }
+
+    /*
+     * MODIFIES: json
+     * EFFECTS: writes the status of farm as a JSON object to json
+     */
+    private static void writeStatus(JsonTokenWriter json, String name, Farm farm) throws IOException {
+        json.beginObject();
+        json.name("name").value(name);
+        json.name("area").value(farm.getArea());
+        json.name("time").value(farm.getTime());
+        json.name("revenue").value(farm.getRevenue());
+        json.name("plantedArea").value(farm.getPlantedArea());
+        json.name("remainingArea").value(farm.remainingArea());
+        json.name("plantings").value(farm.getPlantedCropCount());
+        json.name("plantedAreaByCrop").beginObject();
+        for (Map.Entry<String, Integer> entry : farm.getPlantedAreaByCrop().entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue());
+        }
+        json.endObject();
+        json.endObject();
+    }
+
+    /*
+     * EFFECTS: returns the plantable crops of farm
+     */
+    private static String catalog(Farm farm) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        json.beginObject().name("crops").beginArray();
+        for (Crop crop : farm.getPlantableCrops()) {
+            crop.writeJson(json);
+        }
+        json.endArray().endObject().close();
+        return out.toString();
+    }
+
+    private static String saved(String name, String file) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        json.beginObject().name("name").value(name).name("file").value(file).endObject().close();
+        return out.toString();
+    }
+
+    private static String error(String message) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        json.beginObject().name("error").value(String.valueOf(message)).endObject().close();
+        return out.toString();
+    }
+}
@@ -1,10 +1,18 @@
 package ui;
 
+import java.io.IOException;
+import java.util.Arrays;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 
 @ExcludeFromJacocoGeneratedReport
 public class Main {
-    public static void main(String[] args) {
-        new FarmApp();
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            FarmBatch.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (args.length > 0 && args[0].equals("--generate")) {
+            FarmGenerate.main(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            new FarmApp();
+        }
     }
 }
\ No newline at end of file
@@ -3,7 +3,10 @@ package ui.gui.components;
 import javax.swing.*;
 import java.awt.BorderLayout;
 import java.awt.event.*;
+import java.io.IOException;
 import model.*;
+import persistence.AutosaveService;
+import persistence.EventLogAppender;
 import ui.gui.components.panels.*;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 
@@ -12,21 +15,59 @@ import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
  * Represents the main window in which the farm is simulated
  */
 public class FarmAppGUI extends JFrame {
+    public static final String AUTOSAVE_STORE = "./data/autosave.json";
+    private static final long AUTOSAVE_DELAY_MILLIS = 2000;
+    public static final String EVENT_LOG_FILE = "./data/events.log";
+    private static final long EVENT_LOG_MAX_BYTES = 1 << 20;
+    private static final int EVENT_LOG_BACKUPS = 4;
+    private static final long EVENT_LOG_FLUSH_MILLIS = 1000;
     private Farm farm;
     private StatusPanel statusPanel;
     private FarmPanel farmPanel;
     private ControlPanel controlPanel;
+    private AutosaveService autosaveService;
+    private EventLogAppender eventLogAppender;
 
     /*
      * EFFECTS: constructs main farm simulator window and initializes all components
      */
     public FarmAppGUI() {
         super("Farm Simulator");
-        this.farm = new Farm(0);
+        setupEventLogAppender();
+        this.farm = new Farm(0, Farm.Storage.ARRAYS);
         initializeGUI();
+        setupAutosave();
         setupWindowListener();
     }
 
+    /*
+     * MODIFIES: this
+     * EFFECTS: starts writing the event log to EVENT_LOG_FILE in the background,
+     * carrying on without it if the file cannot be opened
+     */
+    private void setupEventLogAppender() {
+        eventLogAppender = new EventLogAppender(EVENT_LOG_FILE, EVENT_LOG_MAX_BYTES, EVENT_LOG_BACKUPS,
+                EVENT_LOG_FLUSH_MILLIS);
+        try {
+            eventLogAppender.start();
+        } catch (IOException e) {
+            System.out.println("Unable to write event log: " + e.getMessage());
+            eventLogAppender = null;
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: starts autosaving the farm in the background, showing the time of
+     * the last autosave in the status panel
+     */
+    private void setupAutosave() {
+        autosaveService = new AutosaveService(AUTOSAVE_STORE, AUTOSAVE_DELAY_MILLIS, SwingUtilities::invokeLater);
+        autosaveService.setSaveCallback(() -> statusPanel.showLastAutosave(autosaveService.getLastSaveTime(),
+                autosaveService.getLastError()));
+        autosaveService.watch(farm);
+    }
+
     /*
      * MODIFIES: this
      * EFFECTS: initializes all GUI components and sets up window layout
@@ -45,45 +86,44 @@ public class FarmAppGUI extends JFrame {
 
     /*
      * MODIFIES: this
-     * EFFECTS: sets up window listener to print event log when application closes
+     * EFFECTS: sets up window listener to save the farm and write the rest of the
+     * event log when application closes
      */
     private void setupWindowListener() {
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                printEventLog();
+                closeAutosave();
+                closeEventLogAppender();
             }
         });
     }
 
     /*
-     * EFFECTS: prints all events from the event log to console when application
-     * closes
+     * MODIFIES: this
+     * EFFECTS: saves the latest changes and stops autosaving
      */
-    private void printEventLog() {
-        System.out.println("=== FARM SIMULATOR EVENT LOG ===");
-        System.out.println("Application closed at: " + java.time.LocalDateTime.now());
-        System.out.println("--------------------------------");
-        EventLog eventLog = EventLog.getInstance();
-        
-        for (Event event : eventLog) {
-            System.out.println(event.toString());
-            System.out.println("--------------------------------");
+    private void closeAutosave() {
+        try {
+            autosaveService.close();
+        } catch (IOException e) {
+            System.out.println("Unable to autosave farm: " + e.getMessage());
         }
-
-        System.out.println("Total events recorded: " + getEventCount(eventLog));
-        System.out.println("=== END OF EVENT LOG ===");
     }
 
     /*
-     * EFFECTS: returns the number of events in the event log
+     * MODIFIES: this
+     * EFFECTS: writes the events logged so far and stops writing the event log
      */
-    private int getEventCount(EventLog eventLog) {
-        int count = 0;
-        for (Event event : eventLog) {
-            count++;
+    private void closeEventLogAppender() {
+        if (eventLogAppender == null) {
+            return;
+        }
+        try {
+            eventLogAppender.close();
+        } catch (IOException e) {
+            System.out.println("Unable to write event log: " + e.getMessage());
         }
-        return count;
     }
 
     /*
@@ -138,6 +178,7 @@ public class FarmAppGUI extends JFrame {
      */
     public void updateAllPanelsFarmReference(Farm newFarm) {
         this.farm = newFarm;
+        autosaveService.watch(newFarm);
         statusPanel.setFarm(newFarm);
         farmPanel.setFarm(newFarm);
         controlPanel.setFarm(newFarm);
@@ -13,6 +13,8 @@ import java.io.*;
 
 @ExcludeFromJacocoGeneratedReport
 public class ControlPanel extends Panel {
+    private static final String JSON_STORE = "./data/farm.json";
+    private static final String JOURNAL_STORE = "./data/journal";
     private JComboBox<Crop> cropComboBox;
     private JTextField areaField;
     private JButton plantButton;
@@ -26,6 +28,7 @@ public class ControlPanel extends Panel {
     private FarmAppGUI farmAppGUI;
     private CropManager cropManager;
     private PlantingManager plantingManager;
+    private FarmJournal farmJournal;
 
     /*
      * EFFECTS: constructs control panel with farm reference
@@ -35,6 +38,7 @@ public class ControlPanel extends Panel {
         this.farmAppGUI = farmAppGUI;
         this.cropManager = new CropManager(farm, this::notifyFarmChanged);
         this.plantingManager = new PlantingManager(farm, this::notifyFarmChanged);
+        this.farmJournal = new FarmJournal(JOURNAL_STORE);
         initializeComponents();
         updateDisplay();
     }
@@ -275,19 +279,17 @@ public class ControlPanel extends Panel {
 
     /*
      * MODIFIES: farm, this
-     * EFFECTS: saves farm data to file
+     * EFFECTS: saves farm data to the journal, appending only the changes made
+     * since the previous save of the same farm
      */
     private void handleSaveFarm() {
         try {
-            JsonWriter jsonWriter = new JsonWriter("./data/farm.json");
-            jsonWriter.open();
-            jsonWriter.write(farm);
-            jsonWriter.close();
-            EventLog.getInstance().logEvent(new Event("Farm saved to file: ./data/farm.json"));
+            farmJournal.save(farm);
+            EventLog.getInstance().logEvent(new Event("Farm saved to journal: " + JOURNAL_STORE));
             String[] options = { "OK" };
-            DialogUtils.showCustomConfirmDialog(this, "Farm saved successfully to ./data/farm.json", "Save Successful",
-                    options, options[0]);
-        } catch (FileNotFoundException e) {
+            DialogUtils.showCustomConfirmDialog(this, "Farm saved successfully to " + JOURNAL_STORE,
+                    "Save Successful", options, options[0]);
+        } catch (IOException e) {
             DialogUtils.showMessageDialog(this, "Unable to save farm data: " + e.getMessage(), "Save Error",
                     JOptionPane.ERROR_MESSAGE);
         }
@@ -295,20 +297,22 @@ public class ControlPanel extends Panel {
 
     /*
      * MODIFIES: farm, this
-     * EFFECTS: loads farm data from file and ensures proper synchronization
+     * EFFECTS: loads farm data from the newest of the journal and the autosave,
+     * or from the JSON file if neither exists, and ensures proper synchronization
      */
     private void handleLoadFarm() {
         try {
-            JsonReader jsonReader = new JsonReader("./data/farm.json");
-            Farm loadedFarm = jsonReader.read();
+            String source = newestSave();
+            Farm loadedFarm = source.equals(JOURNAL_STORE) ? farmJournal.load(Farm.Storage.ARRAYS)
+                    : new JsonReader(source, Farm.Storage.ARRAYS).read();
             farmAppGUI.updateAllPanelsFarmReference(loadedFarm);
-            EventLog.getInstance().logEvent(new Event("Farm loaded from file: ./data/farm.json"));
+            EventLog.getInstance().logEvent(new Event("Farm loaded from: " + source));
             SwingUtilities.invokeLater(() -> {
                 updateDisplay();
                 notifyFarmChanged();
             });
             String[] options = { "OK" };
-            DialogUtils.showCustomConfirmDialog(this, "Farm loaded successfully from ./data/farm.json",
+            DialogUtils.showCustomConfirmDialog(this, "Farm loaded successfully from " + source,
                     "Load Successful", options, options[0]);
         } catch (IOException e) {
             DialogUtils.showMessageDialog(this, "Unable to load farm data: " + e.getMessage(), "Load Error",
@@ -316,6 +320,20 @@ public class ControlPanel extends Panel {
         }
     }
 
+    /*
+     * EFFECTS: returns the newest of the journal and the autosave, or the JSON
+     * file if neither exists
+     */
+    private String newestSave() throws IOException {
+        long journalTime = farmJournal.lastModified();
+        File autosave = new File(FarmAppGUI.AUTOSAVE_STORE);
+        long autosaveTime = autosave.exists() ? autosave.lastModified() : -1;
+        if (journalTime < 0 && autosaveTime < 0) {
+            return JSON_STORE;
+        }
+        return journalTime >= autosaveTime ? JOURNAL_STORE : FarmAppGUI.AUTOSAVE_STORE;
+    }
+
     /*
      * MODIFIES: this
      * EFFECTS: updates display and notifies other panels
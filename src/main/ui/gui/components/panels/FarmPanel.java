@@ -56,19 +56,10 @@ public class FarmPanel extends Panel {
         g2d.setColor(Color.BLACK);
         g2d.setFont(new Font("Arial", Font.BOLD, 12));
         g2d.drawString("Farm Area: " + farm.getArea() + " sq km", PANEL_PADDING, PANEL_PADDING + 12);
-        g2d.drawString("Planted: " + getTotalPlantedArea() + " sq km", PANEL_PADDING + 150, PANEL_PADDING + 12);
+        g2d.drawString("Planted: " + farm.getPlantedArea() + " sq km", PANEL_PADDING + 150, PANEL_PADDING + 12);
         g2d.drawString("Available: " + farm.remainingArea() + " sq km", PANEL_PADDING + 300, PANEL_PADDING + 12);
     }
 
-    /*
-     * EFFECTS: calculates and returns the total planted area across all crops
-     */
-    private int getTotalPlantedArea() {
-        return farm.getPlantedCrops().stream()
-                .mapToInt(PlantedCrop::getPlantedArea)
-                .sum();
-    }
-
     /*
      * EFFECTS: draws the farm area visualization including crop rectangles and
      * empty area, or displays appropriate messages if farm has no area or no crops
@@ -105,9 +96,7 @@ public class FarmPanel extends Panel {
             if (mergedMap.containsKey(key)) {
                 PlantedCrop existing = mergedMap.get(key);
                 int mergedArea = existing.getPlantedArea() + crop.getPlantedArea();
-                PlantedCrop mergedCrop = new PlantedCrop(
-                        new Crop(crop.getName(), crop.getRevenue(), crop.getSeeds(), crop.getTimeRequired()),
-                        mergedArea);
+                PlantedCrop mergedCrop = new PlantedCrop(crop.getType(), crop.getSeeds(), mergedArea);
                 mergedCrop.setTimeGrown(crop.getTimeGrown());
                 mergedMap.put(key, mergedCrop);
             } else {
@@ -136,7 +125,7 @@ public class FarmPanel extends Panel {
     private void drawCropsAndEmptyArea(Graphics g, int x, int y, int width, int height, List<PlantedCrop> crops,
             int farmArea) {
         int currentY = y;
-        int totalPlantedArea = getTotalPlantedArea();
+        int totalPlantedArea = farm.getPlantedArea();
 
         for (PlantedCrop crop : crops) {
             int cropHeight = calculateCropHeight(crop.getPlantedArea(), farmArea, height);
@@ -1,6 +1,8 @@
 package ui.gui.components.panels;
 
 import javax.swing.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 import model.Farm;
 import ui.gui.utils.FormatUtils;
@@ -12,6 +14,7 @@ public class StatusPanel extends Panel {
     private JLabel revenueLabel;
     private JLabel areaLabel;
     private JLabel availableLabel;
+    private JLabel autosaveLabel;
 
     /*
      * EFFECTS: constructs status panel with farm reference and initializes
@@ -28,7 +31,7 @@ public class StatusPanel extends Panel {
      * EFFECTS: initializes and arranges all GUI components for status display
      */
     private void initializeComponents() {
-        setLayout(new GridLayout(4, 2));
+        setLayout(new GridLayout(5, 2));
         setBorder(BorderFactory.createTitledBorder("Farm Status"));
         add(new JLabel("Current Quarter:"));
         timeLabel = new JLabel();
@@ -42,6 +45,20 @@ public class StatusPanel extends Panel {
         add(new JLabel("Available Area:"));
         availableLabel = new JLabel();
         add(availableLabel);
+        add(new JLabel("Last Autosave:"));
+        autosaveLabel = new JLabel("Never");
+        add(autosaveLabel);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: shows when the farm was last autosaved, and the error of the
+     * latest autosave if it failed; safe to call from any thread
+     */
+    public void showLastAutosave(Date lastSaveTime, Exception lastError) {
+        String time = lastSaveTime == null ? "Never" : new SimpleDateFormat("HH:mm:ss").format(lastSaveTime);
+        String text = lastError == null ? time : time + " (failed: " + lastError.getMessage() + ")";
+        SwingUtilities.invokeLater(() -> autosaveLabel.setText(text));
     }
 
     /*
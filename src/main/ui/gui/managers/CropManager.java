@@ -73,11 +73,8 @@ public class CropManager {
      * name already exists
      */
     private void createCrop(Crop crop, JComponent parent) throws CropDuplicateException {
-
-        for (Crop existingCrop : farm.getPlantableCrops()) {
-            if (existingCrop.getName().equalsIgnoreCase(crop.getName())) {
-                throw new CropDuplicateException("Crop with name '" + crop.getName() + "' already exists");
-            }
+        if (farm.getPlantableCrops().find(crop.getName()) != null) {
+            throw new CropDuplicateException("Crop with name '" + crop.getName() + "' already exists");
         }
 
         try {
@@ -113,7 +110,6 @@ public class CropManager {
      */
     private void replaceExistingCrop(JComponent parent, Crop crop) {
         try {
-            farm.getPlantableCrops().removeIf(lambdaCrop -> crop.getName().equalsIgnoreCase(crop.getName()));
             Crop newCrop = new Crop(crop.getName(), crop.getRevenue(), crop.getSeeds(),
                     crop.getTimeRequired());
             farm.addPlantableCrop(newCrop);
@@ -140,7 +136,7 @@ public class CropManager {
         Integer amount = dialog.showDialog(parent);
         if (amount != null) {
             try {
-                crop.addSeeds(amount);
+                farm.addSeeds(crop, amount);
                 notifyUpdate();
                 showSeedsAddedMessage(parent, crop, amount);
             } catch (NonPositiveAreaException e) {
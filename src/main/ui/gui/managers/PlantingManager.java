@@ -49,9 +49,10 @@ public class PlantingManager {
      * EFFECTS: validates planting conditions and returns true if valid
      */
     private boolean validatePlanting(Crop selectedCrop, int area, JComponent parent) {
-        if (area > farm.remainingArea()) {
+        int remainingArea = farm.remainingArea();
+        if (area > remainingArea) {
             DialogUtils.showMessageDialog(parent,
-                    "Not enough farm area available. Available: " + farm.remainingArea() + " sq km",
+                    "Not enough farm area available. Available: " + remainingArea + " sq km",
                     "Insufficient Area", JOptionPane.ERROR_MESSAGE);
             return false;
         }
@@ -0,0 +1,60 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+
+@ExcludeFromJacocoGeneratedReport
+public class ArrayPlotStoreTest {
+    private ArrayPlotStore testStore;
+    private Crop testCrop1;
+    private Crop testCrop2;
+
+    @BeforeEach
+    void runBefore() {
+        testStore = new ArrayPlotStore();
+        testCrop1 = new Crop("testName1", 10, 100000, 2);
+        testCrop2 = new Crop("testName2", 20, 100000, 3);
+    }
+
+    @Test
+    void testOneTypePerCropTypeWhateverTheSeeds() {
+        for (int i = 0; i < 1000; i++) {
+            Crop crop = i % 2 == 0 ? testCrop1 : testCrop2;
+            testStore.plant(crop, 1, 2 + i % 3);
+            crop.seeds--;
+        }
+        assertEquals(2, testStore.typeCount());
+        assertEquals(100000, testStore.plantedCrops(0).get(0).getSeeds());
+        assertEquals(100000, testStore.plantedCrops(0).get(1).getSeeds());
+        assertEquals(99999, testStore.plantedCrops(0).get(2).getSeeds());
+        assertEquals(99501, testStore.plantedCrops(0).get(999).getSeeds());
+
+        Harvest harvest = testStore.harvest(2, 2);
+        assertEquals(334, harvest.getCrops());
+        assertEquals(666, testStore.size());
+        testStore.clear();
+        assertEquals(0, testStore.size());
+        assertEquals(0, testStore.typeCount());
+    }
+
+    @Test
+    void testRepeatedSnapshotsShareRows() {
+        ArrayPlotStore previous = (ArrayPlotStore) testStore.snapshot(0);
+        int copies = 0;
+        for (int i = 0; i < 1000; i++) {
+            testStore.plant(testCrop1, 1, 2);
+            if (!previous.sharesRowsWith(testStore)) {
+                copies++;
+            }
+            previous = (ArrayPlotStore) testStore.snapshot(0);
+            assertTrue(previous.sharesRowsWith(testStore));
+        }
+        assertEquals(6, copies);
+
+        testStore.harvest(2, 2);
+        assertFalse(previous.sharesRowsWith(testStore));
+        assertEquals(0, testStore.size());
+        assertEquals(1000, previous.size());
+    }
+}
@@ -0,0 +1,93 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+
+@ExcludeFromJacocoGeneratedReport
+public class CropCatalogTest {
+    private CropCatalog testCatalog;
+    private Crop testCrop1;
+    private Crop testCrop2;
+    private Crop testCrop3;
+
+    @BeforeEach
+    void runBefore() {
+        testCatalog = new CropCatalog();
+        testCrop1 = new Crop("testName1", 10, 100, 2);
+        testCrop2 = new Crop("testName2", 20, 300, 3);
+        testCrop3 = new Crop("testName3", 30, 500, 4);
+        testCatalog.add(testCrop1);
+        testCatalog.add(testCrop2);
+        testCatalog.add(testCrop3);
+    }
+
+    @Test
+    void testFind() {
+        assertSame(testCrop2, testCatalog.find("testName2"));
+        assertSame(testCrop2, testCatalog.find("TESTNAME2"));
+        assertNull(testCatalog.find("testName4"));
+        assertNull(testCatalog.find(null));
+    }
+
+    @Test
+    void testInsertionOrder() {
+        assertEquals(3, testCatalog.size());
+        assertEquals(Arrays.asList(testCrop1, testCrop2, testCrop3), new ArrayList<Crop>(testCatalog));
+        assertSame(testCrop3, testCatalog.get(2));
+    }
+
+    @Test
+    void testPutReplacesInPlace() {
+        Crop replacement = new Crop("TestName2", 25, 50, 1);
+        assertSame(testCrop2, testCatalog.put(replacement));
+        assertEquals(3, testCatalog.size());
+        assertSame(replacement, testCatalog.get(1));
+        assertSame(replacement, testCatalog.find("testName2"));
+        assertNull(testCatalog.put(new Crop("testName4", 1, 1, 1)));
+        assertEquals(4, testCatalog.size());
+    }
+
+    @Test
+    void testRemove() {
+        assertSame(testCrop2, testCatalog.remove("TESTNAME2"));
+        assertNull(testCatalog.remove("testName2"));
+        assertEquals(2, testCatalog.size());
+        assertNull(testCatalog.find("testName2"));
+        assertSame(testCrop3, testCatalog.get(1));
+        assertSame(testCrop3, testCatalog.find("testName3"));
+        testCatalog.add(testCrop2);
+        assertEquals(Arrays.asList(testCrop1, testCrop3, testCrop2), new ArrayList<Crop>(testCatalog));
+    }
+
+    @Test
+    void testListStyleRemoval() {
+        assertTrue(testCatalog.remove((Object) testCrop1));
+        assertFalse(testCatalog.remove((Object) new Crop("testName3", 30, 0, 4)));
+        assertTrue(testCatalog.removeIf(c -> c.getRevenue() > 25));
+        assertEquals(Arrays.asList(testCrop2), new ArrayList<Crop>(testCatalog));
+        assertSame(testCrop2, testCatalog.remove(0));
+        assertTrue(testCatalog.isEmpty());
+    }
+
+    @Test
+    void testContains() {
+        assertTrue(testCatalog.contains(testCrop1));
+        assertFalse(testCatalog.contains(new Crop("testName1", 10, 0, 2)));
+        assertFalse(testCatalog.contains("testName1"));
+    }
+
+    @Test
+    void testClear() {
+        testCatalog.clear();
+        assertTrue(testCatalog.isEmpty());
+        assertNull(testCatalog.find("testName1"));
+    }
+
+    @Test
+    void testFindCropByName() {
+        assertSame(testCrop1, Crop.findCropByName(testCatalog, "TESTNAME1"));
+        assertNull(Crop.findCropByName(testCatalog, "testName4"));
+    }
+}
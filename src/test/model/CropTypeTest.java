@@ -0,0 +1,80 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+
+@ExcludeFromJacocoGeneratedReport
+public class CropTypeTest {
+    private CropType testType;
+
+    @BeforeEach
+    void runBefore() {
+        testType = CropType.of("testType", 10, 2);
+    }
+
+    @Test
+    void testOf() {
+        assertEquals("testType", testType.getName());
+        assertEquals(10, testType.getRevenue());
+        assertEquals(2, testType.getTimeRequired());
+    }
+
+    @Test
+    void testOfInterned() {
+        assertSame(testType, CropType.of(new String("testType"), 10, 2));
+        assertNotSame(testType, CropType.of("testType", 20, 2));
+        assertNotSame(testType, CropType.of("testType", 10, 3));
+        assertNotSame(testType, CropType.of("TestType", 10, 2));
+    }
+
+    @Test
+    void testById() {
+        assertSame(testType, CropType.byId(testType.getId()));
+    }
+
+    @Test
+    void testOfInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> CropType.of(null, 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> CropType.of(" ", 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> CropType.of("testType", -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> CropType.of("testType", 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> CropType.of("testType", 10, 5));
+    }
+
+    @Test
+    void testSharedByCropsAndPlantedCrops() {
+        Crop crop = new Crop("testType", 10, 100, 2);
+        PlantedCrop plantedCrop = new PlantedCrop(crop, 50);
+        assertSame(testType, crop.getType());
+        assertSame(testType, plantedCrop.getType());
+        assertEquals(100, plantedCrop.getSeeds());
+    }
+
+    @Test
+    void testCollectedTypesAreDropped() {
+        CropType dropped = CropType.of("testDropped", 10, 2);
+        CropType kept = CropType.of("testDropped", 20, 2);
+        int droppedId = dropped.getId();
+        CropType.expire(dropped);
+        assertNull(CropType.byId(droppedId));
+        assertTrue(CropType.isRegistered(droppedId));
+
+        CropType.of("testTrigger", 10, 2); // registering drops the collected types
+        assertFalse(CropType.isRegistered(droppedId));
+        assertTrue(CropType.isRegistered(kept.getId()));
+        assertSame(kept, CropType.of("testDropped", 20, 2));
+        assertSame(testType, CropType.of("testType", 10, 2));
+        assertSame(testType, CropType.byId(testType.getId()));
+        CropType again = CropType.of("testDropped", 10, 2);
+        assertEquals("testDropped", again.getName());
+        assertNotEquals(droppedId, again.getId());
+        assertSame(again, CropType.byId(again.getId()));
+    }
+
+
+    @Test
+    void testToString() {
+        assertEquals("testType - $10 - 2q", testType.toString());
+    }
+}
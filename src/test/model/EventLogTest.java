@@ -1,6 +1,8 @@
 package model;
 
 import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.*;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,4 +48,228 @@ public class EventLogTest {
         assertEquals("Event log cleared.", itr.next().getDescription());
         assertFalse(itr.hasNext());
     }
+
+    @Test
+    public void testCapacityEvictsOldest() {
+        EventLog el = EventLog.getInstance();
+        try {
+            el.clear();
+            el.setCapacity(3);
+            for (int i = 0; i < 5; i++) {
+                el.logEvent(new Event("B" + i));
+            }
+            List<String> l = new ArrayList<String>();
+            for (Event next : el) {
+                l.add(next.getDescription());
+            }
+            assertEquals(Arrays.asList("B2", "B3", "B4"), l);
+            assertEquals(3, el.size());
+            assertEquals(3, el.getEvictedCount());
+
+            el.setCapacity(2);
+            assertEquals(2, el.size());
+            assertEquals(4, el.getEvictedCount());
+            assertEquals("B3", el.iterator().next().getDescription());
+
+            el.clear();
+            assertEquals(1, el.size());
+            assertEquals(0, el.getEvictedCount());
+            assertEquals(2, el.getCapacity());
+        } finally {
+            el.setCapacity(0);
+        }
+    }
+
+    @Test
+    public void testUnboundedAfterCapacity() {
+        EventLog el = EventLog.getInstance();
+        el.setCapacity(2);
+        el.setCapacity(0);
+        el.clear();
+        for (int i = 0; i < 100; i++) {
+            el.logEvent(new Event("C" + i));
+        }
+        assertEquals(101, el.size());
+        assertEquals(0, el.getEvictedCount());
+        Iterator<Event> itr = el.iterator();
+        assertEquals("Event log cleared.", itr.next().getDescription());
+        assertEquals("C0", itr.next().getDescription());
+    }
+
+    @Test
+    public void testIteratorIsSnapshot() {
+        EventLog el = EventLog.getInstance();
+        el.clear();
+        Iterator<Event> itr = el.iterator();
+        el.logEvent(new Event("D"));
+        assertEquals("Event log cleared.", itr.next().getDescription());
+        assertFalse(itr.hasNext());
+        assertThrows(UnsupportedOperationException.class, () -> itr.remove());
+    }
+
+    @Test
+    public void testConcurrentLogging() throws InterruptedException {
+        EventLog el = EventLog.getInstance();
+        el.clear();
+        int threads = 4;
+        int perThread = 10000;
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            String prefix = "T" + t + ":";
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    el.logEvent(new Event(prefix + i));
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(threads * perThread + 1, el.size());
+        int[] next = new int[threads];
+        for (Event e : el) {
+            String d = e.getDescription();
+            if (d.startsWith("T")) {
+                int t = Integer.parseInt(d.substring(1, d.indexOf(':')));
+                assertEquals(next[t]++, Integer.parseInt(d.substring(d.indexOf(':') + 1)));
+            }
+        }
+        for (int t = 0; t < threads; t++) {
+            assertEquals(perThread, next[t]);
+        }
+    }
+
+    @Test
+    public void testSpillEvicted() throws IOException {
+        EventLog el = EventLog.getInstance();
+        Path overflow = Files.createTempFile("events", ".log");
+        try {
+            el.clear();
+            el.setCapacity(2);
+            el.spillTo(overflow.toString());
+            el.logEvent(new Event("E1\nsecond line"));
+            el.logEvent(new Event("E2"));
+            el.logEvent(new Event("E3"));
+            el.stopSpilling();
+            el.logEvent(new Event("E4"));
+
+            List<String> lines = Files.readAllLines(overflow);
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(0).endsWith("\tEvent log cleared."));
+            assertTrue(lines.get(1).endsWith("\tE1\\nsecond line"));
+            assertEquals(3, el.getEvictedCount());
+        } finally {
+            el.setCapacity(0);
+            Files.delete(overflow);
+        }
+    }
+
+    @Test
+    public void testNegativeCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> EventLog.getInstance().setCapacity(-1));
+    }
+
+    @Test
+    public void testQueriesByQuarter() throws Exception {
+        EventLog el = EventLog.getInstance();
+        el.clear();
+        Farm farm = new Farm(1000);
+        Crop crop = new Crop("indexed", 10, 10000, 1);
+        farm.addPlantableCrop(crop);
+        for (int q = 0; q < 10; q++) {
+            farm.plant(crop, 10);
+            farm.timeLapses();
+        }
+        farm.reset();
+        farm.plant(crop, 20);
+        farm.timeLapses();
+        farm.plant(crop, 5);
+        farm.advance(3);
+
+        assertEquals(11, el.countInQuarters(Event.Type.HARVESTED, 1, 10));
+        assertEquals(1200, el.sumRevenueInQuarters(Event.Type.HARVESTED, 1, 10));
+        assertEquals(500, el.sumRevenueInQuarters(Event.Type.HARVESTED, 4, 8));
+        assertEquals(6, el.countInQuarters(Event.Type.HARVESTED, 0, 5));
+        assertEquals(1, el.countInQuarters(Event.Type.QUARTERS_ADVANCED, 4, 4));
+        assertEquals(50, el.sumRevenueInQuarters(Event.Type.QUARTERS_ADVANCED, 0, 100));
+        assertEquals(1000 + 200 + 50, el.harvestRevenueInQuarters(0, 100));
+        assertEquals(0, el.harvestRevenueInQuarters(11, 100));
+
+        List<Event> planted = el.getEventsInQuarters(Event.Type.PLANTED, 0, 0);
+        assertEquals(2, planted.size());
+        assertEquals("Planted 10 sq km of indexed", planted.get(0).getDescription());
+        assertEquals("Planted 20 sq km of indexed", planted.get(1).getDescription());
+        assertEquals(12, el.getEvents(Event.Type.PLANTED).size());
+        assertEquals(0, el.countInQuarters(Event.Type.FARM_RESET, 0, 100));
+    }
+
+    @Test
+    public void testQueriesByTime() {
+        EventLog el = EventLog.getInstance();
+        el.clear();
+        List<Event> logged = new ArrayList<Event>();
+        for (int i = 0; i < 50; i++) {
+            Event e = Event.harvested(1, i, i);
+            logged.add(e);
+            el.logEvent(e);
+        }
+        long from = logged.get(10).getEpochNanos();
+        long to = logged.get(19).getEpochNanos();
+        List<Event> found = el.getEvents(Event.Type.HARVESTED, from, to);
+        assertTrue(found.containsAll(logged.subList(10, 20)));
+        assertEquals(found.size(), el.count(Event.Type.HARVESTED, from, to));
+        long revenue = 0;
+        for (Event e : found) {
+            revenue += e.getRevenue();
+        }
+        assertEquals(revenue, el.sumRevenue(Event.Type.HARVESTED, from, to));
+        assertEquals(50, el.count(Event.Type.HARVESTED, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(1225, el.sumRevenue(Event.Type.HARVESTED, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, el.count(Event.Type.HARVESTED, to + 1, to));
+    }
+
+    @Test
+    public void testQueriesAfterEviction() {
+        EventLog el = EventLog.getInstance();
+        try {
+            el.clear();
+            el.setCapacity(30);
+            for (int i = 0; i < 100; i++) {
+                el.logEvent(Event.harvested(1, 1, i));
+                el.logEvent(Event.timeAdvanced(i));
+            }
+            for (int i = 0; i < 100; i++) {
+                el.logEvent(Event.harvested(1, 2, i));
+            }
+            assertEquals(30, el.countInQuarters(Event.Type.HARVESTED, 0, 100));
+            assertEquals(60, el.sumRevenueInQuarters(Event.Type.HARVESTED, 0, 100));
+            assertEquals(10, el.countInQuarters(Event.Type.HARVESTED, 75, 84));
+            assertEquals(0, el.getEvents(Event.Type.TIME_ADVANCED).size());
+            assertEquals(30, el.getEvents(Event.Type.HARVESTED).size());
+        } finally {
+            el.setCapacity(0);
+        }
+    }
+
+    @Test
+    void testScopedLogsDrainTheirOwnQueues() {
+        EventLog[] logs = new EventLog[100];
+        for (int i = 0; i < logs.length; i++) {
+            logs[i] = EventLog.createScoped(16);
+        }
+        for (int n = 0; n < 2000; n++) {
+            for (EventLog log : logs) {
+                log.logEvent(Event.timeAdvanced(n));
+            }
+        }
+        for (EventLog log : logs) {
+            assertTrue(log.getPendingCount() < 16);
+            assertEquals(16, log.size());
+            assertEquals(2000 - 16, log.getEvictedCount());
+        }
+    }
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package model;
 
 import org.junit.jupiter.api.*;
 import java.util.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for the Event class
@@ -17,6 +17,7 @@ public class EventTest {
 
     @BeforeEach
     public void runBefore() {
+        Calendar.getInstance(); // Event no longer uses Calendar, so load it before (1)
         event = new Event("Sensor open at door"); // (1)
         date = Calendar.getInstance().getTime(); // (2)
     }
@@ -31,4 +32,40 @@ public class EventTest {
     public void testToString() {
         assertEquals(date.toString() + "\n" + "Sensor open at door", event.toString());
     }
+
+    @Test
+    public void testTypedEventDescriptions() {
+        Crop crop = new Crop("wheat", 5, 100, 2);
+        assertEquals("Planted 10 sq km of wheat", Event.planted("wheat", 10, 0).getDescription());
+        assertEquals("Time advanced to quarter 3", Event.timeAdvanced(3).getDescription());
+        assertEquals("Time advanced by 4 quarters to quarter 7, harvested 2 crops, revenue: $50",
+                Event.quartersAdvanced(4, 7, 2, 50).getDescription());
+        assertEquals("Harvested 2 crops, revenue: $50", Event.harvested(2, 50, 3).getDescription());
+        assertEquals("Added 5 sq km seeds to wheat - Total seeds now: 105 sq km",
+                Event.seedsAdded("wheat", 5, 105).getDescription());
+        assertEquals("Created new crop: wheat - Revenue: $5 - Seeds: 100 sq km - Time: 2 quarters",
+                Event.cropCreated(crop).getDescription());
+        assertEquals("Created new farm with area: 500 sq km", Event.farmCreated(500).getDescription());
+        assertEquals("Farm reset to initial state", Event.farmReset().getDescription());
+        assertEquals("Farm area set to: 20 sq km", Event.areaSet(20).getDescription());
+        assertEquals("Loaded farm: 1 crops, 2 plantings", Event.farmLoaded(1, 2).getDescription());
+        assertEquals("Event log cleared.", Event.logCleared().getDescription());
+    }
+
+    @Test
+    public void testTypedEventFields() {
+        Event planted = Event.planted("wheat", 10, 4);
+        assertEquals(Event.Type.PLANTED, planted.getType());
+        assertEquals("wheat", planted.getCropName());
+        assertEquals(4, planted.getQuarter());
+        assertEquals(0, planted.getRevenue());
+        assertEquals(50, Event.harvested(2, 50, 3).getRevenue());
+        assertEquals(60, Event.quartersAdvanced(4, 7, 2, 60).getRevenue());
+        assertEquals(7, Event.quartersAdvanced(4, 7, 2, 60).getQuarter());
+        assertEquals(Event.NO_QUARTER, event.getQuarter());
+        assertEquals(planted.getEpochNanos() / 1000000, planted.getDate().getTime());
+        assertSame(planted.getDescription(), planted.getDescription());
+        assertEquals(Event.Type.MESSAGE, event.getType());
+        assertNull(event.getCropName());
+    }
 }
\ No newline at end of file
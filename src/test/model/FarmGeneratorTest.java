@@ -0,0 +1,103 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+
+@ExcludeFromJacocoGeneratedReport
+public class FarmGeneratorTest {
+
+    @BeforeEach
+    void runBefore() {
+        EventLog.getInstance().clear();
+    }
+
+    @Test
+    void testSameSeedSameFarm() {
+        int plantings = FarmGenerator.CHUNK_SIZE * 2 + 100;
+        Farm farm1 = new FarmGenerator(42).setPlantings(plantings).setVarieties(30).setPlotArea(1, 5).generate();
+        Farm farm2 = new FarmGenerator(42).setPlantings(plantings).setVarieties(30).setPlotArea(1, 5)
+                .setStorage(Farm.Storage.ARRAYS).generate();
+        Farm farm3 = new FarmGenerator(43).setPlantings(plantings).setVarieties(30).setPlotArea(1, 5).generate();
+
+        assertEquals(plantings, farm1.getPlantedCropCount());
+        assertEquals(farm1.getPlantedCrops(), farm2.getPlantedCrops());
+        assertEquals(farm1.getPlantedAreaByCrop(), farm2.getPlantedAreaByCrop());
+        assertEquals(farm1.toJson().toString(), farm2.toJson().toString());
+        assertNotEquals(farm1.getPlantedCrops(), farm3.getPlantedCrops());
+        farm1.checkAccounting();
+        farm2.checkAccounting();
+    }
+
+    @Test
+    void testSettings() {
+        FarmGenerator generator = new FarmGenerator(7).setPlantings(5000).setVarieties(25).setArea(20000)
+                .setPlotArea(2, 4).setSeeds(10, 20).setRevenue(50, 50);
+        Crop[] catalog = generator.generateCatalog();
+        Farm farm = generator.generate();
+
+        assertEquals(25, catalog.length);
+        assertEquals(25, farm.getPlantableCrops().size());
+        assertEquals("wheat", catalog[0].getName());
+        assertEquals("wheat2", catalog[20].getName());
+        for (Crop crop : catalog) {
+            assertEquals(crop, farm.getPlantableCrops().find(crop.getName()));
+            assertEquals(50, crop.getRevenue());
+            assertTrue(crop.getSeeds() >= 10 && crop.getSeeds() <= 20);
+            assertTrue(crop.getTimeRequired() >= 1 && crop.getTimeRequired() <= 4);
+        }
+        assertEquals(20000, farm.getArea());
+        assertEquals(5000, farm.getPlantedCropCount());
+        boolean[] areas = new boolean[5];
+        for (PlantedCrop planting : farm.getPlantedCrops()) {
+            areas[planting.getPlantedArea()] = true;
+            assertTrue(planting.getTimeGrown() >= 0 && planting.getTimeGrown() <= planting.getTimeRequired());
+        }
+        assertFalse(areas[1]);
+        assertTrue(areas[2] && areas[3] && areas[4]);
+        assertEquals("Loaded farm: 25 crops, 5000 plantings", lastEvent());
+        farm.checkAccounting();
+    }
+
+    @Test
+    void testMaturity() {
+        List<PlantedCrop> ripe = new FarmGenerator(1).setMaturity(1).generate().getPlantedCrops();
+        for (PlantedCrop planting : ripe) {
+            assertTrue(planting.isRipe());
+        }
+        List<PlantedCrop> planted = new FarmGenerator(1).setMaturity(0, 0, 0, 0, 1).generate().getPlantedCrops();
+        for (PlantedCrop planting : planted) {
+            assertEquals(0, planting.getTimeGrown());
+        }
+        Farm farm = new FarmGenerator(1).setMaturity(0, 1).setStorage(Farm.Storage.ARRAYS).generate();
+        assertEquals(1000, farm.getCropsRipeningNextQuarter().size());
+    }
+
+    @Test
+    void testInvalidSettings() {
+        FarmGenerator generator = new FarmGenerator(0);
+        assertThrows(IllegalArgumentException.class, () -> generator.setVarieties(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.setPlantings(-1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setArea(-1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setPlotArea(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setSeeds(5, 4));
+        assertThrows(IllegalArgumentException.class, () -> generator.setRevenue(-1, 4));
+        assertThrows(IllegalArgumentException.class, () -> generator.setMaturity(1, 1, 1, 1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setMaturity(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setMaturity(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> generator.setMaturity());
+        generator.setArea(999);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate());
+        generator.setArea(1000);
+        assertEquals(1000, generator.generate().getPlantedArea());
+    }
+
+    private static String lastEvent() {
+        String description = null;
+        for (Event next : EventLog.getInstance()) {
+            description = next.getDescription();
+        }
+        return description;
+    }
+}
@@ -0,0 +1,149 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import exception.*;
+
+@ExcludeFromJacocoGeneratedReport
+public class FarmLoaderTest {
+    private FarmLoader testLoader;
+    private Crop testCrop1;
+    private Crop testCrop2;
+
+    @BeforeEach
+    void runBefore() {
+        EventLog.getInstance().clear();
+        testLoader = new FarmLoader(500);
+        testCrop1 = new Crop("testName1", 10, 100, 2);
+        testCrop2 = new Crop("testName2", 20, 300, 3);
+    }
+
+    @Test
+    void testFinishLogsSingleEvent() {
+        testLoader.addPlantableCrop(testCrop1);
+        testLoader.addPlantableCrop(testCrop2);
+        testLoader.addPlantedCrop(testCrop1.getType(), 100, 50, 1);
+        testLoader.addPlantedCrop(testCrop1.getType(), 100, 60, 0);
+        testLoader.addPlantedCrop(testCrop2, 70, 2);
+        testLoader.setTime(4).setRevenue(1000);
+        Farm farm = testLoader.finish();
+
+        List<String> descriptions = new ArrayList<>();
+        for (Event next : EventLog.getInstance()) {
+            descriptions.add(next.getDescription());
+        }
+        assertEquals(2, descriptions.size());
+        assertEquals("Event log cleared.", descriptions.get(0));
+        assertEquals("Loaded farm: 2 crops, 3 plantings", descriptions.get(1));
+
+        assertEquals(500, farm.getArea());
+        assertEquals(4, farm.getTime());
+        assertEquals(1000, farm.getRevenue());
+        assertEquals(180, farm.getPlantedArea());
+        assertEquals(3, farm.getPlantedCropCount());
+        assertEquals(2, farm.getPlantableCrops().size());
+        farm.checkAccounting();
+    }
+
+    @Test
+    void testMatchesNormalLoad() throws NonPositiveAreaException, FilledFarmException {
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            Farm expected = new Farm(1000, storage);
+            expected.addPlantableCrop(testCrop1);
+            expected.addPlantedCrop(testCrop1, 100, 1);
+            expected.addPlantedCrop(testCrop2, 200, 0);
+            expected.setTime(3);
+            expected.setRevenue(40);
+
+            Farm loaded = new FarmLoader(0, storage)
+                    .setArea(1000)
+                    .addPlantableCrop(testCrop1)
+                    .addPlantedCrop(testCrop1.getType(), 100, 100, 1)
+                    .addPlantedCrop(testCrop2.getType(), 300, 200, 0)
+                    .setTime(3)
+                    .setRevenue(40)
+                    .finish();
+            assertEquals(storage, loaded.getStorage());
+            assertTrue(expected.toJson().similar(loaded.toJson()));
+
+            expected.timeLapses();
+            loaded.timeLapses();
+            expected.harvest();
+            loaded.harvest();
+            assertTrue(expected.toJson().similar(loaded.toJson()));
+            loaded.checkAccounting();
+        }
+    }
+
+    @Test
+    void testBulkRecordsMatchSingleLoads() {
+        Crop[] cropTable = {testCrop1, testCrop2};
+        int[] records = {0, 10, 0, 1, 20, 3, 0, 30, 2, 1, 40, 1, 0, 50, 1};
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            FarmLoader single = new FarmLoader(500, storage).addPlantedCrop(testCrop2, 5, 0);
+            for (int i = 0; i < records.length; i += 3) {
+                single.addPlantedCrop(cropTable[records[i]], records[i + 1], records[i + 2]);
+            }
+            Farm expected = single.finish();
+            Farm loaded = new FarmLoader(500, storage).addPlantedCrop(testCrop2, 5, 0)
+                    .addPlantedCrops(cropTable, IntBuffer.wrap(records), records.length / 3)
+                    .finish();
+
+            assertEquals(6, loaded.getPlantedCropCount());
+            assertEquals(90, loaded.getPlantedArea("testName1"));
+            assertEquals(65, loaded.getPlantedArea("testName2"));
+            assertTrue(expected.toJson().similar(loaded.toJson()));
+            loaded.checkAccounting();
+            for (int q = 0; q < 3; q++) {
+                expected.timeLapses();
+                loaded.timeLapses();
+                assertTrue(expected.toJson().similar(loaded.toJson()));
+                assertEquals(expected.getRevenue(), loaded.getRevenue());
+            }
+            loaded.checkAccounting();
+        }
+    }
+
+    @Test
+    void testBulkRecordsInvalid() {
+        Crop[] cropTable = {testCrop1};
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            assertThrows(IllegalArgumentException.class, () -> new FarmLoader(500, storage)
+                    .addPlantedCrops(cropTable, IntBuffer.wrap(new int[] {0, 10, 0, 1, 10, 0}), 2));
+            assertThrows(IllegalArgumentException.class, () -> new FarmLoader(500, storage)
+                    .addPlantedCrops(cropTable, IntBuffer.wrap(new int[] {-1, 10, 0}), 1));
+            assertThrows(IllegalArgumentException.class, () -> new FarmLoader(500, storage)
+                    .addPlantedCrops(cropTable, IntBuffer.wrap(new int[] {0, 0, 0}), 1));
+            assertThrows(IllegalArgumentException.class, () -> new FarmLoader(500, storage)
+                    .addPlantedCrops(cropTable, IntBuffer.wrap(new int[] {0, 10, -4}), 1));
+            assertThrows(IllegalArgumentException.class, () -> new FarmLoader(500, storage)
+                    .addPlantedCrops(cropTable, IntBuffer.wrap(new int[] {0, 10, 3}), 1));
+        }
+    }
+
+    @Test
+    void testTimeGrownOutOfRange() {
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            FarmLoader loader = new FarmLoader(500, storage);
+            assertThrows(IllegalArgumentException.class, () -> loader.addPlantedCrop(testCrop1, 50, -4));
+            assertThrows(IllegalArgumentException.class, () -> loader.addPlantedCrop(testCrop1, 50, 3));
+            assertThrows(IllegalArgumentException.class, () -> loader.addPlantedCrop(testCrop2.getType(), 300, 50, -1));
+            assertThrows(IllegalArgumentException.class, () -> loader.addPlantedCrop(testCrop2.getType(), 300, 50, 4));
+            Farm farm = loader.addPlantedCrop(testCrop1, 50, 0).finish();
+            assertEquals(1, farm.getPlantedCropCount());
+            farm.checkAccounting();
+        }
+    }
+
+    @Test
+    void testFinishTwice() {
+        testLoader.finish();
+        assertThrows(IllegalStateException.class, () -> testLoader.finish());
+        assertThrows(IllegalStateException.class, () -> testLoader.addPlantableCrop(testCrop1));
+        assertThrows(IllegalStateException.class, () -> testLoader.setTime(1));
+    }
+}
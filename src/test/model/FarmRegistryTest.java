@@ -0,0 +1,183 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import exception.*;
+
+@ExcludeFromJacocoGeneratedReport
+public class FarmRegistryTest {
+    private FarmRegistry testRegistry;
+
+    @BeforeEach
+    void runBefore() {
+        testRegistry = new FarmRegistry(3, 0);
+    }
+
+    @AfterEach
+    void runAfter() {
+        testRegistry.close();
+    }
+
+    @Test
+    void testAdvanceMatchesTimeLapses() throws NonPositiveAreaException, FilledFarmException {
+        Farm[] expected = new Farm[10];
+        for (int i = 0; i < expected.length; i++) {
+            int id = testRegistry.createFarm(100, i % 2 == 0 ? Farm.Storage.OBJECTS : Farm.Storage.ARRAYS);
+            assertEquals(i, id);
+            expected[i] = new Farm(100);
+            plantCrops(testRegistry.getFarm(id), i);
+            plantCrops(expected[i], i);
+        }
+
+        assertEquals(70, testRegistry.advance(7));
+        for (int q = 0; q < 7; q++) {
+            for (Farm farm : expected) {
+                farm.timeLapses();
+            }
+        }
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getTime(), testRegistry.getFarm(i).getTime());
+            assertEquals(expected[i].getRevenue(), testRegistry.getFarm(i).getRevenue());
+            assertEquals(expected[i].getPlantedArea(), testRegistry.getFarm(i).getPlantedArea());
+        }
+        assertEquals(10, testRegistry.size());
+        assertEquals(3, testRegistry.getShardCount());
+    }
+
+    @Test
+    void testEachFarmLogsToItsOwnLog() throws NonPositiveAreaException, FilledFarmException {
+        EventLog.getInstance().flush();
+        int globalBefore = EventLog.getInstance().size();
+        int first = testRegistry.createFarm(50, Farm.Storage.OBJECTS);
+        int second = testRegistry.addFarm(new Farm(50));
+        EventLog.getInstance().flush();
+        globalBefore++; // the creation of the farm added directly is logged globally
+
+        plantCrops(testRegistry.getFarm(first), 1);
+        testRegistry.advance(4);
+
+        EventLog firstLog = testRegistry.getEventLog(first);
+        EventLog secondLog = testRegistry.getEventLog(second);
+        assertNotSame(firstLog, secondLog);
+        assertNotSame(EventLog.getInstance(), firstLog);
+        firstLog.flush();
+        secondLog.flush();
+        assertEquals(1, firstLog.getEvents(Event.Type.FARM_CREATED).size());
+        assertEquals(2, firstLog.getEvents(Event.Type.PLANTED).size());
+        assertEquals(4, firstLog.getEvents(Event.Type.TIME_ADVANCED).size());
+        assertEquals(72, firstLog.sumRevenue(Event.Type.HARVESTED, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(4, secondLog.size());
+        EventLog.getInstance().flush();
+        assertEquals(globalBefore, EventLog.getInstance().size());
+    }
+
+    @Test
+    void testThroughput() {
+        assertEquals(0, testRegistry.advance(5));
+        assertEquals(0, testRegistry.getFarmQuartersPerSecond());
+        for (int i = 0; i < 4; i++) {
+            testRegistry.createFarm(10, Farm.Storage.ARRAYS);
+        }
+        assertEquals(0, testRegistry.advance(0));
+        assertEquals(20, testRegistry.advance(5));
+        assertEquals(40, testRegistry.advance(10));
+        assertEquals(60, testRegistry.getTotalFarmQuarters());
+        assertTrue(testRegistry.getFarmQuartersPerSecond() > 0);
+        assertTrue(testRegistry.getTotalFarmQuartersPerSecond() > 0);
+        assertThrows(IllegalArgumentException.class, () -> testRegistry.advance(-1));
+    }
+
+    @Test
+    void testFailureStopsEveryShardAfterTheSameQuarter() {
+        int failing = testRegistry.createFarm(10, Farm.Storage.OBJECTS);
+        testRegistry.createFarm(10, Farm.Storage.OBJECTS);
+        testRegistry.createFarm(10, Farm.Storage.OBJECTS);
+        testRegistry.getFarm(failing).addListener(new FailingListener(3));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> testRegistry.advance(10));
+        assertEquals("quarter 3", e.getCause().getMessage());
+        for (int i = 0; i < testRegistry.size(); i++) {
+            assertEquals(3, testRegistry.getFarm(i).getTime());
+        }
+        assertEquals(0, testRegistry.getTotalFarmQuarters());
+
+        assertEquals(6, testRegistry.advance(2));
+        assertEquals(5, testRegistry.getFarm(failing).getTime());
+    }
+
+    @Test
+    void testScopedLogsStayBoundedAcrossLongAdvance() throws NonPositiveAreaException, FilledFarmException {
+        FarmRegistry registry = new FarmRegistry(1, 16);
+        try {
+            for (int i = 0; i < 256; i++) {
+                Farm farm = registry.getFarm(registry.createFarm(Integer.MAX_VALUE, Farm.Storage.ARRAYS));
+                farm.addPlantableCrop(new Crop("bounded" + i % 4, 10, Integer.MAX_VALUE, 1));
+            }
+            for (int q = 0; q < 20; q++) {
+                for (int i = 0; i < registry.size(); i++) {
+                    Farm farm = registry.getFarm(i);
+                    farm.plant(farm.getPlantableCrops().find("bounded" + i % 4), 1);
+                }
+                registry.advance(100);
+            }
+            for (int i = 0; i < registry.size(); i++) {
+                EventLog log = registry.getEventLog(i);
+                assertEquals(0, log.getPendingCount());
+                assertEquals(16, log.size());
+                assertTrue(log.getEvictedCount() > 2000);
+            }
+        } finally {
+            registry.close();
+        }
+    }
+
+    private void plantCrops(Farm farm, int seed) throws NonPositiveAreaException, FilledFarmException {
+        farm.plant(new Crop("wheat", 3, Integer.MAX_VALUE, 1 + seed % 3), 10);
+        farm.plant(new Crop("corn", 2, Integer.MAX_VALUE, 1 + seed % 4), 20 + seed);
+    }
+
+    /*
+     * A listener that throws once, when its farm reaches the given time
+     */
+    private static class FailingListener implements FarmListener {
+        private int failAt;
+        private boolean failed;
+
+        FailingListener(int failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void planted(Crop crop, int seedsBefore, int plantArea) {
+        }
+
+        @Override
+        public void timeAdvanced(int quarters) {
+            if (!failed && --failAt == 0) {
+                failed = true;
+                throw new RuntimeException("quarter 3");
+            }
+        }
+
+        @Override
+        public void harvested() {
+        }
+
+        @Override
+        public void seedsAdded(Crop crop, int amount) {
+        }
+
+        @Override
+        public void plantableCropAdded(Crop crop) {
+        }
+
+        @Override
+        public void farmReset() {
+        }
+
+        @Override
+        public void areaSet(int area) {
+        }
+    }
+}
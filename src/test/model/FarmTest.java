@@ -3,6 +3,7 @@ package model;
 import static org.junit.Assert.fail;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.ArrayList;
+import java.util.List;
 import org.json.*;
 import org.junit.jupiter.api.*;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
@@ -182,7 +183,7 @@ public class FarmTest {
     void testHarvestOnePlantedCropIsRipe() {
         testPlantedCrop1.grow();
         testPlantedCrop1.grow();
-        testFarm.getPlantedCrops().add(testPlantedCrop1);
+        testFarm.addPlantedCrop(testPlantedCrop1);
         testFarm.harvest();
         assertEquals(0, testFarm.getPlantedCrops().size());
         assertEquals(1000, testFarm.getRevenue());
@@ -192,8 +193,8 @@ public class FarmTest {
     void testHarvestNoPlantedCropIsRipe() {
         testPlantedCrop1.grow();
         testPlantedCrop2.grow();
-        testFarm.getPlantedCrops().add(testPlantedCrop1);
-        testFarm.getPlantedCrops().add(testPlantedCrop2);
+        testFarm.addPlantedCrop(testPlantedCrop1);
+        testFarm.addPlantedCrop(testPlantedCrop2);
         testFarm.harvest();
         assertEquals(2, testFarm.getPlantedCrops().size());
         assertEquals("testName1", testFarm.getPlantedCrops().get(0).getName());
@@ -201,14 +202,30 @@ public class FarmTest {
         assertEquals(0, testFarm.getRevenue());
     }
 
+    @Test
+    void testAddPlantedCropTimeGrownOutOfRange() {
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            Farm farm = new Farm(500, storage);
+            assertThrows(IllegalArgumentException.class, () -> farm.addPlantedCrop(testCrop1, 100, -1));
+            assertThrows(IllegalArgumentException.class, () -> farm.addPlantedCrop(testCrop1, 100, -4));
+            assertThrows(IllegalArgumentException.class, () -> farm.addPlantedCrop(testCrop1, 100, 3));
+            assertEquals(0, farm.getPlantedCropCount());
+            assertEquals(0, farm.getPlantedArea());
+            farm.addPlantedCrop(testCrop1, 100, 2);
+            farm.harvest();
+            assertEquals(1000, farm.getRevenue());
+            farm.checkAccounting();
+        }
+    }
+
     @Test
     void testHarvestSomePlantedCropIsRipe() {
         testPlantedCrop1.grow();
         testPlantedCrop1.grow();
         testPlantedCrop2.grow();
         testPlantedCrop2.grow();
-        testFarm.getPlantedCrops().add(testPlantedCrop1);
-        testFarm.getPlantedCrops().add(testPlantedCrop2);
+        testFarm.addPlantedCrop(testPlantedCrop1);
+        testFarm.addPlantedCrop(testPlantedCrop2);
         testFarm.harvest();
         assertEquals(1, testFarm.getPlantedCrops().size());
         assertEquals("testName2", testFarm.getPlantedCrops().get(0).getName());
@@ -222,8 +239,8 @@ public class FarmTest {
         testPlantedCrop2.grow();
         testPlantedCrop2.grow();
         testPlantedCrop2.grow();
-        testFarm.getPlantedCrops().add(testPlantedCrop1);
-        testFarm.getPlantedCrops().add(testPlantedCrop2);
+        testFarm.addPlantedCrop(testPlantedCrop1);
+        testFarm.addPlantedCrop(testPlantedCrop2);
         testFarm.harvest();
         assertEquals(0, testFarm.getPlantedCrops().size());
         assertEquals(5000, testFarm.getRevenue());
@@ -301,7 +318,7 @@ public class FarmTest {
 
     @Test
     void testAddPlantableCrop() {
-        testFarm.addPlantableCrop(testCrop1);
+        assertNull(testFarm.addPlantableCrop(testCrop1));
         assertEquals(1, testFarm.getPlantableCrops().size());
         assertEquals(testCrop1, testFarm.getPlantableCrops().get(0));
     }
@@ -315,6 +332,15 @@ public class FarmTest {
         assertEquals(testCrop2, testFarm.getPlantableCrops().get(1));
     }
 
+    @Test
+    void testAddPlantableCropReplacesSameName() {
+        testFarm.addPlantableCrop(testCrop1);
+        Crop replacement = new Crop("TESTNAME1", 30, 5, 1);
+        assertSame(testCrop1, testFarm.addPlantableCrop(replacement));
+        assertEquals(1, testFarm.getPlantableCrops().size());
+        assertSame(replacement, testFarm.getPlantableCrops().find("testName1"));
+    }
+
     @Test
     void testPlantWithNegativeArea() {
         try {
@@ -411,4 +437,380 @@ public class FarmTest {
         JSONArray cropsArray = json.getJSONArray("crops");
         assertTrue(cropsArray.isEmpty());
     }
+
+    @Test
+    void testPlantedAreaAccounting() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.setSelfChecking(true);
+        testFarm.plant(testCrop1, 100);
+        testFarm.plant(testCrop2, 150);
+        testFarm.plant(testCrop1, 50);
+        assertEquals(300, testFarm.getPlantedArea());
+        assertEquals(150, testFarm.getPlantedArea("testName1"));
+        assertEquals(150, testFarm.getPlantedArea("testName2"));
+        assertEquals(200, testFarm.remainingArea());
+        testFarm.timeLapses();
+        testFarm.timeLapses();
+        assertEquals(150, testFarm.getPlantedArea());
+        assertEquals(0, testFarm.getPlantedArea("testName1"));
+        assertFalse(testFarm.getPlantedAreaByCrop().containsKey("testName1"));
+        testFarm.checkAccounting();
+    }
+
+    @Test
+    void testPlantedAreaAccountingAddPlantedCrop() {
+        testFarm.setSelfChecking(true);
+        testFarm.addPlantedCrop(testPlantedCrop1);
+        testFarm.addPlantedCrop(testPlantedCrop2);
+        assertEquals(300, testFarm.getPlantedArea());
+        assertEquals(200, testFarm.remainingArea());
+        testFarm.setArea(300);
+        assertTrue(testFarm.isFilled());
+        assertEquals(0, testFarm.remainingArea());
+    }
+
+    @Test
+    void testPlantedAreaAccountingReset() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.setSelfChecking(true);
+        testFarm.plant(testCrop1, 100);
+        testFarm.reset();
+        assertEquals(0, testFarm.getPlantedArea());
+        assertEquals(0, testFarm.getPlantedArea("testName1"));
+        assertEquals(500, testFarm.remainingArea());
+    }
+
+    @Test
+    void testGetPlantedCropsIsReadOnly() {
+        try {
+            testFarm.getPlantedCrops().add(testPlantedCrop1);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    void testTimeLapsesKeepsPlantingOrderAfterHarvest() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.setSelfChecking(true);
+        testFarm.plant(testCrop2, 100);
+        testFarm.plant(testCrop1, 50);
+        testFarm.timeLapses();
+        testFarm.plant(testCrop2, 100);
+        testFarm.plant(testCrop1, 50);
+        testFarm.timeLapses();
+        assertEquals(3, testFarm.getPlantedCrops().size());
+        assertEquals(2, testFarm.getPlantedCrops().get(0).getTimeGrown());
+        assertEquals("testName2", testFarm.getPlantedCrops().get(1).getName());
+        assertEquals(1, testFarm.getPlantedCrops().get(1).getTimeGrown());
+        assertEquals("testName1", testFarm.getPlantedCrops().get(2).getName());
+        testFarm.timeLapses();
+        assertEquals(1, testFarm.getPlantedCrops().size());
+        assertEquals(2, testFarm.getPlantedCrops().get(0).getTimeGrown());
+        assertEquals(2 * 500 + 2000, testFarm.getRevenue());
+    }
+
+    @Test
+    void testTimeLapsesHarvestsRipeCropAddedWithoutHarvest() {
+        testPlantedCrop1.grow();
+        testPlantedCrop1.grow();
+        testFarm.addPlantedCrop(testPlantedCrop1);
+        testFarm.timeLapses();
+        assertEquals(0, testFarm.getPlantedCrops().size());
+        assertEquals(1000, testFarm.getRevenue());
+    }
+
+    @Test
+    void testHarvestedCropKeepsItsGrowth() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.addPlantedCrop(testPlantedCrop1);
+        testFarm.timeLapses();
+        assertEquals(1, testPlantedCrop1.getTimeGrown());
+        testFarm.timeLapses();
+        assertTrue(testPlantedCrop1.isRipe());
+        testFarm.timeLapses();
+        assertEquals(2, testPlantedCrop1.getTimeGrown());
+    }
+
+    @Test
+    void testGrowPlantedCropOnFarm() {
+        testFarm.addPlantedCrop(testPlantedCrop1);
+        try {
+            testPlantedCrop1.grow();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        try {
+            testPlantedCrop1.setTimeGrown(1);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    void testGetCropsRipeningNextQuarter() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.plant(testCrop1, 100);
+        testFarm.plant(testCrop2, 100);
+        assertEquals(0, testFarm.getCropsRipeningNextQuarter().size());
+        testFarm.timeLapses();
+        assertEquals(1, testFarm.getCropsRipeningNextQuarter().size());
+        assertEquals("testName1", testFarm.getCropsRipeningNextQuarter().get(0).getName());
+    }
+
+    @Test
+    void testArrayStorageMatchesObjectStorage() throws NonPositiveAreaException, FilledFarmException {
+        Farm arrayFarm = new Farm(500, Farm.Storage.ARRAYS);
+        arrayFarm.setSelfChecking(true);
+        assertEquals(Farm.Storage.ARRAYS, arrayFarm.getStorage());
+        assertEquals(Farm.Storage.OBJECTS, testFarm.getStorage());
+        for (Farm farm : new Farm[] { testFarm, arrayFarm }) {
+            farm.plant(new Crop("testName1", 10, 100, 2), 100);
+            farm.plant(new Crop("testName2", 20, 300, 3), 50);
+            farm.timeLapses();
+            farm.plant(new Crop("testName1", 10, 100, 2), 30);
+            farm.addPlantedCrop(new PlantedCrop(new Crop("testName3", 5, 10, 4), 20));
+            farm.timeLapses();
+        }
+        assertEquals(testFarm.getRevenue(), arrayFarm.getRevenue());
+        assertEquals(testFarm.getPlantedCropCount(), arrayFarm.getPlantedCropCount());
+        assertEquals(testFarm.getPlantedAreaByCrop(), arrayFarm.getPlantedAreaByCrop());
+        assertEquals(testFarm.getPlantedCrops().toString(), arrayFarm.getPlantedCrops().toString());
+        assertEquals(testFarm.getCropsRipeningNextQuarter().toString(),
+                arrayFarm.getCropsRipeningNextQuarter().toString());
+        assertEquals(testFarm.toJson().similar(arrayFarm.toJson()), true);
+    }
+
+    @Test
+    void testArrayStorageHarvestAndReset() throws NonPositiveAreaException, FilledFarmException {
+        Farm arrayFarm = new Farm(10000, Farm.Storage.ARRAYS);
+        Crop crop = new Crop("testName1", 10, 10000, 2);
+        for (int i = 0; i < 1000; i++) {
+            arrayFarm.plant(crop, 1);
+            if (i % 100 == 99) {
+                arrayFarm.timeLapses();
+            }
+        }
+        assertEquals(100, arrayFarm.getPlantedCropCount());
+        assertEquals(100, arrayFarm.getPlantedArea());
+        assertEquals(9000, arrayFarm.getRevenue());
+        arrayFarm.checkAccounting();
+        assertEquals(1, arrayFarm.getPlantedCrops().get(0).getTimeGrown());
+        arrayFarm.plant(crop, 1);
+        assertEquals(0, arrayFarm.getPlantedCrops().get(100).getTimeGrown());
+        arrayFarm.reset();
+        assertEquals(0, arrayFarm.getPlantedCropCount());
+        assertTrue(arrayFarm.getPlantedCrops().isEmpty());
+        assertEquals(10000, arrayFarm.remainingArea());
+    }
+
+    @Test
+    void testHarvestCompactsObjectStorage() throws NonPositiveAreaException, FilledFarmException {
+        Farm farm = new Farm(100000);
+        Crop crop = new Crop("testName1", 10, 100000, 1);
+        for (int i = 0; i < 10000; i++) {
+            farm.plant(crop, 1);
+            farm.timeLapses();
+        }
+        farm.plant(crop, 1);
+        assertEquals(1, farm.getPlantedCropCount());
+        assertEquals(0, farm.getCropsRipeningNextQuarter().get(0).getSlot());
+    }
+
+    @Test
+    void testAdvanceMatchesTimeLapses() throws NonPositiveAreaException, FilledFarmException {
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            for (int quarters = 0; quarters <= 10; quarters++) {
+                Farm stepFarm = createAdvanceTestFarm(storage);
+                Farm advanceFarm = createAdvanceTestFarm(storage);
+                advanceFarm.setSelfChecking(true);
+                int previousRevenue = stepFarm.getRevenue();
+                for (int i = 0; i < quarters; i++) {
+                    stepFarm.timeLapses();
+                }
+                Harvest harvest = advanceFarm.advance(quarters);
+                assertEquals(stepFarm.getRevenue() - previousRevenue, harvest.getRevenue());
+                assertEquals(stepFarm.getTime(), advanceFarm.getTime());
+                assertEquals(stepFarm.getRevenue(), advanceFarm.getRevenue());
+                assertEquals(stepFarm.getPlantedArea(), advanceFarm.getPlantedArea());
+                assertEquals(stepFarm.getPlantedAreaByCrop(), advanceFarm.getPlantedAreaByCrop());
+                assertEquals(stepFarm.getPlantedCrops().toString(), advanceFarm.getPlantedCrops().toString());
+                assertTrue(stepFarm.toJson().similar(advanceFarm.toJson()));
+                stepFarm.timeLapses();
+                advanceFarm.timeLapses();
+                assertEquals(stepFarm.getRevenue(), advanceFarm.getRevenue());
+                assertEquals(stepFarm.getPlantedCrops().toString(), advanceFarm.getPlantedCrops().toString());
+            }
+        }
+    }
+
+    @Test
+    void testAdvanceNegative() {
+        try {
+            testFarm.advance(-1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /*
+     * EFFECTS: returns a farm in the given storage with crops of every growing
+     * time planted over several quarters, including a ripe crop not yet harvested
+     */
+    private Farm createAdvanceTestFarm(Farm.Storage storage) throws NonPositiveAreaException, FilledFarmException {
+        Farm farm = new Farm(1000, storage);
+        for (int quarter = 0; quarter < 3; quarter++) {
+            for (int timeRequired = 1; timeRequired <= 4; timeRequired++) {
+                farm.plant(new Crop("testName" + timeRequired, 10 * timeRequired, 100, timeRequired),
+                        10 + quarter);
+            }
+            farm.timeLapses();
+        }
+        PlantedCrop ripeCrop = new PlantedCrop(new Crop("testName1", 10, 100, 1), 5);
+        ripeCrop.grow();
+        farm.addPlantedCrop(ripeCrop);
+        return farm;
+    }
+
+    @Test
+    void testParallelHarvestMatchesSequential() throws NonPositiveAreaException, FilledFarmException {
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            Farm sequentialFarm = createParallelTestFarm(storage);
+            Farm parallelFarm = createParallelTestFarm(storage);
+            assertEquals(Integer.MAX_VALUE, sequentialFarm.getParallelThreshold());
+            parallelFarm.setParallelThreshold(16);
+            parallelFarm.setSelfChecking(true);
+            for (int i = 0; i < 3; i++) {
+                sequentialFarm.timeLapses();
+                parallelFarm.timeLapses();
+                assertEquals(sequentialFarm.getRevenue(), parallelFarm.getRevenue());
+                assertEquals(sequentialFarm.getPlantedAreaByCrop(), parallelFarm.getPlantedAreaByCrop());
+                assertEquals(sequentialFarm.getPlantedCrops().toString(), parallelFarm.getPlantedCrops().toString());
+            }
+            Harvest sequentialHarvest = sequentialFarm.advance(4);
+            Harvest parallelHarvest = parallelFarm.advance(4);
+            assertEquals(sequentialHarvest.getCrops(), parallelHarvest.getCrops());
+            assertEquals(sequentialHarvest.getAreaByCrop(), parallelHarvest.getAreaByCrop());
+            assertEquals(sequentialFarm.getRevenue(), parallelFarm.getRevenue());
+            assertEquals(0, parallelFarm.getPlantedCropCount());
+        }
+    }
+
+    /*
+     * EFFECTS: returns a farm in the given storage with a few thousand small
+     * plantings of crops with every growing time
+     */
+    private Farm createParallelTestFarm(Farm.Storage storage) throws NonPositiveAreaException, FilledFarmException {
+        Farm farm = new Farm(10000, storage);
+        Crop[] crops = new Crop[4];
+        for (int timeRequired = 1; timeRequired <= 4; timeRequired++) {
+            crops[timeRequired - 1] = new Crop("testName" + timeRequired, timeRequired, 10000, timeRequired);
+        }
+        for (int i = 0; i < 4000; i++) {
+            farm.plant(crops[i % 4], 1 + i % 2);
+        }
+        return farm;
+    }
+
+    @Test
+    void testListeners() throws NonPositiveAreaException, FilledFarmException {
+        List<String> calls = new ArrayList<String>();
+        FarmListener listener = new FarmListener() {
+            public void planted(Crop crop, int seedsBefore, int plantArea) {
+                calls.add("planted " + crop.getName() + " " + seedsBefore + " " + plantArea);
+            }
+
+            public void timeAdvanced(int quarters) {
+                calls.add("advanced " + quarters);
+            }
+
+            public void harvested() {
+                calls.add("harvested");
+            }
+
+            public void seedsAdded(Crop crop, int amount) {
+                calls.add("seeds " + crop.getName() + " " + amount);
+            }
+
+            public void plantableCropAdded(Crop crop) {
+                calls.add("crop " + crop.getName());
+            }
+
+            public void farmReset() {
+                calls.add("reset");
+            }
+
+            public void areaSet(int area) {
+                calls.add("area " + area);
+            }
+        };
+        Crop crop = new Crop("listened", 10, 100, 1);
+        testFarm.addListener(listener);
+        testFarm.addPlantableCrop(crop);
+        testFarm.addSeeds(crop, 5);
+        testFarm.plant(crop, 20);
+        testFarm.timeLapses();
+        testFarm.advance(2);
+        testFarm.harvest();
+        testFarm.setArea(700);
+        testFarm.reset();
+        assertThrows(NonPositiveAreaException.class, () -> testFarm.addSeeds(crop, 0));
+        testFarm.removeListener(listener);
+        testFarm.timeLapses();
+
+        assertEquals(List.of("crop listened", "seeds listened 5", "planted listened 105 20", "advanced 1",
+                "advanced 2", "harvested", "area 700", "reset"), calls);
+        assertEquals(85, crop.getSeeds());
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByLaterChanges() throws NonPositiveAreaException, FilledFarmException {
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            Farm farm = new Farm(1000, storage);
+            Crop crop = new Crop("snapshotted", 10, 1000, 2);
+            farm.addPlantableCrop(crop);
+            farm.plant(crop, 100);
+            farm.timeLapses();
+            farm.plant(crop, 200);
+            JSONObject before = farm.toJson();
+
+            Farm snapshot = farm.snapshot();
+            assertEquals(Farm.Storage.ARRAYS, snapshot.getStorage());
+            farm.plant(crop, 50);
+            farm.timeLapses();
+            farm.addSeeds(crop, 5);
+            assertTrue(before.similar(snapshot.toJson()));
+            assertEquals(300, snapshot.getPlantedArea());
+
+            farm.timeLapses();
+            farm.reset();
+            assertTrue(before.similar(snapshot.toJson()));
+
+            snapshot.timeLapses();
+            snapshot.plant(snapshot.getPlantableCrops().find("snapshotted"), 10);
+            assertEquals(2, snapshot.getPlantedCropCount());
+            assertEquals(0, farm.getPlantedCropCount());
+        }
+    }
+
+    @Test
+    void testSnapshotSharesUntilHarvest() throws NonPositiveAreaException, FilledFarmException {
+        Farm farm = new Farm(1000, Farm.Storage.ARRAYS);
+        Crop crop = new Crop("shared", 10, 1000, 1);
+        for (int i = 0; i < 20; i++) {
+            farm.plant(crop, 5);
+        }
+        Farm first = farm.snapshot();
+        farm.plant(crop, 5);
+        Farm second = farm.snapshot();
+        farm.timeLapses();
+
+        assertEquals(20, first.getPlantedCropCount());
+        assertEquals(21, second.getPlantedCropCount());
+        assertEquals(0, farm.getPlantedCropCount());
+        first.timeLapses();
+        assertEquals(0, first.getPlantedCropCount());
+        assertEquals(21, second.getPlantedCropCount());
+        assertEquals(1000, first.getRevenue());
+        assertEquals(1050, farm.getRevenue());
+    }
 }
\ No newline at end of file
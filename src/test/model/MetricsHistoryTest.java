@@ -0,0 +1,142 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import exception.*;
+
+@ExcludeFromJacocoGeneratedReport
+public class MetricsHistoryTest {
+    private Farm testFarm;
+    private Crop testCrop;
+    private MetricsHistory testHistory;
+
+    @BeforeEach
+    void runBefore() {
+        testFarm = new Farm(100);
+        testCrop = new Crop("recorded", 3, Integer.MAX_VALUE, 1);
+        testFarm.addPlantableCrop(testCrop);
+        testHistory = new MetricsHistory(testFarm);
+    }
+
+    @Test
+    void testRecordsEachQuarter() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.plant(testCrop, 10);
+        testFarm.timeLapses();
+        testFarm.plant(testCrop, 20);
+        testFarm.plant(new Crop("other", 1, 100, 3), 40);
+        testFarm.timeLapses();
+
+        MetricsSeries series = testHistory.getRange(0, 10, "recorded", "other", "absent");
+        assertEquals(2, series.size());
+        assertEquals(1, series.getQuarter(0));
+        assertEquals(30, series.getRevenue(0));
+        assertEquals(30, series.getRevenueEarned(0));
+        assertEquals(10, series.getHarvestedArea(0));
+        assertEquals(0, series.getPlantedArea(0));
+        assertEquals(0, series.getCropArea("recorded", 0));
+
+        assertEquals(2, series.getQuarter(1));
+        assertEquals(60, series.getRevenueEarned(1));
+        assertEquals(20, series.getHarvestedArea(1));
+        assertEquals(40, series.getPlantedArea(1));
+        assertEquals(0.4, series.getUtilization(1), 1e-9);
+        assertEquals(40, series.getCropArea("other", 1));
+        assertEquals(0, series.getCropArea("absent", 1));
+        assertEquals(1, series.getQuartersCovered(1));
+        assertThrows(IllegalArgumentException.class, () -> series.getCropArea("not asked", 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> series.getQuarter(2));
+        assertEquals(1, testHistory.getRange(2, 2).size());
+    }
+
+    @Test
+    void testDownsampledAcrossBlocks() throws NonPositiveAreaException, FilledFarmException {
+        int quarters = 5 * MetricsHistory.BLOCK_SIZE + 100;
+        for (int q = 0; q < quarters; q++) {
+            testFarm.plant(testCrop, 1 + q % 10);
+            testFarm.timeLapses();
+        }
+        assertTrue(testHistory.getEncodedBytes() < 5L * MetricsHistory.BLOCK_SIZE * 5 * 2);
+
+        MetricsSeries full = testHistory.getRange(1, quarters);
+        assertEquals(quarters, full.size());
+        MetricsSeries points = testHistory.getDownsampled(1, quarters, 10, "recorded");
+        assertEquals(10, points.size());
+        long earned = 0;
+        long harvested = 0;
+        int covered = 0;
+        for (int i = 0; i < points.size(); i++) {
+            earned += points.getRevenueEarned(i);
+            harvested += points.getHarvestedArea(i);
+            covered += points.getQuartersCovered(i);
+        }
+        assertEquals(testFarm.getRevenue(), earned);
+        assertEquals(testFarm.getRevenue() / 3, harvested);
+        assertEquals(quarters, covered);
+        assertEquals(quarters, points.getQuarter(9));
+        assertEquals(testFarm.getRevenue(), points.getRevenue(9));
+        assertEquals(0, points.getCropArea("recorded", 0));
+
+        MetricsSeries middle = testHistory.getRange(2000, 2009);
+        assertEquals(10, middle.size());
+        assertEquals(2000, middle.getQuarter(0));
+        assertEquals(3 * (1 + 1999 % 10), middle.getRevenueEarned(0));
+    }
+
+    @Test
+    void testMemoryStaysBounded() throws NonPositiveAreaException, FilledFarmException {
+        MetricsHistory bounded = new MetricsHistory(testFarm, 2, 4);
+        int quarters = 50 * MetricsHistory.BLOCK_SIZE;
+        for (int q = 0; q < quarters; q++) {
+            testFarm.plant(testCrop, 1);
+            testFarm.timeLapses();
+        }
+        assertEquals(quarters, bounded.getRecordedQuarters());
+        assertEquals(2 * MetricsHistory.BLOCK_SIZE, bounded.getFullResolutionQuarters());
+        assertEquals(4, bounded.getSummaryCount());
+
+        MetricsSeries all = bounded.getDownsampled(0, quarters, 1);
+        assertEquals(1, all.size());
+        assertEquals(quarters, all.getQuartersCovered(0));
+        assertEquals(testFarm.getRevenue(), all.getRevenueEarned(0));
+        assertEquals(quarters, all.getHarvestedArea(0));
+
+        MetricsSeries coarse = bounded.getRange(0, quarters);
+        assertEquals(4 + 2 * MetricsHistory.BLOCK_SIZE, coarse.size());
+        assertTrue(coarse.getQuartersCovered(0) > MetricsHistory.BLOCK_SIZE);
+    }
+
+    @Test
+    void testAdvanceRecordsOneQuarter() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.plant(testCrop, 10);
+        testFarm.advance(5);
+        MetricsSeries series = testHistory.getRange(0, 10);
+        assertEquals(1, series.size());
+        assertEquals(5, series.getQuarter(0));
+        assertEquals(10, series.getHarvestedArea(0));
+    }
+
+    @Test
+    void testResetAndDetach() throws NonPositiveAreaException, FilledFarmException {
+        testFarm.plant(testCrop, 10);
+        testFarm.timeLapses();
+        testFarm.reset();
+        assertEquals(0, testHistory.getRecordedQuarters());
+        assertEquals(0, testHistory.getRange(0, 10).size());
+
+        testFarm.timeLapses();
+        testHistory.detach();
+        testFarm.timeLapses();
+        assertEquals(1, testHistory.getRecordedQuarters());
+    }
+
+    @Test
+    void testDeltaCodecRoundTrip() {
+        long[] values = {0, 5, -3, Long.MAX_VALUE, Long.MIN_VALUE, 42, 42, 43};
+        byte[] encoded = DeltaCodec.encode(values, values.length);
+        long[] decoded = new long[values.length];
+        DeltaCodec.decode(encoded, decoded, values.length);
+        assertArrayEquals(values, decoded);
+        assertEquals(3, DeltaCodec.encode(new int[] {1, 2, 3}, 3).length);
+    }
+}
@@ -0,0 +1,119 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.*;
+import model.*;
+
+public class AutosaveServiceTest {
+    private Path destination;
+    private ExecutorService farmThread;
+    private AutosaveService autosave;
+    private Farm farm;
+    private Crop crop;
+    private AtomicInteger saves;
+    private Semaphore saved;
+
+    @BeforeEach
+    void runBefore() throws Exception {
+        destination = Files.createTempFile("testAutosave", ".json");
+        Files.delete(destination);
+        farmThread = Executors.newSingleThreadExecutor();
+        autosave = new AutosaveService(destination.toString(), 200, farmThread);
+        saves = new AtomicInteger();
+        saved = new Semaphore(0);
+        autosave.setSaveCallback(() -> {
+            saves.incrementAndGet();
+            saved.release();
+        });
+        crop = new Crop("autosaved", 10, 10000, 2);
+        farm = onFarmThread(() -> {
+            Farm created = new Farm(1000);
+            autosave.watch(created);
+            return created;
+        });
+    }
+
+    @AfterEach
+    void runAfter() throws Exception {
+        farmThread.shutdown();
+        Files.deleteIfExists(destination);
+        Files.deleteIfExists(Paths.get(destination + ".tmp"));
+    }
+
+    @Test
+    void testBurstIsSavedOnce() throws Exception {
+        onFarmThread(() -> {
+            farm.addPlantableCrop(crop);
+            for (int i = 0; i < 100; i++) {
+                farm.plant(crop, 1);
+            }
+            farm.timeLapses();
+            return null;
+        });
+        assertTrue(saved.tryAcquire(5, TimeUnit.SECONDS));
+        assertFalse(saved.tryAcquire(400, TimeUnit.MILLISECONDS));
+        assertEquals(1, saves.get());
+        assertNotNull(autosave.getLastSaveTime());
+        assertNull(autosave.getLastError());
+        assertFalse(Files.exists(Paths.get(destination + ".tmp")));
+
+        Farm read = new JsonReader(destination.toString()).read();
+        assertTrue(onFarmThread(() -> farm.toJson()).similar(read.toJson()));
+    }
+
+    @Test
+    void testCloseSavesLatestChanges() throws Exception {
+        onFarmThread(() -> {
+            farm.addPlantableCrop(crop);
+            farm.plant(crop, 10);
+            autosave.close();
+            return null;
+        });
+        assertEquals(1, saves.get());
+        assertEquals(1, new JsonReader(destination.toString()).read().getPlantedCropCount());
+    }
+
+    @Test
+    void testUnwatchedFarmIsNotSaved() throws Exception {
+        onFarmThread(() -> {
+            autosave.watch(null);
+            farm.setArea(5);
+            return null;
+        });
+        assertFalse(saved.tryAcquire(400, TimeUnit.MILLISECONDS));
+        assertNull(autosave.getLastSaveTime());
+        assertFalse(Files.exists(destination));
+    }
+
+    @Test
+    void testFailedSaveIsReported() throws Exception {
+        AutosaveService failing = new AutosaveService(destination.resolve("missing").resolve("farm.json").toString(),
+                0, farmThread);
+        onFarmThread(() -> {
+            failing.watch(farm);
+            farm.setArea(5);
+            return null;
+        });
+        IOException error = assertThrows(IOException.class, () -> onFarmThread(() -> {
+            failing.close();
+            return null;
+        }));
+        assertNotNull(error);
+        assertNotNull(failing.getLastError());
+    }
+
+    /*
+     * EFFECTS: runs task on the farm thread and returns its result
+     */
+    private <T> T onFarmThread(Callable<T> task) throws Exception {
+        try {
+            return farmThread.submit(task).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.stream.*;
+import org.junit.jupiter.api.*;
+import model.*;
+
+public class EventLogAppenderTest {
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("testEventLog");
+        file = directory.resolve("events.log");
+        EventLog.getInstance().flush();
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testCloseWritesLoggedEvents() throws IOException {
+        EventLogAppender appender = new EventLogAppender(file.toString(), 1 << 20, 2, 60000);
+        appender.start();
+        EventLog.getInstance().logEvent(Event.planted("appended", 5, 0));
+        EventLog.getInstance().logEvent(new Event("two\nlines"));
+        appender.close();
+        EventLog.getInstance().logEvent(new Event("after close"));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("\\d{4}-\\d\\d-\\d\\dT.*Z\tPlanted 5 sq km of appended"));
+        assertTrue(lines.get(1).endsWith("\ttwo\\nlines"));
+        assertEquals(0, appender.getDroppedCount());
+        assertNull(appender.getLastError());
+    }
+
+    @Test
+    void testEventsAreWrittenWithinFlushInterval() throws Exception {
+        EventLogAppender appender = new EventLogAppender(file.toString(), 1 << 20, 2, 50);
+        appender.start();
+        try {
+            EventLog.getInstance().logEvent(new Event("flushed"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.size(file) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(Files.readAllLines(file).get(0).endsWith("\tflushed"));
+        } finally {
+            appender.close();
+        }
+    }
+
+    @Test
+    void testRotatesBySize() throws IOException {
+        EventLogAppender appender = new EventLogAppender(file.toString(), 1000, 2, 60000);
+        appender.start();
+        for (int i = 0; i < 10000; i++) {
+            EventLog.getInstance().logEvent(Event.timeAdvanced(i));
+        }
+        appender.close();
+
+        assertTrue(Files.exists(directory.resolve("events.log.1")));
+        assertTrue(Files.exists(directory.resolve("events.log.2")));
+        assertFalse(Files.exists(directory.resolve("events.log.3")));
+        List<String> lines = Files.readAllLines(file);
+        String last = lines.get(lines.size() - 1);
+        assertTrue(last.endsWith("\tTime advanced to quarter 9999"));
+        assertTrue(Files.size(directory.resolve("events.log.1")) <= 1000);
+        assertTrue(Files.readAllLines(directory.resolve("events.log.1")).stream()
+                .allMatch(l -> l.contains("\tTime advanced to quarter ")));
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    void testRotatesByEncodedSize() throws IOException {
+        EventLogAppender appender = new EventLogAppender(file.toString(), 1000, 2, 60000);
+        appender.start();
+        for (int i = 0; i < 100; i++) {
+            EventLog.getInstance().logEvent(new Event("Harvested \u53CE\u7A6B " + i + " \uD83C\uDF3E \u00E9"));
+        }
+        appender.close();
+
+        for (String name : new String[] {"events.log", "events.log.1", "events.log.2"}) {
+            assertTrue(Files.size(directory.resolve(name)) <= 1000, name);
+        }
+        List<String> lines = Files.readAllLines(file);
+        assertTrue(lines.get(lines.size() - 1).endsWith("\tHarvested \u53CE\u7A6B 99 \uD83C\uDF3E \u00E9"));
+    }
+
+    @Test
+    void testUtf8Length() {
+        String[] texts = {"", "ascii", "\u00E9", "\u53CE\u7A6B", "\uD83C\uDF3E", "a\uD83Cb", "\uDF3E", "x\uD83C"};
+        for (String text : texts) {
+            byte[] encoded = text.getBytes(StandardCharsets.UTF_8); // which also replaces unpaired surrogates with '?'
+            assertEquals(encoded.length, EventLogAppender.utf8Length(text), text);
+        }
+    }
+
+    @Test
+    void testStartFailsOnMissingDirectory() throws IOException {
+        Path blocker = directory.resolve("blocker");
+        Files.createFile(blocker);
+        EventLogAppender appender = new EventLogAppender(blocker.resolve("events.log").toString(), 1000, 1, 100);
+        assertThrows(IOException.class, () -> appender.start());
+    }
+
+    @Test
+    void testDroppedEventsAreReported() throws IOException {
+        EventLogAppender appender = new EventLogAppender(file.toString(), 1 << 30, 2, 60000);
+        appender.start();
+        for (int i = 0; i < 200000; i++) {
+            appender.append(new Event("flood"));
+        }
+        appender.close();
+
+        long dropped = appender.getDroppedCount();
+        assertTrue(dropped > 0);
+        try (Stream<String> lines = Files.lines(file)) {
+            assertEquals(dropped, lines.filter(l -> l.contains("dropped"))
+                    .mapToLong(l -> Long.parseLong(l.replaceAll(".*dropped (\\d+) events", "$1"))).sum());
+        }
+    }
+}
\ No newline at end of file
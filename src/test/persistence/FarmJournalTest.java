@@ -0,0 +1,171 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.*;
+import exception.*;
+import model.*;
+
+public class FarmJournalTest {
+    private Path directory;
+    private FarmJournal journal;
+    private Farm farm;
+    private Crop apple;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("testFarmJournal");
+        journal = new FarmJournal(directory.toString());
+        farm = new Farm(1000);
+        apple = new Crop("apple", 100, 300, 2);
+        farm.addPlantableCrop(apple);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testSaveAndLoad() throws Exception {
+        assertFalse(journal.exists());
+        farm.plant(apple, 100);
+        journal.save(farm);
+        assertTrue(journal.exists());
+        long baseSize = Files.size(directory.resolve("base-1.farm"));
+
+        farm.addPlantableCrop(new Crop("pear", 40, 50, 1));
+        farm.plant(farm.getPlantableCrops().find("pear"), 20);
+        farm.addSeeds(apple, 10);
+        farm.timeLapses();
+        farm.plant(apple, 50);
+        farm.advance(3);
+        farm.plant(apple, 30);
+        farm.harvest();
+        farm.setArea(2000);
+        journal.save(farm);
+        assertEquals(baseSize, Files.size(directory.resolve("base-1.farm")));
+        assertTrue(Files.size(directory.resolve("journal-1.log")) < 200);
+
+        Farm loaded = new FarmJournal(directory.toString()).load();
+        assertTrue(farm.toJson().similar(loaded.toJson()));
+        assertEquals(farm.getPlantableCrops(), loaded.getPlantableCrops());
+        assertEquals(2000, loaded.getArea());
+        Farm arrays = new FarmJournal(directory.toString()).load(Farm.Storage.ARRAYS);
+        assertEquals(Farm.Storage.ARRAYS, arrays.getStorage());
+        assertTrue(farm.toJson().similar(arrays.toJson()));
+        assertEquals(30, loaded.getPlantedArea());
+    }
+
+    @Test
+    void testUnsavedChangesAreNotJournaled() throws Exception {
+        journal.save(farm);
+        farm.plant(apple, 100);
+        farm.reset();
+        journal.save(farm);
+        farm.plant(apple, 200);
+
+        Farm loaded = new FarmJournal(directory.toString()).load();
+        assertEquals(0, loaded.getPlantedCropCount());
+        assertEquals(200, loaded.getPlantableCrops().find("apple").getSeeds());
+    }
+
+    @Test
+    void testLoadedFarmIsJournaled() throws Exception {
+        journal.save(farm);
+        FarmJournal other = new FarmJournal(directory.toString());
+        Farm loaded = other.load();
+        loaded.plant(loaded.getPlantableCrops().find("apple"), 100);
+        other.save(loaded);
+        other.close();
+
+        assertEquals(1, new FarmJournal(directory.toString()).load().getPlantedCropCount());
+    }
+
+    @Test
+    void testNewFarmIsRebased() throws Exception {
+        journal.save(farm);
+        farm.plant(apple, 100);
+        journal.save(farm);
+
+        Farm replacement = new Farm(50);
+        journal.save(replacement);
+        assertFalse(Files.exists(directory.resolve("base-1.farm")));
+        assertFalse(Files.exists(directory.resolve("journal-1.log")));
+        farm.plant(apple, 100);
+        journal.save(replacement);
+
+        Farm loaded = new FarmJournal(directory.toString()).load();
+        assertEquals(50, loaded.getArea());
+        assertEquals(0, loaded.getPlantedCropCount());
+    }
+
+    @Test
+    void testTornBatchIsDropped() throws Exception {
+        journal.save(farm);
+        farm.plant(apple, 100);
+        journal.save(farm);
+        Path log = directory.resolve("journal-1.log");
+        long size = Files.size(log);
+        Files.write(log, new byte[] { 0, 0, 0, 40, 1, 2 }, StandardOpenOption.APPEND);
+
+        FarmJournal reopened = new FarmJournal(directory.toString());
+        Farm loaded = reopened.load();
+        assertEquals(1, loaded.getPlantedCropCount());
+        assertEquals(size, Files.size(log));
+        loaded.timeLapses();
+        reopened.save(loaded);
+        reopened.close();
+        assertEquals(1, new FarmJournal(directory.toString()).load().getTime());
+    }
+
+    @Test
+    void testCompaction() throws Exception {
+        Crop corn = new Crop("corn", 10, 100000, 3);
+        farm.addPlantableCrop(corn);
+        journal.save(farm);
+        for (int i = 0; i < 4000; i++) {
+            farm.plant(corn, 1);
+            if (i % 10 == 0) {
+                farm.timeLapses();
+            }
+        }
+        journal.save(farm);
+        farm.plant(corn, 5);
+        journal.save(farm);
+        journal.awaitCompaction();
+
+        assertTrue(Files.exists(directory.resolve("base-2.farm")));
+        assertFalse(Files.exists(directory.resolve("base-1.farm")));
+        assertFalse(Files.exists(directory.resolve("journal-1.log")));
+        assertTrue(Files.exists(directory.resolve("journal-2.log")));
+
+        Farm loaded = new FarmJournal(directory.toString()).load();
+        assertTrue(farm.toJson().similar(loaded.toJson()));
+    }
+
+    @Test
+    void testNoSavedFarm() {
+        assertThrows(IOException.class, () -> journal.load());
+    }
+
+    @Test
+    void testPlantNonCatalogCrop() throws Exception {
+        journal.save(farm);
+        try {
+            farm.plant(new Crop("apple", 100, 7, 2), 5);
+        } catch (NonPositiveAreaException | FilledFarmException e) {
+            fail("Planting should not throw exception");
+        }
+        journal.save(farm);
+
+        Farm loaded = new FarmJournal(directory.toString()).load();
+        assertTrue(farm.toJson().similar(loaded.toJson()));
+    }
+}
@@ -2,7 +2,9 @@ package persistence;
 
 import static org.junit.jupiter.api.Assertions.*;
 import java.io.IOException;
+import java.nio.file.*;
 import java.util.List;
+import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 import model.*;
 
@@ -47,4 +49,77 @@ public class JsonReaderTest extends JsonTest {
             fail("Couldn't read from file");
         }
     }
+
+    @Test
+    void testReaderArrayStorage() throws IOException {
+        Farm objects = new JsonReader("./data/testReaderGeneralFarm.json").read();
+        Farm arrays = new JsonReader("./data/testReaderGeneralFarm.json", Farm.Storage.ARRAYS).read();
+        assertEquals(Farm.Storage.OBJECTS, objects.getStorage());
+        assertEquals(Farm.Storage.ARRAYS, arrays.getStorage());
+        assertEquals(objects.getPlantedCrops().toString(), arrays.getPlantedCrops().toString());
+        assertTrue(objects.toJson().similar(arrays.toJson()));
+    }
+
+    @Test
+    void testReaderReorderedFarm() {
+        JsonReader reader = new JsonReader("./data/testReaderReorderedFarm.json");
+        try {
+            Farm farm = reader.read();
+            assertEquals(500, farm.getArea());
+            assertEquals(3, farm.getTime());
+            assertEquals(250, farm.getRevenue());
+            List<PlantedCrop> crops = farm.getPlantedCrops();
+            assertEquals(1, crops.size());
+            checkPlantedCrop(new Crop("apple", 100, 300, 2), 100, crops.get(0));
+            assertEquals(1, crops.get(0).getTimeGrown());
+            assertEquals(400, farm.remainingArea());
+            assertEquals(2, farm.getPlantableCrops().size());
+            assertEquals(new Crop("wild berry", 20, 40, 3), farm.getPlantableCrops().get(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderMissingKey() throws IOException {
+        Path path = Files.createTempFile("testReaderMissingKey", ".json");
+        try {
+            Files.writeString(path, "{\"area\": 500, \"time\": 0, \"crops\": [], \"plantableCrops\": []}");
+            JsonReader reader = new JsonReader(path.toString());
+            assertThrows(JSONException.class, () -> reader.read());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testReaderTimeGrownOutOfRange() throws IOException {
+        Path path = Files.createTempFile("testReaderTimeGrownOutOfRange", ".json");
+        try {
+            JsonReader reader = new JsonReader(path.toString());
+            for (int timeGrown : new int[] {-4, -1, 4}) {
+                Files.writeString(path, "{\"area\": 500, \"time\": 0, \"revenue\": 0, \"plantableCrops\": [],"
+                        + " \"crops\": [{\"name\": \"wheat\", \"revenue\": 5, \"seeds\": 10, \"timeRequired\": 3,"
+                        + " \"plantedArea\": 50, \"timeGrown\": " + timeGrown + "}]}");
+                assertThrows(JSONException.class, () -> reader.read());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testReaderTrailingContent() throws IOException {
+        Path path = Files.createTempFile("testReaderTrailingContent", ".json");
+        try {
+            String farm = "{\"area\": 500, \"time\": 0, \"revenue\": 0, \"crops\": [], \"plantableCrops\": []}\n";
+            JsonReader reader = new JsonReader(path.toString());
+            Files.writeString(path, farm);
+            assertEquals(500, reader.read().getArea());
+            Files.writeString(path, farm + "{}");
+            assertThrows(JSONException.class, () -> reader.read());
+        } finally {
+            Files.delete(path);
+        }
+    }
 }
\ No newline at end of file
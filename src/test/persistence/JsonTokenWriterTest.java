@@ -0,0 +1,59 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+public class JsonTokenWriterTest {
+
+    @Test
+    void testCompact() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        json.beginObject();
+        json.name("a").beginArray().value(1).value(-20).value(true).endArray();
+        json.name("b").value("x\"y\\\n\u0001");
+        json.name("c").beginObject().endObject();
+        json.name("d").value(Long.MIN_VALUE);
+        json.endObject();
+        json.close();
+        assertEquals("{\"a\":[1,-20,true],\"b\":\"x\\\"y\\\\\\n\\u0001\",\"c\":{},\"d\":-9223372036854775808}",
+                out.toString());
+    }
+
+    @Test
+    void testPretty() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, true);
+        json.beginObject();
+        json.name("area").value(500);
+        json.name("crops").beginArray().endArray();
+        json.name("list").beginArray().beginObject().name("n").value(0).endObject().endArray();
+        json.endObject();
+        json.flush();
+        assertEquals("{\n    \"area\": 500,\n    \"crops\": [],\n    \"list\": [\n        {\n"
+                + "            \"n\": 0\n        }\n    ]\n}", out.toString());
+    }
+
+    @Test
+    void testLongOutputAcrossBuffers() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter json = new JsonTokenWriter(out, false);
+        json.beginArray();
+        for (int i = 0; i < 100000; i++) {
+            json.value(i).value("s" + i);
+        }
+        json.endArray();
+        json.close();
+
+        JsonTokenizer reader = new JsonTokenizer(new StringReader(out.toString()));
+        reader.beginArray();
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(i, reader.nextInt());
+            assertEquals("s" + i, reader.nextString());
+        }
+        reader.endArray();
+    }
+}
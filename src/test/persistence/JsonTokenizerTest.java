@@ -0,0 +1,131 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.StringReader;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+import persistence.JsonTokenizer.Token;
+
+public class JsonTokenizerTest {
+
+    @Test
+    void testTokens() throws IOException {
+        JsonTokenizer json = new JsonTokenizer(
+                new StringReader("{\"a\": [1, -20, 3.9, true, false, null], \"b\": \"x\\\"y\\u0041\\n\"}"));
+        assertEquals(Token.BEGIN_OBJECT, json.peek());
+        json.beginObject();
+        assertEquals(Token.NAME, json.peek());
+        assertEquals("a", json.nextName());
+        json.beginArray();
+        assertEquals(1, json.nextInt());
+        assertEquals(-20, json.nextInt());
+        assertEquals(3, json.nextInt());
+        assertTrue(json.nextBoolean());
+        assertFalse(json.nextBoolean());
+        assertEquals(Token.NULL, json.peek());
+        json.skipValue();
+        assertFalse(json.hasNext());
+        json.endArray();
+        assertTrue(json.hasNext());
+        assertEquals("b", json.nextName());
+        assertEquals(Token.STRING, json.peek());
+        assertEquals("x\"yA\n", json.nextString());
+        json.endObject();
+        assertEquals(Token.END_DOCUMENT, json.peek());
+        json.close();
+    }
+
+    @Test
+    void testSkipNestedValue() throws IOException {
+        JsonTokenizer json = new JsonTokenizer(new StringReader("{\"skip\": {\"x\": [{}, [1, {\"y\": 2}]]}, \"n\": 7}"));
+        json.beginObject();
+        assertEquals("skip", json.nextName());
+        json.skipValue();
+        assertEquals("n", json.nextName());
+        assertEquals(7, json.nextInt());
+        json.endObject();
+    }
+
+    @Test
+    void testLongInputAcrossBuffers() throws IOException {
+        StringBuilder input = new StringBuilder("[");
+        for (int i = 0; i < 100000; i++) {
+            input.append(i).append(", ");
+        }
+        input.append("\"end\"]");
+        JsonTokenizer json = new JsonTokenizer(new StringReader(input.toString()));
+        json.beginArray();
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(i, json.nextInt());
+        }
+        assertEquals("end", json.nextString());
+        json.endArray();
+    }
+
+    @Test
+    void testSyntaxErrors() {
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader("[1]")).beginObject());
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader("?")).peek());
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader("\"abc")).nextString());
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader("\"\\q\"")).nextString());
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader("tru")).nextBoolean());
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader("[")).skipValue());
+    }
+
+    @Test
+    void testSeparatorErrors() {
+        assertSkipFails("[1 2]");
+        assertSkipFails("[1,,2]");
+        assertSkipFails("[1,]");
+        assertSkipFails("[,1]");
+        assertSkipFails("[1:2]");
+        assertSkipFails("{\"a\" 1}");
+        assertSkipFails("{\"a\":1 \"b\":2}");
+        assertSkipFails("{\"a\",1}");
+        assertSkipFails("{\"a\":}");
+        assertSkipFails("{\"a\":1,}");
+        assertSkipFails("{1:2}");
+        assertSkipFails("[1}");
+        assertSkipFails("{\"a\":1]");
+    }
+
+    @Test
+    void testTrailingContent() throws IOException {
+        JsonTokenizer json = new JsonTokenizer(new StringReader(" {\"a\": [1, 2]} \n"));
+        json.skipValue();
+        json.endDocument();
+        JsonTokenizer trailing = new JsonTokenizer(new StringReader("{\"a\": 1} {\"b\": 2}"));
+        trailing.skipValue();
+        JSONException e = assertThrows(JSONException.class, () -> trailing.endDocument());
+        assertEquals("Unexpected content after the document at character 9", e.getMessage());
+        JsonTokenizer second = new JsonTokenizer(new StringReader("1 2"));
+        assertEquals(1, second.nextInt());
+        assertThrows(JSONException.class, () -> second.nextInt());
+    }
+
+    @Test
+    void testNumbers() throws IOException {
+        JsonTokenizer json = new JsonTokenizer(new StringReader(
+                "[0, -0, 1e3, -2.5E-1, 123456789012345678, 9223372036854775807, -9223372036854775808]"));
+        json.beginArray();
+        assertEquals(0, json.nextLong());
+        assertEquals(0, json.nextLong());
+        assertEquals(1000, json.nextLong());
+        assertEquals(0, json.nextLong());
+        assertEquals(123456789012345678L, json.nextLong());
+        assertEquals(Long.MAX_VALUE, json.nextLong());
+        assertEquals(Long.MIN_VALUE, json.nextLong());
+        json.endArray();
+
+        for (String number : new String[] {"1-2", "-", "1e", "1.", "01", "-01", "1.2.3", "1e+-2", "9223372036854775808"}) {
+            JSONException e = assertThrows(JSONException.class,
+                    () -> new JsonTokenizer(new StringReader(number)).nextLong(), number);
+            assertTrue(e.getMessage().contains("'" + number + "'"), e.getMessage());
+        }
+    }
+
+    private static void assertSkipFails(String text) {
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader(text)).skipValue(), text);
+    }
+}
@@ -97,4 +97,26 @@ public class JsonWriterTest extends JsonTest {
         checkPlantedCrop(new Crop("apple", 100, 300, 2), 100, crops.get(0));
         checkPlantedCrop(new Crop("banana", 50, 500, 1), 300, crops.get(1));
     }
+
+    @Test
+    void testWriterCompactArrayFarm() {
+        try {
+            Farm farm = new Farm(500, Farm.Storage.ARRAYS);
+            farm.addPlantableCrop(new Crop("apple", 100, 300, 2));
+            plantCropSafely(farm, "apple", 100, 300, 2, 100);
+            farm.timeLapses();
+            plantCropSafely(farm, "banana", 50, 500, 3, 300);
+            JsonWriter writer = new JsonWriter("./data/testWriterCompactFarm.json", false);
+            writer.open();
+            writer.write(farm);
+            writer.close();
+
+            JsonReader reader = new JsonReader("./data/testWriterCompactFarm.json");
+            Farm readFarm = reader.read();
+            assertTrue(farm.toJson().similar(readFarm.toJson()));
+            assertEquals(1, readFarm.getPlantedCrops().get(0).getTimeGrown());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
 }
\ No newline at end of file
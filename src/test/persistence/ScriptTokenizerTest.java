@@ -0,0 +1,91 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+public class ScriptTokenizerTest {
+
+    @Test
+    void testTokensAndLines() throws IOException {
+        ScriptTokenizer script = new ScriptTokenizer(
+                new StringReader("# a comment\r\n1 100\n2 wheat 3 +50 -2 # trailing\n\n  4\twheat\t2147483647"));
+        assertEquals(0, script.getLine());
+        assertTrue(script.hasNext());
+        assertEquals("1", script.next());
+        assertEquals(2, script.getLine());
+        assertEquals(100, script.nextInt());
+        assertEquals("2", script.next());
+        assertEquals(3, script.getLine());
+        assertEquals("wheat", script.next());
+        assertEquals(3, script.nextInt());
+        assertEquals(50, script.nextInt());
+        assertEquals(-2, script.nextInt());
+        assertEquals("4", script.next());
+        assertEquals(5, script.getLine());
+        assertEquals("wheat", script.next());
+        assertEquals(Integer.MAX_VALUE, script.nextInt());
+        assertFalse(script.hasNext());
+        assertThrows(NoSuchElementException.class, () -> script.next());
+        script.close();
+    }
+
+    @Test
+    void testMismatchConsumesToken() throws IOException {
+        ScriptTokenizer script = new ScriptTokenizer(new StringReader("abc 12x - 2147483648 00000000000042 -2147483648 7"));
+        InputMismatchException e = assertThrows(InputMismatchException.class, () -> script.nextInt());
+        assertEquals("Expected an integer on line 1 but found 'abc'", e.getMessage());
+        assertThrows(InputMismatchException.class, () -> script.nextInt());
+        assertThrows(InputMismatchException.class, () -> script.nextInt());
+        assertThrows(InputMismatchException.class, () -> script.nextInt());
+        assertEquals(42, script.nextInt());
+        assertEquals(Integer.MIN_VALUE, script.nextInt());
+        assertEquals(7, script.nextInt());
+    }
+
+    @Test
+    void testSkipLine() throws IOException {
+        ScriptTokenizer script = new ScriptTokenizer(new StringReader("plant x oops 3\n5\n"));
+        assertEquals("plant", script.next());
+        script.skipLine();
+        assertEquals(5, script.nextInt());
+        assertEquals(2, script.getLine());
+        assertFalse(script.hasNext());
+    }
+
+    @Test
+    void testHasNextOnLine() throws IOException {
+        ScriptTokenizer script = new ScriptTokenizer(new StringReader("plant \t wheat\r\n3 # area\nseeds\n"));
+        assertEquals("plant", script.next());
+        assertTrue(script.hasNextOnLine());
+        assertEquals("wheat", script.next());
+        assertFalse(script.hasNextOnLine());
+        assertEquals(3, script.nextInt());
+        assertEquals(2, script.getLine());
+        assertFalse(script.hasNextOnLine());
+        assertEquals("seeds", script.next());
+        assertFalse(script.hasNextOnLine());
+        script.skipLine();
+        assertFalse(script.hasNextOnLine());
+        assertFalse(script.hasNext());
+    }
+
+    @Test
+    void testTokensAcrossBufferBoundary() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int count = 20000;
+        for (int i = 0; i < count; i++) {
+            text.append("crop").append(i).append(' ').append(i * 7).append('\n');
+        }
+        ScriptTokenizer script = new ScriptTokenizer(new StringReader(text.toString()));
+        for (int i = 0; i < count; i++) {
+            assertEquals("crop" + i, script.next());
+            assertEquals(i * 7, script.nextInt());
+            assertEquals(i + 1, script.getLine());
+        }
+        assertFalse(script.hasNext());
+    }
+}
@@ -0,0 +1,151 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.*;
+import exception.*;
+import model.*;
+
+public class SnapshotTest {
+    private Path snapshot;
+    private Path json;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        snapshot = Files.createTempFile("testSnapshot", ".farm");
+        json = Files.createTempFile("testSnapshot", ".json");
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(json);
+    }
+
+    @Test
+    void testRoundTripFarmJson() throws IOException {
+        Farm original = new JsonReader("./data/farm.json").read();
+        SnapshotConverter.jsonToSnapshot("./data/farm.json", snapshot.toString());
+        Farm fromSnapshot = new SnapshotReader(snapshot.toString()).read();
+        assertTrue(original.toJson().similar(fromSnapshot.toJson()));
+        assertEquals(original.getPlantableCrops(), fromSnapshot.getPlantableCrops());
+
+        SnapshotConverter.snapshotToJson(snapshot.toString(), json.toString(), true);
+        Farm fromJson = new JsonReader(json.toString()).read();
+        assertTrue(original.toJson().similar(fromJson.toJson()));
+    }
+
+    @Test
+    void testRoundTripPlantedFarm() throws IOException, NonPositiveAreaException, FilledFarmException {
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            Farm farm = new Farm(1000, storage);
+            Crop apple = new Crop("apple", 100, 300, 3);
+            Crop pear = new Crop("p\u00e4\u00e4r", 40, 50, 1);
+            farm.addPlantableCrop(apple);
+            farm.addPlantableCrop(pear);
+            farm.plant(apple, 100);
+            farm.plant(pear, 50);
+            farm.timeLapses();
+            farm.plant(apple, 200);
+            farm.setRevenue(1234);
+
+            writeSnapshot(farm);
+            Farm read = new SnapshotReader(snapshot.toString()).read();
+            assertTrue(farm.toJson().similar(read.toJson()));
+            assertEquals(2, read.getPlantedCropCount());
+            assertEquals(300, read.getPlantedArea("apple"));
+            assertEquals(1, read.getPlantedCrops().get(0).getTimeGrown());
+
+            read.timeLapses();
+            read.timeLapses();
+            assertEquals(1, read.getPlantedCropCount());
+            assertEquals(1234 + 100 * 100, read.getRevenue());
+        }
+    }
+
+    @Test
+    void testStorage() throws IOException {
+        writeSnapshot(new JsonReader("./data/farm.json").read());
+        Farm arrays = new SnapshotReader(snapshot.toString()).read();
+        Farm objects = new SnapshotReader(snapshot.toString(), Farm.Storage.OBJECTS).read();
+        assertEquals(Farm.Storage.ARRAYS, arrays.getStorage());
+        assertEquals(Farm.Storage.OBJECTS, objects.getStorage());
+        assertTrue(arrays.toJson().similar(objects.toJson()));
+        arrays.checkAccounting();
+    }
+
+    @Test
+    void testInvalidPlantingRecord() throws IOException, NonPositiveAreaException, FilledFarmException {
+        Farm farm = new Farm(1000);
+        Crop apple = new Crop("apple", 100, 300, 3);
+        farm.addPlantableCrop(apple);
+        farm.plant(apple, 100);
+        writeSnapshot(farm);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        int record = bytes.length - SnapshotFormat.TRAILER_SIZE - SnapshotFormat.PLANTING_SIZE;
+
+        ByteBuffer.wrap(bytes).putInt(record + 4, 0);
+        writeWithChecksum(bytes);
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            assertThrows(IOException.class, () -> new SnapshotReader(snapshot.toString(), storage).read());
+        }
+        ByteBuffer.wrap(bytes).putInt(record + 4, 100).putInt(record, 7);
+        writeWithChecksum(bytes);
+        for (Farm.Storage storage : Farm.Storage.values()) {
+            assertThrows(IOException.class, () -> new SnapshotReader(snapshot.toString(), storage).read());
+        }
+        for (int timeGrown : new int[] {-4, -1, 4}) {
+            ByteBuffer.wrap(bytes).putInt(record, 0).putInt(record + 8, timeGrown);
+            writeWithChecksum(bytes);
+            for (Farm.Storage storage : Farm.Storage.values()) {
+                assertThrows(IOException.class, () -> new SnapshotReader(snapshot.toString(), storage).read());
+            }
+        }
+        ByteBuffer.wrap(bytes).putInt(record + 8, 3);
+        writeWithChecksum(bytes);
+        assertEquals(100, new SnapshotReader(snapshot.toString()).read().getPlantedArea("apple"));
+    }
+
+    @Test
+    void testCorruptSnapshot() throws IOException {
+        writeSnapshot(new JsonReader("./data/farm.json").read());
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[SnapshotFormat.HEADER_SIZE + 3] ^= 1;
+        Files.write(snapshot, bytes);
+        assertThrows(IOException.class, () -> new SnapshotReader(snapshot.toString()).read());
+    }
+
+    @Test
+    void testNotASnapshot() throws IOException {
+        assertThrows(IOException.class, () -> new SnapshotReader(snapshot.toString()).read());
+        Files.write(snapshot, Files.readAllBytes(Paths.get("./data/farm.json")));
+        assertThrows(IOException.class, () -> new SnapshotReader(snapshot.toString()).read());
+        assertThrows(IOException.class, () -> new SnapshotReader("./data/noSuchFile.farm").read());
+    }
+
+    /*
+     * MODIFIES: bytes
+     * EFFECTS: updates the checksum in the trailer of bytes and writes them to
+     * the snapshot file
+     */
+    private void writeWithChecksum(byte[] bytes) throws IOException {
+        int end = bytes.length - SnapshotFormat.TRAILER_SIZE;
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, end);
+        ByteBuffer.wrap(bytes).putInt(end, (int) checksum.getValue());
+        Files.write(snapshot, bytes);
+    }
+
+    /*
+     * EFFECTS: writes a snapshot of farm to the snapshot file
+     */
+    private void writeSnapshot(Farm farm) throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(snapshot.toString());
+        writer.open();
+        writer.write(farm);
+        writer.close();
+    }
+}
@@ -0,0 +1,80 @@
+package ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.*;
+import org.junit.jupiter.api.Test;
+
+public class FarmBatchTest {
+
+    @Test
+    void testArgumentsStayOnTheirLine() throws IOException {
+        String script = "area 100\n"
+                + "crop wheat 5 10 2 # a comment\n"
+                + "plant\n"
+                + " tick\n"
+                + "advance 3\n"
+                + "plant wheat 3 4\n"
+                + "seeds wheat # no amount\n"
+                + "5\n"
+                + "plant wheat 3\n"
+                + "status";
+        StringWriter out = new StringWriter();
+        assertEquals(3, new FarmBatch(new StringReader(script), out).run());
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(11, lines.length);
+        assertEquals("ok\tarea\t100", lines[0]);
+        assertEquals("ok\tcrop\twheat", lines[1]);
+        assertEquals("error\t3\tplant\tMissing argument", lines[2]);
+        assertEquals("ok\ttick\t1\t0", lines[3]);
+        assertEquals("ok\tadvance\t4\t0\t0", lines[4]);
+        assertEquals("error\t6\tplant\tUnexpected argument '4'", lines[5]);
+        assertEquals("error\t7\tseeds\tMissing argument", lines[6]);
+        assertEquals("ok\ttick\t5\t0", lines[7]);
+        assertEquals("ok\tplant\twheat\t3\t97", lines[8]);
+        assertEquals("ok\tstatus\t5\t0\t100\t97\t1", lines[9]);
+        assertTrue(lines[10].startsWith("done\t10\t3\t"));
+    }
+
+    @Test
+    void testReplacedCropIsReported() throws IOException {
+        String script = "area 100\ncrop wheat 5 10 2\ncrop Wheat 6 3 1\nseeds wheat 1\n";
+        StringWriter out = new StringWriter();
+        assertEquals(0, new FarmBatch(new StringReader(script), out).run());
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("ok\tcrop\twheat", lines[1]);
+        assertEquals("ok\tcrop\tWheat\treplaced\t10", lines[2]);
+        assertEquals("ok\tseeds\twheat\t4", lines[3]);
+    }
+
+    @Test
+    void testCorruptFileFailsOnlyItsCommand() throws IOException {
+        Path truncated = Files.createTempFile("testCorruptFile", ".json");
+        Path badCrop = Files.createTempFile("testCorruptFile", ".json");
+        try {
+            Files.writeString(truncated, "{\"area\": 100, \"time\": 0, \"crops\": [");
+            Files.writeString(badCrop, "{\"area\": 100, \"time\": 0, \"revenue\": 0, \"crops\": [],"
+                    + " \"plantableCrops\": [{\"name\": \"wheat\", \"revenue\": 5, \"seeds\": 10,"
+                    + " \"timeRequired\": 9}]}");
+            String script = "area 100\nload " + truncated + "\nload " + badCrop + "\nstatus\n";
+            StringWriter out = new StringWriter();
+            assertEquals(2, new FarmBatch(new StringReader(script), out).run());
+
+            String[] lines = out.toString().split("\n");
+            assertEquals(5, lines.length);
+            assertEquals("ok\tarea\t100", lines[0]);
+            assertTrue(lines[1].startsWith("error\t2\tload\tInvalid farm in " + truncated + ": "), lines[1]);
+            assertTrue(lines[2].startsWith("error\t3\tload\tInvalid farm in " + badCrop + ": "), lines[2]);
+            assertEquals("ok\tstatus\t0\t0\t100\t100\t0", lines[3]);
+            assertTrue(lines[4].startsWith("done\t4\t2\t"));
+        } finally {
+            Files.delete(truncated);
+            Files.delete(badCrop);
+        }
+    }
+}
\ No newline at end of file